@@ -0,0 +1,141 @@
+package com.healthcare.service;
+
+import ch.qos.logback.classic.Logger;
+import com.healthcare.dto.LabValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LabValueExtractor#extract} on OCR output of multi-page lab reports.
+ * <p>
+ * The text is generated once per trial: letterhead and patient lines, a mix
+ * of panels written with the aliases labs use ("Hb", "FBS", "S. Creatinine"),
+ * reference ranges and flags, OCR artefacts (doubled spaces, stray
+ * punctuation) and page footers. {@code labelled} covers the trie scan;
+ * {@code unlabelled} holds no known analyte, so every call also runs the
+ * line-by-line generic fallback.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LabValueExtractorBenchmark {
+
+    private static final String[] ROWS = {
+            "Hb %.1f g/dL 13.0 - 17.0",
+            "Haematocrit (PCV) %.0f %% 40 - 50",
+            "Total WBC count %.1f 10^3/uL 4.0 - 11.0",
+            "RBC  %.2f mill/µL 4.5 - 5.5",
+            "Platelet Count %.0f 10^3/µL 150 - 410",
+            "MCV %.1f fL 83 - 101",
+            "FBS %.0f mg/dl 70 - 100",
+            "HbA1c %.1f %% < 5.7",
+            "S. Creatinine %.2f mg/dL 0.7 - 1.3",
+            "Blood Urea Nitrogen (BUN) %.0f mg/dL 7 - 20",
+            "Sodium %.0f mmol/L 135 - 145",
+            "Potassium %.1f mmol/L 3.5 - 5.1",
+            "SGOT (AST) %.0f U/L < 40",
+            "SGPT (ALT) %.0f IU/L < 41",
+            "Total Cholesterol %.0f mg/dL < 200",
+            "LDL Cholesterol %.0f mg/dL < 100",
+            "HDL Cholesterol %.0f mg/dL > 40",
+            "Triglycerides %.0f mg/dL < 150",
+            "TSH %.2f uIU/mL 0.27 - 4.20",
+            "Vitamin D (25-OH) %.1f ng/mL 30 - 100",
+            "Vitamin B12 %.0f pg/mL 211 - 911",
+            "Serum Ferritin %.0f ng/mL 30 - 400",
+            "CRP %.1f mg/L < 5.0",
+            "ESR %.0f mm/1st hr 0 - 15"
+    };
+
+    private static final String[] NARRATIVE = {
+            "Sample received in good condition; processed within stability limits.",
+            "Values outside the biological reference interval are flagged H / L.",
+            "Method: spectrophotometry | Instrument: automated analyser, calibrated daily",
+            "Interpretation should be correlated with clinical findings and history.",
+            "Dr. A. Sharma, MD (Pathology)   Reg. No. 44521   Verified electronically"
+    };
+
+    @Param({"1", "5", "20"})
+    private int pages;
+
+    private LabValueExtractor extractor;
+    private String labelled;
+    private String unlabelled;
+
+    @Setup(Level.Trial)
+    public void generateText() {
+        // extract() logs every call at INFO
+        ((Logger) LoggerFactory.getLogger(LabValueExtractor.class)).setLevel(ch.qos.logback.classic.Level.WARN);
+        extractor = new LabValueExtractor();
+
+        Random random = new Random(7);
+        StringBuilder withLabs = new StringBuilder();
+        StringBuilder withoutLabs = new StringBuilder();
+        for (int page = 1; page <= pages; page++) {
+            header(withLabs, page, random);
+            header(withoutLabs, page, random);
+            for (int row = 0; row < 18; row++) {
+                String line = String.format(ROWS[random.nextInt(ROWS.length)], 1 + random.nextDouble() * 150);
+                withLabs.append(ocrNoise(line, random)).append(random.nextInt(6) == 0 ? "  H" : "").append('\n');
+                withoutLabs.append(ocrNoise(NARRATIVE[random.nextInt(NARRATIVE.length)], random)).append('\n');
+            }
+            withLabs.append(NARRATIVE[random.nextInt(NARRATIVE.length)]).append('\n');
+            withLabs.append("Page ").append(page).append(" of ").append(pages).append("\n\f");
+            withoutLabs.append("Page ").append(page).append(" of ").append(pages).append("\n\f");
+        }
+        labelled = withLabs.toString();
+        unlabelled = withoutLabs.toString();
+    }
+
+    @Benchmark
+    public Map<String, LabValue> labelled() {
+        return extractor.extract(labelled);
+    }
+
+    @Benchmark
+    public Map<String, LabValue> unlabelled() {
+        return extractor.extract(unlabelled);
+    }
+
+    private static void header(StringBuilder text, int page, Random random) {
+        text.append("CITY DIAGNOSTIC LABORATORY  -  NABL Accredited\n")
+                .append("Patient: John Doe   Age/Sex: ").append(30 + random.nextInt(50)).append(" Y / M   ")
+                .append("Lab No: ").append(100000 + random.nextInt(900000)).append('\n')
+                .append("Collected: 12/03/2024 08:15   Reported: 12/03/2024 14:40   Page ").append(page).append('\n')
+                .append("TEST NAME                  RESULT   UNIT        BIOLOGICAL REF. INTERVAL\n");
+    }
+
+    // Doubled spaces and the odd stray mark, as Tesseract leaves them
+    private static String ocrNoise(String line, Random random) {
+        StringBuilder noisy = new StringBuilder(line.length() + 8);
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            noisy.append(c);
+            if (c == ' ' && random.nextInt(4) == 0) {
+                noisy.append(' ');
+            } else if (random.nextInt(120) == 0) {
+                noisy.append(random.nextBoolean() ? '\'' : ',');
+            }
+        }
+        return noisy.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.healthcare.service;
+
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One OCR call on a warm {@link OcrEnginePool} engine against the former
+ * per-call path, a new {@code Tesseract} instance that loads traineddata,
+ * recognises and tears the engine down again.
+ * <p>
+ * Both read a rendered block of lab-report lines at 300 dpi with the same
+ * language, page segmentation and engine mode. Needs a Tesseract install;
+ * pass its tessdata directory to the fork, e.g.
+ * {@code -Djmh.args="OcrEnginePool -jvmArgsAppend -Dtesseract.data.path=/usr/share/tesseract-ocr/5/tessdata"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OcrEnginePoolBenchmark {
+
+    private static final int DPI = 300;
+    private static final String LANGUAGE = "eng";
+    private static final int PAGE_SEG_MODE = 3;
+    private static final int ENGINE_MODE = 1;
+
+    private String dataPath;
+    private OcrEnginePool pool;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        dataPath = System.getProperty("tesseract.data.path", "/usr/share/tesseract-ocr/5/tessdata");
+
+        pool = new OcrEnginePool();
+        ReflectionTestUtils.setField(pool, "tesseractDataPath", dataPath);
+        ReflectionTestUtils.setField(pool, "language", LANGUAGE);
+        ReflectionTestUtils.setField(pool, "pageSegMode", PAGE_SEG_MODE);
+        ReflectionTestUtils.setField(pool, "engineMode", ENGINE_MODE);
+        ReflectionTestUtils.setField(pool, "fastEnabled", false);
+        ReflectionTestUtils.setField(pool, "fastDataPath", "");
+        ReflectionTestUtils.setField(pool, "configuredEngines", 1);
+        ReflectionTestUtils.setField(pool, "queueCapacity", 16);
+        ReflectionTestUtils.setField(pool, "retryAfterSeconds", 5);
+        pool.init();
+        if (pool.getEngineCount() == 0) {
+            throw new IllegalStateException("No Tesseract engine could be created from " + dataPath);
+        }
+
+        image = new BufferedImage(2480, 700, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("SansSerif", Font.PLAIN, 11 * DPI / 72));
+        String[] lines = {
+                "Hemoglobin            13.8   g/dL     13.0 - 17.0",
+                "Fasting Blood Sugar   104    mg/dL    70 - 100",
+                "Serum Creatinine      0.92   mg/dL    0.7 - 1.3",
+                "Total Cholesterol     212    mg/dL    < 200",
+                "TSH                   2.41   mIU/L    0.27 - 4.20"
+        };
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], 150, 120 + i * 110);
+        }
+        g.dispose();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public String pooled() throws TesseractException {
+        return pool.call(() -> pool.recognize(image, DPI, OcrProfile.ACCURATE));
+    }
+
+    @Benchmark
+    public String perCall() throws TesseractException {
+        Tesseract tesseract = new Tesseract();
+        tesseract.setDatapath(dataPath);
+        tesseract.setLanguage(LANGUAGE);
+        tesseract.setPageSegMode(PAGE_SEG_MODE);
+        tesseract.setOcrEngineMode(ENGINE_MODE);
+        tesseract.setVariable("user_defined_dpi", String.valueOf(DPI));
+        return tesseract.doOCR(image);
+    }
+}
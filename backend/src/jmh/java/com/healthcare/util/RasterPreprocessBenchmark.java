@@ -0,0 +1,145 @@
+package com.healthcare.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row-band (fork-join) against single-threaded preprocessing of one skewed
+ * A4 page scanned at 300 dpi (~8.7 MP).
+ * <p>
+ * The two variants differ only in the {@code ocr.preprocess.parallel-pixels}
+ * system property of the forked JVM: 0 splits every stage into bands, the
+ * maximum keeps every stage on the calling thread. Stages that work in place
+ * copy the page first, in both variants.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RasterPreprocessBenchmark {
+
+    private static final String SERIAL = "-Docr.preprocess.parallel-pixels=" + Long.MAX_VALUE;
+    private static final String BANDS = "-Docr.preprocess.parallel-pixels=0";
+
+    private static final int DPI = 300;
+    private static final int WIDTH = 2480;
+    private static final int HEIGHT = 3508;
+    private static final double SKEW_DEGREES = 2.3;
+
+    private BufferedImage page;
+    private byte[] gray;
+    private int otsu;
+
+    @Setup(Level.Trial)
+    public void renderPage() {
+        page = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = page.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.rotate(Math.toRadians(SKEW_DEGREES), WIDTH / 2.0, HEIGHT / 2.0);
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font("SansSerif", Font.PLAIN, 11 * DPI / 72));
+        Random random = new Random(42);
+        for (int y = 200, row = 0; y < HEIGHT - 200; y += 60, row++) {
+            g.drawString(String.format("Test %02d   Hemoglobin   %5.1f g/dL   (13.5 - 17.5)   Lot %06d",
+                    row, 10 + random.nextDouble() * 8, random.nextInt(1_000_000)), 180, y);
+        }
+        g.dispose();
+
+        gray = RasterPreprocessUtil.toGray(page);
+        otsu = RasterPreprocessUtil.otsuThreshold(gray, WIDTH, HEIGHT);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Binarisation
+    // ─────────────────────────────────────────────────────────
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SERIAL)
+    public byte[] otsuSerial() {
+        return otsu();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = BANDS)
+    public byte[] otsuBands() {
+        return otsu();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SERIAL)
+    public byte[] adaptiveSerial() {
+        return RasterPreprocessUtil.adaptiveThreshold(gray, WIDTH, HEIGHT, DPI / 6 | 1);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = BANDS)
+    public byte[] adaptiveBands() {
+        return RasterPreprocessUtil.adaptiveThreshold(gray, WIDTH, HEIGHT, DPI / 6 | 1);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Deskew (estimate + rotate)
+    // ─────────────────────────────────────────────────────────
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SERIAL)
+    public byte[] deskewSerial() {
+        return deskew();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = BANDS)
+    public byte[] deskewBands() {
+        return deskew();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Whole pipeline, as OCRService runs it
+    // ─────────────────────────────────────────────────────────
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SERIAL)
+    public RasterPreprocessUtil.Result pipelineSerial() {
+        return pipeline();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = BANDS)
+    public RasterPreprocessUtil.Result pipelineBands() {
+        return pipeline();
+    }
+
+    private byte[] otsu() {
+        byte[] copy = gray.clone();
+        RasterPreprocessUtil.binarize(copy, WIDTH, HEIGHT, otsu);
+        return copy;
+    }
+
+    private byte[] deskew() {
+        double skew = RasterPreprocessUtil.estimateSkew(gray, WIDTH, HEIGHT, otsu);
+        return RasterPreprocessUtil.rotate(gray, WIDTH, HEIGHT, Math.toRadians(skew));
+    }
+
+    private RasterPreprocessUtil.Result pipeline() {
+        return RasterPreprocessUtil.preprocess(page, DPI,
+                new RasterPreprocessUtil.Options(DPI, RasterPreprocessUtil.Threshold.ADAPTIVE, true));
+    }
+}
@@ -1,19 +1,30 @@
 package com.healthcare;
 
 import com.healthcare.model.Role;
+import com.healthcare.repository.ChatSessionRepository;
+import com.healthcare.repository.MessageRepository;
 import com.healthcare.repository.RoleRepository;
+import com.healthcare.service.ChatService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Seeds required reference data (roles) on application startup.
+ * Seeds required reference data (roles) and backfills derived columns on
+ * application startup.
  */
 @Component
+@Slf4j
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
     private final RoleRepository roleRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final MessageRepository messageRepository;
 
     @Override
     public void run(String... args) {
@@ -24,5 +35,19 @@ public class DataInitializer implements CommandLineRunner {
                 roleRepository.save(role);
             }
         }
+
+        // The preview goes through the content converter and the same
+        // truncation as new messages, so it is never a compressed payload
+        int backfilled = 0;
+        for (Long sessionId : chatSessionRepository.findIdsMissingMessageStats()) {
+            List<String> latest = messageRepository.findLatestContent(sessionId, PageRequest.of(0, 1));
+            if (!latest.isEmpty()) {
+                String preview = ChatService.messagePreview(latest.get(0));
+                backfilled += chatSessionRepository.backfillMessageStats(sessionId, preview != null ? preview : "");
+            }
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled message count and preview for {} chat session(s)", backfilled);
+        }
     }
 }
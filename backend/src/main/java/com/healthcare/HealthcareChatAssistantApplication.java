@@ -3,12 +3,14 @@ package com.healthcare;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Healthcare Chat Assistant
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class HealthcareChatAssistantApplication {
     
     public static void main(String[] args) {
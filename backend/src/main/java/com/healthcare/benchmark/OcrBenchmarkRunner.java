@@ -0,0 +1,341 @@
+package com.healthcare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.benchmark.SyntheticReportGenerator.Sample;
+import com.healthcare.dto.LabValue;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.service.LabValueExtractor;
+import com.healthcare.service.OCRService;
+import com.healthcare.service.OcrProfile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * OCR throughput and accuracy benchmark, active only with the
+ * {@code ocr-benchmark} profile:
+ * <pre>
+ *   java -jar app.jar --spring.profiles.active=ocr-benchmark \
+ *        --ocr.benchmark.samples=40 --ocr.benchmark.output=before.json
+ * </pre>
+ * <p>
+ * Generates a seeded {@link SyntheticReportGenerator} corpus, runs every
+ * document through the production extraction path
+ * ({@link OCRService#extractDocument} then {@link LabValueExtractor#extract})
+ * and writes a JSON report: pages/sec, latency percentiles, peak heap,
+ * character error rate against the rendered text and lab-value recall and
+ * precision, overall and per document kind, noise level, resolution and
+ * font. The report also carries the OCR pipeline signature, so two files
+ * show what changed and by how much. The application exits when done unless
+ * {@code ocr.benchmark.exit=false}.
+ * </p>
+ */
+@Component
+@Profile("ocr-benchmark")
+@Slf4j
+@RequiredArgsConstructor
+public class OcrBenchmarkRunner implements CommandLineRunner {
+
+    // Relative difference allowed between an extracted and the printed value
+    private static final double VALUE_TOLERANCE = 0.005;
+    private static final long HEAP_SAMPLE_INTERVAL_MS = 5;
+
+    private final OCRService ocrService;
+    private final LabValueExtractor labValueExtractor;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+
+    @Value("${ocr.benchmark.samples:40}")
+    private int sampleCount;
+
+    @Value("${ocr.benchmark.seed:42}")
+    private long seed;
+
+    @Value("${ocr.benchmark.warmup:2}")
+    private int warmup;
+
+    // Documents processed at once; 1 measures single-request latency
+    @Value("${ocr.benchmark.concurrency:1}")
+    private int concurrency;
+
+    @Value("${ocr.benchmark.output:ocr-benchmark.json}")
+    private String output;
+
+    @Value("${ocr.benchmark.exit:true}")
+    private boolean exitWhenDone;
+
+    // OCR profile to measure: fast or accurate
+    @Value("${ocr.benchmark.profile:accurate}")
+    private String profileName;
+
+    private OcrProfile profile;
+
+    @Override
+    public void run(String... args) throws Exception {
+        profile = OcrProfile.parse(profileName, OcrProfile.ACCURATE);
+        if (profile == OcrProfile.AUTO) {
+            throw new IllegalArgumentException("ocr.benchmark.profile must be fast or accurate");
+        }
+        log.info("OCR benchmark — generating {} sample(s) with seed {}, {} profile", sampleCount, seed, profile);
+        List<Sample> samples = new SyntheticReportGenerator(seed).generate(sampleCount);
+
+        for (int i = 0; i < Math.min(warmup, samples.size()); i++) {
+            measure(samples.get(i));
+        }
+        System.gc();
+
+        HeapSampler heap = new HeapSampler();
+        heap.start();
+        long wallStart = System.nanoTime();
+        List<Map<String, Object>> results = new ArrayList<>(samples.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (Sample sample : samples) {
+                futures.add(executor.submit(() -> measure(sample)));
+            }
+            for (Future<Map<String, Object>> future : futures) {
+                results.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+        heap.stop();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("profile", profile.name());
+        report.put("pipelineSignature", ocrService.getPipelineSignature(profile));
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("samples", sampleCount);
+        config.put("seed", seed);
+        config.put("warmup", warmup);
+        config.put("concurrency", concurrency);
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        config.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        report.put("config", config);
+
+        Map<String, Object> summary = summarize(results);
+        long pages = results.stream().mapToLong(r -> ((Number) r.get("pages")).longValue()).sum();
+        summary.put("wallSeconds", round(wallSeconds, 3));
+        summary.put("pagesPerSecond", round(pages / wallSeconds, 3));
+        summary.put("peakHeapMb", round(heap.peakBytes() / (1024.0 * 1024.0), 1));
+        report.put("summary", summary);
+
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        breakdown.put("kind", groupBy(results, r -> r.get("kind")));
+        breakdown.put("noise", groupBy(results, r -> r.get("noise")));
+        breakdown.put("dpi", groupBy(results, r -> r.get("dpi")));
+        breakdown.put("font", groupBy(results, r -> r.get("font")));
+        report.put("breakdown", breakdown);
+        report.put("samples", results);
+
+        Path outputPath = Path.of(output).toAbsolutePath();
+        if (outputPath.getParent() != null) {
+            Files.createDirectories(outputPath.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputPath.toFile(), report);
+        log.info("OCR benchmark done — {} document(s), {} page(s) in {} s: {} pages/s, latency p50 {} ms / p99 {} ms, "
+                        + "CER {}, lab recall {}, peak heap {} MB — written to {}",
+                results.size(), pages, summary.get("wallSeconds"), summary.get("pagesPerSecond"),
+                summary.get("latencyP50Ms"), summary.get("latencyP99Ms"), summary.get("meanCer"),
+                summary.get("labRecall"), summary.get("peakHeapMb"), outputPath);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Run one document through extraction and lab parsing and score it
+     */
+    private Map<String, Object> measure(Sample sample) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", sample.name());
+        result.put("kind", sample.kind().name());
+        result.put("noise", sample.noise().name());
+        result.put("dpi", sample.dpi());
+        result.put("font", sample.font());
+        result.put("skewDegrees", sample.skewDegrees());
+        result.put("pages", sample.pages());
+        result.put("bytes", sample.content().length);
+
+        long start = System.nanoTime();
+        String text;
+        Map<String, LabValue> labs;
+        try {
+            TextExtractionResult extraction = ocrService.extractDocument(
+                    sample.content(), sample.name(), sample.pdf(), profile, null);
+            text = extraction.getText();
+            labs = labValueExtractor.extract(text);
+            result.put("pageMethods", extraction.pageMethodsAsString());
+        } catch (Exception e) {
+            log.warn("Benchmark sample {} failed: {}", sample.name(), e.getMessage());
+            text = "";
+            labs = Map.of();
+            result.put("error", e.getMessage());
+        }
+        result.put("latencyMs", round((System.nanoTime() - start) / 1e6, 2));
+
+        result.put("cer", round(characterErrorRate(sample.truthText(), text), 4));
+        int found = 0;
+        for (LabValue expected : sample.truthLabs()) {
+            LabValue actual = labs.get(expected.getName());
+            if (actual != null && Math.abs(actual.getValue() - expected.getValue())
+                    <= Math.max(Math.abs(expected.getValue()) * VALUE_TOLERANCE, 1e-9)) {
+                found++;
+            }
+        }
+        result.put("labsExpected", sample.truthLabs().size());
+        result.put("labsFound", found);
+        result.put("labsExtracted", labs.size());
+        return result;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Aggregation
+    // ─────────────────────────────────────────────────────────
+    private Map<String, Object> summarize(Collection<Map<String, Object>> results) {
+        double[] latencies = results.stream().mapToDouble(r -> ((Number) r.get("latencyMs")).doubleValue())
+                .sorted().toArray();
+        double[] cers = results.stream().mapToDouble(r -> ((Number) r.get("cer")).doubleValue()).sorted().toArray();
+        long expected = sum(results, "labsExpected");
+        long found = sum(results, "labsFound");
+        long extracted = sum(results, "labsExtracted");
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("documents", results.size());
+        summary.put("pages", sum(results, "pages"));
+        summary.put("errors", results.stream().filter(r -> r.containsKey("error")).count());
+        summary.put("latencyP50Ms", percentile(latencies, 50));
+        summary.put("latencyP90Ms", percentile(latencies, 90));
+        summary.put("latencyP99Ms", percentile(latencies, 99));
+        summary.put("latencyMaxMs", latencies.length > 0 ? latencies[latencies.length - 1] : null);
+        summary.put("meanCer", round(Arrays.stream(cers).average().orElse(0), 4));
+        summary.put("cerP90", percentile(cers, 90));
+        summary.put("labRecall", expected > 0 ? round(found / (double) expected, 4) : null);
+        summary.put("labPrecision", extracted > 0 ? round(found / (double) extracted, 4) : null);
+        return summary;
+    }
+
+    private Map<String, Object> groupBy(List<Map<String, Object>> results,
+                                        Function<Map<String, Object>, Object> key) {
+        Map<String, List<Map<String, Object>>> groups = new TreeMap<>();
+        for (Map<String, Object> result : results) {
+            groups.computeIfAbsent(String.valueOf(key.apply(result)), k -> new ArrayList<>()).add(result);
+        }
+        Map<String, Object> summaries = new LinkedHashMap<>();
+        groups.forEach((name, group) -> summaries.put(name, summarize(group)));
+        return summaries;
+    }
+
+    private long sum(Collection<Map<String, Object>> results, String field) {
+        return results.stream().mapToLong(r -> ((Number) r.get(field)).longValue()).sum();
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     */
+    private Double percentile(double[] sorted, int p) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Edit distance between the texts with whitespace runs collapsed, per
+     * character of the expected text
+     */
+    static double characterErrorRate(String expected, String actual) {
+        String a = expected.replaceAll("\\s+", " ").trim();
+        String b = actual == null ? "" : actual.replaceAll("\\s+", " ").trim();
+        if (a.isEmpty()) {
+            return b.isEmpty() ? 0 : 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] / (double) a.length();
+    }
+
+    private static double round(double value, int places) {
+        double scale = Math.pow(10, places);
+        return Math.round(value * scale) / scale;
+    }
+
+    /**
+     * Polls used heap while the benchmark runs; the JVM's own pool peaks are
+     * per pool and not simultaneous
+     */
+    private static class HeapSampler {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong peak = new AtomicLong();
+        private volatile boolean running;
+        private Thread thread;
+
+        void start() {
+            running = true;
+            thread = new Thread(() -> {
+                while (running) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(HEAP_SAMPLE_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "ocr-benchmark-heap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+
+        long peakBytes() {
+            return peak.get();
+        }
+    }
+}
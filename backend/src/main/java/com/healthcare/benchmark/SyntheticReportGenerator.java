@@ -0,0 +1,302 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.dto.LabValue;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Builds lab report documents with known content for the OCR benchmark.
+ * <p>
+ * Each sample is a page (or a few) of "test  result  unit  range" rows with
+ * random analytes and values, rendered as a PNG/JPEG photo-like scan, a
+ * scanned PDF or a PDF with a text layer. Font, resolution, noise and skew
+ * vary between samples. The same seed always yields the same corpus, so runs
+ * on different code or settings are comparable.
+ * </p>
+ */
+public class SyntheticReportGenerator {
+
+    public enum Kind {
+        IMAGE_PNG, IMAGE_JPEG, PDF_SCAN, PDF_TEXT
+    }
+
+    public enum Noise {
+        NONE(0, 0), LOW(8, 0.002), HIGH(22, 0.01);
+
+        private final double sigma;
+        private final double saltPepper;
+
+        Noise(double sigma, double saltPepper) {
+            this.sigma = sigma;
+            this.saltPepper = saltPepper;
+        }
+    }
+
+    /**
+     * One generated document and what it says
+     */
+    public record Sample(String name, byte[] content, boolean pdf, int pages, String truthText,
+                         List<LabValue> truthLabs, Kind kind, String font, Noise noise,
+                         double skewDegrees, int dpi) {
+    }
+
+    private static final String[] FONTS = {"SansSerif", "Serif", "Monospaced", "Dialog"};
+    private static final int[] DPIS = {150, 200, 300};
+    private static final double PAGE_WIDTH_INCHES = 8.27;
+    private static final double MARGIN_INCHES = 0.6;
+    private static final int FONT_POINTS = 11;
+
+    /**
+     * Analytes the extractor knows, written in their standard unit so the
+     * expected value needs no conversion
+     */
+    private static final List<Spec> SPECS = List.of(
+            new Spec("Glucose", "mg/dL", 65, 260, 0, "70 - 100", "Fasting Blood Sugar", "Blood Glucose"),
+            new Spec("HbA1c", "%", 4.4, 11.5, 1, "4.0 - 5.6", "Glycated Hemoglobin"),
+            new Spec("Hemoglobin", "g/dL", 8.5, 17.5, 1, "12.0 - 17.5", "Haemoglobin", "Hb"),
+            new Spec("Hematocrit", "%", 28, 52, 1, "36 - 50", "PCV"),
+            new Spec("MCV", "fL", 70, 105, 1, "80 - 100"),
+            new Spec("Sodium", "mmol/L", 128, 150, 0, "135 - 145", "Serum Sodium"),
+            new Spec("Potassium", "mmol/L", 3.0, 6.0, 1, "3.5 - 5.1", "Serum Potassium"),
+            new Spec("Chloride", "mmol/L", 92, 112, 0, "98 - 107"),
+            new Spec("BUN", "mg/dL", 5, 45, 0, "7 - 20", "Blood Urea Nitrogen"),
+            new Spec("Creatinine", "mg/dL", 0.5, 3.2, 2, "0.6 - 1.3", "Serum Creatinine"),
+            new Spec("ALT", "U/L", 8, 160, 0, "7 - 56", "SGPT"),
+            new Spec("AST", "U/L", 8, 140, 0, "10 - 40", "SGOT"),
+            new Spec("ALP", "U/L", 35, 260, 0, "44 - 147", "Alkaline Phosphatase"),
+            new Spec("Total Cholesterol", "mg/dL", 120, 320, 0, "< 200", "Cholesterol, Total"),
+            new Spec("LDL", "mg/dL", 50, 220, 0, "< 100", "LDL Cholesterol"),
+            new Spec("HDL", "mg/dL", 25, 95, 0, "> 40", "HDL Cholesterol"),
+            new Spec("Triglycerides", "mg/dL", 50, 450, 0, "< 150"),
+            new Spec("TSH", "mIU/L", 0.1, 9.5, 2, "0.4 - 4.0", "Thyroid Stimulating Hormone"),
+            new Spec("Calcium", "mg/dL", 7.5, 11.5, 1, "8.5 - 10.5", "Serum Calcium"),
+            new Spec("Ferritin", "ng/mL", 8, 450, 0, "20 - 250", "Serum Ferritin"),
+            new Spec("CRP", "mg/L", 0.2, 60, 1, "< 5", "C-Reactive Protein"));
+
+    private final Random random;
+
+    public SyntheticReportGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * {@code count} samples, cycling through document kinds so every kind is
+     * represented
+     */
+    public List<Sample> generate(int count) throws IOException {
+        List<Sample> samples = new ArrayList<>(count);
+        Kind[] kinds = Kind.values();
+        for (int i = 0; i < count; i++) {
+            samples.add(generate(i, kinds[i % kinds.length]));
+        }
+        return samples;
+    }
+
+    private Sample generate(int index, Kind kind) throws IOException {
+        String font = FONTS[random.nextInt(FONTS.length)];
+        int dpi = DPIS[random.nextInt(DPIS.length)];
+        Noise noise = kind == Kind.PDF_TEXT ? Noise.NONE : Noise.values()[random.nextInt(Noise.values().length)];
+        double skew = kind == Kind.PDF_TEXT ? 0 : Math.round((random.nextDouble() * 6 - 3) * 10) / 10.0;
+        int pageCount = kind == Kind.PDF_SCAN || kind == Kind.PDF_TEXT ? 1 + random.nextInt(3) : 1;
+
+        List<List<String>> pages = new ArrayList<>();
+        List<LabValue> truthLabs = new ArrayList<>();
+        List<Spec> remaining = new ArrayList<>(SPECS);
+        Collections.shuffle(remaining, random);
+        for (int p = 0; p < pageCount; p++) {
+            int rows = Math.min(remaining.size(), 6 + random.nextInt(5));
+            pages.add(pageLines(index, p, pageCount, remaining.subList(0, rows), truthLabs));
+            remaining = new ArrayList<>(remaining.subList(rows, remaining.size()));
+        }
+
+        StringBuilder truthText = new StringBuilder();
+        for (List<String> lines : pages) {
+            if (truthText.length() > 0) {
+                truthText.append('\n');
+            }
+            truthText.append(String.join("\n", lines));
+        }
+
+        String name = String.format(Locale.ROOT, "sample-%03d-%s", index, kind.name().toLowerCase());
+        byte[] content = switch (kind) {
+            case IMAGE_PNG -> encodeImage(render(pages.get(0), font, dpi, noise, skew), "png");
+            case IMAGE_JPEG -> encodeImage(render(pages.get(0), font, dpi, noise, skew), "jpg");
+            case PDF_SCAN -> scannedPdf(pages, font, dpi, noise, skew);
+            case PDF_TEXT -> textPdf(pages);
+        };
+        String extension = switch (kind) {
+            case IMAGE_PNG -> ".png";
+            case IMAGE_JPEG -> ".jpg";
+            default -> ".pdf";
+        };
+        return new Sample(name + extension, content, extension.equals(".pdf"), pageCount, truthText.toString(),
+                truthLabs, kind, kind == Kind.PDF_TEXT ? "Helvetica" : font, noise, skew, dpi);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Content
+    // ─────────────────────────────────────────────────────────
+    private List<String> pageLines(int index, int page, int pageCount, List<Spec> specs, List<LabValue> truthLabs) {
+        List<String> lines = new ArrayList<>();
+        lines.add("CITY DIAGNOSTIC LABORATORY");
+        lines.add(String.format(Locale.ROOT, "Patient ID: P%05d   Age: %d   Page %d of %d",
+                1000 + index, 20 + random.nextInt(60), page + 1, pageCount));
+        lines.add("Test   Result   Unit   Reference Range");
+        for (Spec spec : specs) {
+            double value = spec.min + random.nextDouble() * (spec.max - spec.min);
+            String formatted = String.format(Locale.ROOT, "%." + spec.decimals + "f", value);
+            double rounded = Double.parseDouble(formatted);
+            // Mostly the standard name, sometimes an alias the extractor also knows
+            String label = spec.aliases.length > 0 && random.nextInt(3) == 0
+                    ? spec.aliases[random.nextInt(spec.aliases.length)] : spec.name;
+            lines.add(label + "   " + formatted + " " + spec.unit + "   " + spec.range);
+            truthLabs.add(new LabValue(spec.name, rounded, null, spec.unit, formatted + " " + spec.unit));
+        }
+        lines.add("End of page " + (page + 1));
+        return lines;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Rendering
+    // ─────────────────────────────────────────────────────────
+    private BufferedImage render(List<String> lines, String fontName, int dpi, Noise noise, double skew) {
+        int width = (int) Math.round(PAGE_WIDTH_INCHES * dpi);
+        int margin = (int) Math.round(MARGIN_INCHES * dpi);
+        int fontPixels = Math.round(FONT_POINTS * dpi / 72f);
+        int lineHeight = Math.round(fontPixels * 1.7f);
+        int height = margin * 2 + lineHeight * (lines.size() + 1);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+            for (int i = 0; i < lines.size(); i++) {
+                g.setFont(new Font(fontName, i == 0 ? Font.BOLD : Font.PLAIN, fontPixels));
+                g.drawString(lines.get(i), margin, margin + lineHeight * (i + 1));
+            }
+        } finally {
+            g.dispose();
+        }
+        if (skew != 0) {
+            image = rotate(image, skew);
+        }
+        addNoise(image, noise);
+        return image;
+    }
+
+    private BufferedImage rotate(BufferedImage source, double degrees) {
+        BufferedImage rotated = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = rotated.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, source.getWidth(), source.getHeight());
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.rotate(Math.toRadians(degrees), source.getWidth() / 2.0, source.getHeight() / 2.0);
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    private void addNoise(BufferedImage image, Noise noise) {
+        if (noise == Noise.NONE) {
+            return;
+        }
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            double r = random.nextDouble();
+            int value;
+            if (r < noise.saltPepper / 2) {
+                value = 0;
+            } else if (r < noise.saltPepper) {
+                value = 255;
+            } else {
+                value = (int) Math.round((pixels[i] & 0xFF) + random.nextGaussian() * noise.sigma);
+            }
+            pixels[i] = (byte) Math.max(0, Math.min(255, value));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Encoding
+    // ─────────────────────────────────────────────────────────
+    private byte[] encodeImage(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private byte[] scannedPdf(List<List<String>> pages, String font, int dpi, Noise noise, double skew)
+            throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            for (List<String> lines : pages) {
+                BufferedImage image = render(lines, font, dpi, noise, skew);
+                float width = image.getWidth() * 72f / dpi;
+                float height = image.getHeight() * 72f / dpi;
+                PDPage page = new PDPage(new PDRectangle(width, height));
+                doc.addPage(page);
+                PDImageXObject xObject = JPEGFactory.createFromImage(doc, image, 0.85f);
+                try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                    content.drawImage(xObject, 0, 0, width, height);
+                }
+            }
+            return save(doc);
+        }
+    }
+
+    private byte[] textPdf(List<List<String>> pages) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            for (List<String> lines : pages) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                float margin = (float) (MARGIN_INCHES * 72);
+                try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                    content.beginText();
+                    content.setLeading(FONT_POINTS * 1.7f);
+                    content.newLineAtOffset(margin, page.getMediaBox().getHeight() - margin);
+                    for (int i = 0; i < lines.size(); i++) {
+                        content.setFont(i == 0 ? PDType1Font.HELVETICA_BOLD : PDType1Font.HELVETICA, FONT_POINTS);
+                        content.showText(lines.get(i));
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            return save(doc);
+        }
+    }
+
+    private byte[] save(PDDocument doc) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doc.save(out);
+        return out.toByteArray();
+    }
+
+    private record Spec(String name, String unit, double min, double max, int decimals, String range,
+                        String... aliases) {
+    }
+}
@@ -3,10 +3,19 @@ package com.healthcare.controller;
 import com.healthcare.dto.ApiResponse;
 import com.healthcare.model.Appointment;
 import com.healthcare.model.ChatSession;
+import com.healthcare.model.ReprocessRun;
 import com.healthcare.model.Role;
 import com.healthcare.model.User;
 import com.healthcare.repository.*;
+import com.healthcare.service.AuthService;
+import com.healthcare.service.ChatService;
+import com.healthcare.service.MessageArchiveService;
+import com.healthcare.service.OCRService;
+import com.healthcare.service.ReportReprocessService;
+import com.healthcare.service.TextCompressionMigrationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +33,8 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class AdminController {
 
+    private static final int RECENT_SYMPTOM_SAMPLE = 500;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final ChatSessionRepository chatSessionRepository;
@@ -31,6 +42,13 @@ public class AdminController {
     private final AppointmentRepository appointmentRepository;
     private final MedicalReportRepository medicalReportRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ChatService chatService;
+    private final MessageArchiveService messageArchiveService;
+    private final MessageArchiveRepository messageArchiveRepository;
+    private final TextCompressionMigrationService textCompressionMigrationService;
+    private final ReportReprocessService reportReprocessService;
+    private final OCRService ocrService;
+    private final AuthService authService;
 
     /**
      * Get dashboard statistics
@@ -55,7 +73,10 @@ public class AdminController {
 
             // Chat statistics
             stats.put("totalChatSessions", chatSessionRepository.count());
-            stats.put("totalMessages", messageRepository.countAllMessages());
+            Long hotMessages = messageRepository.countAllMessages();
+            Long archivedMessages = messageArchiveRepository.sumArchivedMessages();
+            stats.put("totalMessages", hotMessages + archivedMessages);
+            stats.put("archivedMessages", archivedMessages);
             stats.put("emergencySessions", chatSessionRepository.countEmergencySessions());
 
             // Appointment statistics
@@ -67,7 +88,8 @@ public class AdminController {
             stats.put("ocrProcessed", medicalReportRepository.count());
 
             // Get recent user messages for common symptoms analysis
-            List<String> recentMessages = messageRepository.findRecentUserMessages();
+            List<String> recentMessages = messageRepository.findRecentUserMessages(
+                    PageRequest.of(0, RECENT_SYMPTOM_SAMPLE));
             stats.put("recentSymptoms", analyzeCommonSymptoms(recentMessages));
 
             return ResponseEntity.ok(new ApiResponse(true, "Dashboard stats retrieved", stats));
@@ -182,6 +204,7 @@ public class AdminController {
                 m.put("isActive", s.getIsActive());
                 m.put("lastMessageAt", s.getLastMessageAt());
                 m.put("createdAt", s.getCreatedAt());
+                m.put("archivedAt", s.getArchivedAt());
                 return m;
             }).collect(Collectors.toList());
             return ResponseEntity.ok(new ApiResponse(true, "Sessions retrieved", result));
@@ -190,6 +213,108 @@ public class AdminController {
         }
     }
 
+    /**
+     * Start message archival and the purge of deleted sessions in the
+     * background; the counts are logged when the run completes
+     */
+    @PostMapping("/retention/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runRetention() {
+        try {
+            if (messageArchiveService.isManualRunInProgress()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse(false, "A retention run is already in progress"));
+            }
+            messageArchiveService.runNow();
+            return ResponseEntity.accepted().body(new ApiResponse(true, "Retention run started"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Progress and size / CPU figures of the text compression migration
+     */
+    @GetMapping("/compression/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getCompressionStats() {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "Compression stats retrieved",
+                    textCompressionMigrationService.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Extraction counts and latency per OCR profile, and how AUTO requests
+     * were routed
+     */
+    @GetMapping("/ocr/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getOcrMetrics() {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "OCR metrics retrieved", ocrService.getProfileMetrics()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Start re-processing all stored reports. Optional body:
+     * {"refreshExplanation": "true", "maxInFlight": "2", "ratePerMinute": "30"}
+     */
+    @PostMapping("/reports/reprocess")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startReprocessing(@RequestBody(required = false) Map<String, String> body) {
+        try {
+            Map<String, String> options = body != null ? body : Map.of();
+            ReprocessRun run = reportReprocessService.start(
+                    Boolean.parseBoolean(options.get("refreshExplanation")),
+                    options.containsKey("maxInFlight") ? Integer.valueOf(options.get("maxInFlight")) : null,
+                    options.containsKey("ratePerMinute") ? Integer.valueOf(options.get("ratePerMinute")) : null,
+                    authService.getCurrentUser());
+            return ResponseEntity.ok(new ApiResponse(true, "Re-processing started",
+                    reportReprocessService.getProgress(run.getId())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Progress and ETA of a re-processing run ({@code runId} omitted: the latest)
+     */
+    @GetMapping("/reports/reprocess")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getReprocessingProgress(@RequestParam(required = false) Long runId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "Re-processing progress retrieved",
+                    reportReprocessService.getProgress(runId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Pause, resume or cancel a re-processing run
+     */
+    @PostMapping("/reports/reprocess/{runId}/{action}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> controlReprocessing(@PathVariable Long runId, @PathVariable String action) {
+        try {
+            switch (action) {
+                case "pause" -> reportReprocessService.pause(runId);
+                case "resume" -> reportReprocessService.resume(runId);
+                case "cancel" -> reportReprocessService.cancel(runId);
+                default -> throw new RuntimeException("Unknown action: " + action);
+            }
+            return ResponseEntity.ok(new ApiResponse(true, "Re-processing run updated",
+                    reportReprocessService.getProgress(runId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
     /**
      * Get all appointments (admin view)
      */
@@ -225,15 +350,18 @@ public class AdminController {
     }
 
     /**
-     * Get messages for a specific session
+     * Get a page of messages for a specific session
      */
     @GetMapping("/sessions/{sessionId}/messages")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getSessionMessages(@PathVariable Long sessionId) {
+    public ResponseEntity<?> getSessionMessages(@PathVariable Long sessionId,
+                                                @RequestParam(required = false) String before,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
         try {
             ChatSession session = chatSessionRepository.findById(sessionId)
                     .orElseThrow(() -> new RuntimeException("Session not found"));
-            var messages = messageRepository.findByChatSessionOrderByCreatedAtAsc(session);
+            var messages = chatService.getMessagePage(session, before, after, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Messages retrieved", messages));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
@@ -247,11 +375,10 @@ public class AdminController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> flagSession(@PathVariable Long sessionId) {
         try {
-            ChatSession session = chatSessionRepository.findById(sessionId)
-                    .orElseThrow(() -> new RuntimeException("Session not found"));
-            // Mark as emergency/flagged
-            session.setIsEmergency(true);
-            chatSessionRepository.save(session);
+            // Mark as emergency/flagged; a targeted update leaves the other columns alone
+            if (chatSessionRepository.markEmergency(sessionId) == 0) {
+                throw new RuntimeException("Session not found");
+            }
             return ResponseEntity.ok(new ApiResponse(true, "Session flagged"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
@@ -3,6 +3,8 @@ package com.healthcare.controller;
 import com.healthcare.dto.ApiResponse;
 import com.healthcare.dto.ChatRequest;
 import com.healthcare.dto.ChatResponse;
+import com.healthcare.dto.ChatSessionSummary;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.LocationChatRequest;
 import com.healthcare.dto.LocationChatResponse;
 import com.healthcare.model.ChatSession;
@@ -17,8 +19,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Controller for chat operations
  */
@@ -68,14 +68,15 @@ public class ChatController {
     }
 
     /**
-     * Get all chat sessions for current user
+     * Get a page of chat session summaries for current user
      */
     @GetMapping("/sessions")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<?> getChatSessions() {
+    public ResponseEntity<?> getChatSessions(@RequestParam(required = false) String before,
+                                             @RequestParam(required = false) Integer limit) {
         try {
             User currentUser = authService.getCurrentUser();
-            List<ChatSession> sessions = chatService.getUserChatSessions(currentUser);
+            CursorPage<ChatSessionSummary> sessions = chatService.getUserChatSessions(currentUser, before, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Chat sessions retrieved", sessions));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -84,14 +85,18 @@ public class ChatController {
     }
 
     /**
-     * Get messages for a specific session
+     * Get a page of messages for a specific session (most recent page by
+     * default; pass {@code before}/{@code after} cursors to scroll)
      */
     @GetMapping("/sessions/{sessionId}/messages")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<?> getSessionMessages(@PathVariable Long sessionId) {
+    public ResponseEntity<?> getSessionMessages(@PathVariable Long sessionId,
+                                                @RequestParam(required = false) String before,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
         try {
             User currentUser = authService.getCurrentUser();
-            List<Message> messages = chatService.getSessionMessages(sessionId, currentUser);
+            CursorPage<Message> messages = chatService.getSessionMessages(sessionId, currentUser, before, after, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Messages retrieved", messages));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
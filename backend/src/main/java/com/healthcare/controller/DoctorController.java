@@ -1,13 +1,14 @@
 package com.healthcare.controller;
 
 import com.healthcare.dto.ApiResponse;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.ReportSummary;
 import com.healthcare.model.Appointment;
-import com.healthcare.model.MedicalReport;
 import com.healthcare.model.User;
 import com.healthcare.repository.AppointmentRepository;
-import com.healthcare.repository.MedicalReportRepository;
 import com.healthcare.repository.UserRepository;
 import com.healthcare.service.AuthService;
+import com.healthcare.service.MedicalReportService;
 import com.healthcare.service.OpenAIService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -28,7 +29,7 @@ public class DoctorController {
 
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
-    private final MedicalReportRepository medicalReportRepository;
+    private final MedicalReportService medicalReportService;
     private final OpenAIService openAIService;
     private final AuthService authService;
 
@@ -132,16 +133,18 @@ public class DoctorController {
     }
 
     /**
-     * Get patient medical reports
+     * Get a page of patient medical report summaries
      */
     @GetMapping("/patients/{patientId}/reports")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<?> getPatientReports(@PathVariable Long patientId) {
+    public ResponseEntity<?> getPatientReports(@PathVariable Long patientId,
+                                               @RequestParam(required = false) String before,
+                                               @RequestParam(required = false) Integer limit) {
         try {
             User patient = userRepository.findById(patientId)
                     .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-            List<MedicalReport> reports = medicalReportRepository.findByUserOrderByUploadedAtDesc(patient);
+            CursorPage<ReportSummary> reports = medicalReportService.getUserReports(patient, before, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Reports retrieved", reports));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
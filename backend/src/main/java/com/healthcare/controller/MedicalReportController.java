@@ -1,17 +1,31 @@
 package com.healthcare.controller;
 
 import com.healthcare.dto.ApiResponse;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.ReportSummary;
+import com.healthcare.dto.ReportUploadResponse;
+import com.healthcare.dto.UploadSessionRequest;
 import com.healthcare.model.MedicalReport;
+import com.healthcare.model.ReportJob;
+import com.healthcare.model.UploadSession;
 import com.healthcare.model.User;
 import com.healthcare.service.AuthService;
 import com.healthcare.service.MedicalReportService;
+import com.healthcare.service.ResumableUploadService;
+import com.healthcare.util.FileDownloadUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.nio.file.NoSuchFileException;
 
 /**
  * Controller for medical report operations
@@ -23,7 +37,11 @@ import java.util.List;
 public class MedicalReportController {
     
     private final MedicalReportService medicalReportService;
+    private final ResumableUploadService resumableUploadService;
     private final AuthService authService;
+
+    @Value("${report.download.cache-max-age-seconds:3600}")
+    private long downloadMaxAgeSeconds;
     
     /**
      * Upload medical report
@@ -33,8 +51,120 @@ public class MedicalReportController {
     public ResponseEntity<?> uploadReport(@RequestParam("file") MultipartFile file) {
         try {
             User currentUser = authService.getCurrentUser();
-            MedicalReport report = medicalReportService.uploadReport(file, currentUser);
-            return ResponseEntity.ok(new ApiResponse(true, "Report uploaded successfully", report));
+            ReportUploadResponse upload = medicalReportService.uploadReport(file, currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse(true, "Report uploaded — processing started", upload));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+    
+    /**
+     * Import a digital lab export: CSV, HL7 v2 ORU (.hl7/.oru) or FHIR
+     * Observation / Bundle JSON; {@code format} overrides detection
+     */
+    @PostMapping("/structured")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> importStructured(@RequestParam("file") MultipartFile file,
+                                              @RequestParam(value = "format", required = false) String format) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            ReportUploadResponse upload = medicalReportService.importStructured(file, format, currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse(true, "Lab results imported — explanation started", upload));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Resumable uploads
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * Start a resumable upload: {"fileName", "contentType", "totalSize", "sha256"?}
+     */
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> createUpload(@Valid @RequestBody UploadSessionRequest request) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            UploadSession session = resumableUploadService.create(request, currentUser);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse(true, "Upload started", session));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Upload progress, e.g. the chunk to resume from
+     */
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            UploadSession session = resumableUploadService.getSession(uploadId, currentUser);
+            return ResponseEntity.ok(new ApiResponse(true, "Upload retrieved", session));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Store one chunk; the raw body is the chunk, with headers
+     * {@code Upload-Offset} and {@code X-Chunk-SHA256} (hex)
+     */
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @PathVariable int index,
+                                         @RequestHeader("Upload-Offset") long offset,
+                                         @RequestHeader(value = "X-Chunk-SHA256", required = false) String chunkSha256,
+                                         HttpServletRequest request) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            UploadSession session = resumableUploadService.writeChunk(uploadId, index, offset,
+                    request.getContentLengthLong(), chunkSha256, request.getInputStream(), currentUser);
+            return ResponseEntity.ok(new ApiResponse(true, "Chunk stored", session));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Finish a resumable upload and queue the report for processing
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            ReportUploadResponse upload = resumableUploadService.complete(uploadId, currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse(true, "Report uploaded — processing started", upload));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
+    /**
+     * Cancel a resumable upload
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            resumableUploadService.abort(uploadId, currentUser);
+            return ResponseEntity.ok(new ApiResponse(true, "Upload cancelled"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(new ApiResponse(false, e.getMessage()));
@@ -42,14 +172,32 @@ public class MedicalReportController {
     }
     
     /**
-     * Get all reports for current user
+     * Processing state of an uploaded report
+     */
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<?> getJob(@PathVariable Long jobId) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            ReportJob job = medicalReportService.getJob(jobId, currentUser);
+            return ResponseEntity.ok(new ApiResponse(true, "Job retrieved", job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get a page of report summaries for current user (text and explanation
+     * come with {@code GET /{reportId}})
      */
     @GetMapping
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<?> getUserReports() {
+    public ResponseEntity<?> getUserReports(@RequestParam(required = false) String before,
+                                            @RequestParam(required = false) Integer limit) {
         try {
             User currentUser = authService.getCurrentUser();
-            List<MedicalReport> reports = medicalReportService.getUserReports(currentUser);
+            CursorPage<ReportSummary> reports = medicalReportService.getUserReports(currentUser, before, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Reports retrieved", reports));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -73,6 +221,35 @@ public class MedicalReportController {
         }
     }
     
+    /**
+     * The original uploaded file, streamed from disk. Supports a single
+     * {@code Range}, {@code If-Range}, {@code If-None-Match} /
+     * {@code If-Modified-Since} and HEAD.
+     */
+    @GetMapping("/{reportId}/file")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR')")
+    public ResponseEntity<?> downloadReportFile(@PathVariable Long reportId, HttpServletRequest request,
+                                                HttpServletResponse response) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            MedicalReportService.StoredFile file = medicalReportService.getReportFile(reportId, currentUser);
+            FileDownloadUtil.send(request, response, file.path(), file.contentType(), file.fileName(),
+                    file.etag(), file.inline(), downloadMaxAgeSeconds);
+            // Written to the response directly
+            return null;
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiResponse(false, "Report file not found"));
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Client went away mid-transfer; nothing left to tell it
+                return null;
+            }
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+
     /**
      * Delete report
      */
@@ -1,18 +1,34 @@
 package com.healthcare.controller;
 
+import com.healthcare.dto.LabValue;
 import com.healthcare.dto.OcrResponse;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.model.OcrResultCache;
 import com.healthcare.service.OCRService;
+import com.healthcare.service.OcrBusyException;
+import com.healthcare.service.OcrEnginePool;
+import com.healthcare.service.OcrProfile;
+import com.healthcare.service.OcrResultCacheService;
+import com.healthcare.util.UploadIngestUtil;
 import lombok.RequiredArgsConstructor;
 import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,9 +40,19 @@ import java.util.Map;
  * <li>POST /api/ocr/upload — extract text from image or PDF</li>
  * <li>POST /api/ocr/extract-labs — extract text AND parse structured lab
  * values</li>
+ * <li>POST /api/ocr/upload/stream — extract text, streaming per-page results
+ * as Server-Sent Events</li>
+ * <li>POST /api/ocr/upload/batch — extract several files in parallel,
+ * streaming per-file results as Server-Sent Events</li>
  * </ul>
  *
  * <p>
+ * Every endpoint takes an optional {@code profile} parameter ({@code fast},
+ * {@code accurate} or {@code auto}); without it the text endpoints use
+ * {@code ocr.profile.default.preview} and /extract-labs uses
+ * {@code ocr.profile.default.labs}. Responses name the tier used.</p>
+ *
+ * <p>
  * Requires authentication. Both PATIENT and DOCTOR roles are permitted.</p>
  *
  * <p>
@@ -49,6 +75,28 @@ public class OcrController {
     private static final Logger log = LoggerFactory.getLogger(OcrController.class);
 
     private final OCRService ocrService;
+    private final OcrEnginePool ocrEnginePool;
+    private final OcrResultCacheService ocrResultCacheService;
+
+    /**
+     * Upper bound for a streamed OCR request
+     */
+    private static final long STREAM_TIMEOUT_MS = 5 * 60 * 1000L;
+
+    // Sent instead of exception details, which stay in the log
+    private static final String OCR_ERROR_MESSAGE = "OCR failed. Please try again.";
+    private static final String FILE_ERROR_MESSAGE = "File processing error. Please try again.";
+
+    @Value("${ocr.batch.max-files:10}")
+    private int maxBatchFiles;
+
+    // Profile when the request names none: quick text previews degrade under load,
+    // lab extraction stays accurate
+    @Value("${ocr.profile.default.preview:auto}")
+    private String previewProfile;
+
+    @Value("${ocr.profile.default.labs:accurate}")
+    private String labsProfile;
 
     // ─────────────────────────────────────────────────────────────────────────
     // POST /api/ocr/upload
@@ -59,14 +107,16 @@ public class OcrController {
      * <p>
      * Max file size: 5 MB (enforced in OcrService).</p>
      *
-     * @param file the multipart file to process
+     * @param file    the multipart file to process
+     * @param profile fast, accurate or auto (optional)
      * @return {@link OcrResponse} with extractedText, character count, and file
      * type
      */
     @PostMapping("/upload")
     @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
     public ResponseEntity<OcrResponse> uploadAndExtract(
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "profile", required = false) String profile) {
 
         log.info("OCR upload request — filename: '{}', size: {} bytes, contentType: {}",
                 file.getOriginalFilename(), file.getSize(), file.getContentType());
@@ -74,8 +124,10 @@ public class OcrController {
         try {
             // Validate before heavy processing
             ocrService.validateFile(file);
+            OcrProfile requested = requestedProfile(profile, previewProfile);
 
-            String extractedText = ocrService.extractText(file);
+            CachedExtraction result = extractCached(file, requested);
+            String extractedText = result.entry().getExtractedText();
             String fileType = ocrService.isPdfFile(file) ? "PDF" : "IMAGE";
 
             OcrResponse response = OcrResponse.builder()
@@ -84,6 +136,9 @@ public class OcrController {
                     .message("OCR completed successfully.")
                     .fileType(fileType)
                     .characterCount(extractedText.length())
+                    .pageMethods(ocrResultCacheService.pageMethods(result.entry()))
+                    .cached(result.hit())
+                    .profile(result.profile().name())
                     .build();
 
             log.info("OCR completed — {} chars extracted from {} file '{}'",
@@ -99,6 +154,9 @@ public class OcrController {
                             .message(e.getMessage())
                             .build());
 
+        } catch (OcrBusyException e) {
+            return busy(e);
+
         } catch (TesseractException e) {
             log.error("Tesseract OCR engine error for '{}': {}", file.getOriginalFilename(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -131,7 +189,8 @@ public class OcrController {
     // ─────────────────────────────────────────────────────────────────────────
     /**
      * Upload a medical report image/PDF and receive both raw text and
-     * structured lab values (Glucose, HbA1c, Creatinine, etc.).
+     * structured lab values (Glucose, HbA1c, Creatinine, etc.), converted
+     * to standard units (a glucose of 10.0 mmol/L is returned as 180.16 mg/dL).
      *
      * <p>
      * Response example:</p>
@@ -143,28 +202,32 @@ public class OcrController {
      *   "fileType": "IMAGE",
      *   "characterCount": 342,
      *   "labValues": {
-     *     "Glucose": "180 mg/dL",
-     *     "HbA1c": "7.8%"
+     *     "Glucose": {"name": "Glucose", "value": 180.0, "unit": "mg/dL", "raw": "180 mg/dL"},
+     *     "HbA1c": {"name": "HbA1c", "value": 7.8, "unit": "%", "raw": "7.8%"}
      *   }
      * }
      * </pre>
      *
-     * @param file the multipart file to process
+     * @param file    the multipart file to process
+     * @param profile fast, accurate or auto (optional)
      * @return {@link OcrResponse} including lab value map
      */
     @PostMapping("/extract-labs")
     @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
     public ResponseEntity<OcrResponse> uploadAndExtractLabs(
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "profile", required = false) String profile) {
 
         log.info("OCR lab-extract request — filename: '{}', size: {} bytes",
                 file.getOriginalFilename(), file.getSize());
 
         try {
             ocrService.validateFile(file);
+            OcrProfile requested = requestedProfile(profile, labsProfile);
 
-            String extractedText = ocrService.extractText(file);
-            Map<String, String> labValues = ocrService.extractLabValues(extractedText);
+            CachedExtraction result = extractCached(file, requested);
+            String extractedText = result.entry().getExtractedText();
+            Map<String, LabValue> labValues = ocrResultCacheService.labValues(result.entry());
             String fileType = ocrService.isPdfFile(file) ? "PDF" : "IMAGE";
 
             OcrResponse response = OcrResponse.builder()
@@ -173,6 +236,9 @@ public class OcrController {
                     .message("OCR and lab extraction completed. Found " + labValues.size() + " lab value(s).")
                     .fileType(fileType)
                     .characterCount(extractedText.length())
+                    .pageMethods(ocrResultCacheService.pageMethods(result.entry()))
+                    .cached(result.hit())
+                    .profile(result.profile().name())
                     .labValues(labValues)
                     .build();
 
@@ -189,6 +255,9 @@ public class OcrController {
                             .message(e.getMessage())
                             .build());
 
+        } catch (OcrBusyException e) {
+            return busy(e);
+
         } catch (TesseractException e) {
             log.error("Tesseract engine error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -214,4 +283,389 @@ public class OcrController {
                             .build());
         }
     }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // POST /api/ocr/upload/stream
+    // ─────────────────────────────────────────────────────────────────────────
+    /**
+     * Same as /upload, but streams results as Server-Sent Events while a
+     * multi-page PDF is processed.
+     *
+     * <p>
+     * Events:</p>
+     * <ul>
+     * <li>{@code page} — {"page": 2, "pageCount": 5, "method": "OCR", "text":
+     * "..."}, in page order</li>
+     * <li>{@code complete} — the final {@link OcrResponse}</li>
+     * <li>{@code error} — {"message": "...", "retryAfterSeconds": 5}</li>
+     * </ul>
+     *
+     * @param file    the multipart file to process
+     * @param profile fast, accurate or auto (optional)
+     * @return an SSE stream
+     */
+    @PostMapping(value = "/upload/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
+    public ResponseEntity<?> uploadAndStream(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(value = "profile", required = false) String profile) {
+        log.info("OCR stream request — filename: '{}', size: {} bytes",
+                file.getOriginalFilename(), file.getSize());
+
+        byte[] content;
+        OcrProfile requested;
+        try {
+            ocrService.validateFile(file);
+            requested = requestedProfile(profile, previewProfile);
+            // Read now: the multipart temp file does not outlive this request thread
+            content = file.getBytes();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(OcrResponse.builder().success(false).message(e.getMessage()).build());
+        } catch (IOException e) {
+            log.error("Could not read upload '{}' for streamed OCR", file.getOriginalFilename(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(OcrResponse.builder().success(false).message(FILE_ERROR_MESSAGE).build());
+        }
+
+        String filename = file.getOriginalFilename();
+        boolean pdf = ocrService.isPdfFile(file);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        try {
+            ocrEnginePool.runJob(() -> streamOcr(emitter, content, filename, pdf, requested));
+        } catch (OcrBusyException e) {
+            return busy(e);
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void streamOcr(SseEmitter emitter, byte[] content, String filename, boolean pdf, OcrProfile requested) {
+        try {
+            OcrProfile tier = ocrService.resolveProfile(requested);
+            TextExtractionResult result = ocrService.extractDocument(content, filename, pdf, tier,
+                    (page, pageCount, method, text) -> {
+                        Map<String, Object> event = new LinkedHashMap<>();
+                        event.put("page", page);
+                        event.put("pageCount", pageCount);
+                        event.put("method", method.name());
+                        event.put("text", text);
+                        sendEvent(emitter, "page", event);
+                    });
+            String extractedText = result.getText();
+            sendEvent(emitter, "complete", OcrResponse.builder()
+                    .success(true)
+                    .extractedText(extractedText)
+                    .message("OCR completed successfully.")
+                    .fileType(pdf ? "PDF" : "IMAGE")
+                    .characterCount(extractedText.length())
+                    .pageMethods(methodNames(result))
+                    .profile(tier.name())
+                    .build());
+            emitter.complete();
+        } catch (Exception e) {
+            log.error("Streamed OCR failed for '{}': {}", filename, e.getMessage(), e);
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("message", e instanceof IllegalArgumentException || e instanceof OcrBusyException
+                    ? e.getMessage() : OCR_ERROR_MESSAGE);
+            if (e instanceof OcrBusyException busy) {
+                error.put("retryAfterSeconds", busy.getRetryAfterSeconds());
+            }
+            sendEvent(emitter, "error", error);
+            emitter.complete();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // POST /api/ocr/upload/batch
+    // ─────────────────────────────────────────────────────────────────────────
+    /**
+     * Extract several files (e.g. photos of one multi-page report) in one
+     * request. Every file runs on its own OCR job at the same time, so the
+     * batch takes about as long as its slowest file.
+     *
+     * <p>
+     * Events, as Server-Sent Events:</p>
+     * <ul>
+     * <li>{@code file} — {"index": 1, "fileName": "p2.jpg", "result": {OcrResponse}},
+     * in completion order; a failed file has {@code success: false} and, when the
+     * OCR queue was full, {@code retryAfterSeconds}</li>
+     * <li>{@code complete} — {"files": 5, "succeeded": 5, "elapsedMs": 8120,
+     * "merged": {OcrResponse}}; {@code merged} (only with {@code merge=true})
+     * joins the texts in upload order, and its lab values take each analyte from
+     * the first file that has it</li>
+     * </ul>
+     *
+     * @param files the multipart files to process (form key {@code files})
+     * @param merge   also return one document-level result
+     * @param profile fast, accurate or auto (optional), resolved per file
+     * @return an SSE stream
+     */
+    @PostMapping(value = "/upload/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
+    public ResponseEntity<?> uploadBatch(@RequestParam("files") List<MultipartFile> files,
+                                         @RequestParam(value = "merge", defaultValue = "false") boolean merge,
+                                         @RequestParam(value = "profile", required = false) String profile) {
+        log.info("OCR batch request — {} file(s), merge: {}", files.size(), merge);
+
+        List<byte[]> contents = new ArrayList<>(files.size());
+        OcrProfile requested;
+        try {
+            requested = requestedProfile(profile, previewProfile);
+            if (files.isEmpty() || files.size() > maxBatchFiles) {
+                throw new IllegalArgumentException("A batch must contain between 1 and " + maxBatchFiles + " files.");
+            }
+            for (MultipartFile file : files) {
+                try {
+                    ocrService.validateFile(file);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("'" + file.getOriginalFilename() + "': " + e.getMessage());
+                }
+            }
+            // Read now: the multipart temp files do not outlive this request thread
+            for (MultipartFile file : files) {
+                contents.add(file.getBytes());
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(OcrResponse.builder().success(false).message(e.getMessage()).build());
+        } catch (IOException e) {
+            log.error("Could not read batch OCR uploads", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(OcrResponse.builder().success(false).message(FILE_ERROR_MESSAGE).build());
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        BatchState batch = new BatchState(files.size(), merge);
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            String filename = files.get(i).getOriginalFilename();
+            boolean pdf = ocrService.isPdfFile(files.get(i));
+            byte[] content = contents.get(i);
+            try {
+                ocrEnginePool.runJob(() -> batchOcr(emitter, batch, index, content, filename, pdf, requested));
+            } catch (OcrBusyException e) {
+                if (index == 0) {
+                    return busy(e);
+                }
+                finishBatchFile(emitter, batch, index, filename, failedResult(e), null);
+            }
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void batchOcr(SseEmitter emitter, BatchState batch, int index, byte[] content,
+                          String filename, boolean pdf, OcrProfile requested) {
+        OcrResponse result;
+        Map<String, LabValue> labValues = null;
+        try {
+            CachedExtraction extraction = extractCached(content, filename, pdf, requested);
+            String extractedText = extraction.entry().getExtractedText();
+            labValues = ocrResultCacheService.labValues(extraction.entry());
+            result = OcrResponse.builder()
+                    .success(true)
+                    .extractedText(extractedText)
+                    .message("OCR completed successfully.")
+                    .fileType(pdf ? "PDF" : "IMAGE")
+                    .characterCount(extractedText.length())
+                    .pageMethods(ocrResultCacheService.pageMethods(extraction.entry()))
+                    .cached(extraction.hit())
+                    .profile(extraction.profile().name())
+                    .labValues(labValues)
+                    .build();
+        } catch (Exception e) {
+            log.error("Batch OCR failed for '{}': {}", filename, e.getMessage(), e);
+            result = failedResult(e);
+        }
+        finishBatchFile(emitter, batch, index, filename, result, labValues);
+    }
+
+    /**
+     * Report one file; the last one to finish also sends the summary
+     */
+    private void finishBatchFile(SseEmitter emitter, BatchState batch, int index, String filename,
+                                 OcrResponse result, Map<String, LabValue> labValues) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("index", index);
+        event.put("fileName", filename);
+        event.put("result", result);
+        sendEvent(emitter, "file", event);
+
+        if (!batch.record(index, result, labValues)) {
+            return;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("files", batch.results.length);
+        summary.put("succeeded", batch.succeeded());
+        summary.put("elapsedMs", System.currentTimeMillis() - batch.startedAt);
+        if (batch.merge) {
+            summary.put("merged", batch.merged());
+        }
+        log.info("OCR batch completed — {}/{} file(s) in {} ms",
+                summary.get("succeeded"), batch.results.length, summary.get("elapsedMs"));
+        sendEvent(emitter, "complete", summary);
+        emitter.complete();
+    }
+
+    private OcrResponse failedResult(Exception e) {
+        boolean clientFacing = e instanceof IllegalArgumentException || e instanceof OcrBusyException;
+        return OcrResponse.builder()
+                .success(false)
+                .message(clientFacing ? e.getMessage() : OCR_ERROR_MESSAGE)
+                .retryAfterSeconds(e instanceof OcrBusyException busy ? busy.getRetryAfterSeconds() : null)
+                .build();
+    }
+
+    /**
+     * Per-file results of one batch, filled in by its OCR jobs
+     */
+    private static class BatchState {
+
+        private final OcrResponse[] results;
+        private final List<Map<String, LabValue>> labValues;
+        private final boolean merge;
+        private final long startedAt = System.currentTimeMillis();
+        private int remaining;
+
+        BatchState(int files, boolean merge) {
+            this.results = new OcrResponse[files];
+            this.labValues = new ArrayList<>(Collections.nCopies(files, null));
+            this.merge = merge;
+            this.remaining = files;
+        }
+
+        /**
+         * @return true for the last file of the batch
+         */
+        synchronized boolean record(int index, OcrResponse result, Map<String, LabValue> values) {
+            results[index] = result;
+            labValues.set(index, values);
+            return --remaining == 0;
+        }
+
+        synchronized int succeeded() {
+            int count = 0;
+            for (OcrResponse result : results) {
+                if (result.isSuccess()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Successful files as one document, in upload order
+         */
+        synchronized OcrResponse merged() {
+            StringBuilder text = new StringBuilder();
+            List<String> pageMethods = new ArrayList<>();
+            Map<String, LabValue> mergedLabs = new LinkedHashMap<>();
+            boolean allCached = true;
+            String profile = null;
+            for (int i = 0; i < results.length; i++) {
+                OcrResponse result = results[i];
+                if (!result.isSuccess()) {
+                    continue;
+                }
+                if (text.length() > 0) {
+                    text.append("\n\n");
+                }
+                text.append(result.getExtractedText());
+                if (result.getPageMethods() != null) {
+                    pageMethods.addAll(result.getPageMethods());
+                }
+                if (labValues.get(i) != null) {
+                    labValues.get(i).forEach(mergedLabs::putIfAbsent);
+                }
+                allCached &= result.isCached();
+                profile = profile == null || profile.equals(result.getProfile()) ? result.getProfile() : "MIXED";
+            }
+            int succeeded = succeeded();
+            return OcrResponse.builder()
+                    .success(succeeded > 0)
+                    .extractedText(text.toString())
+                    .message("Merged " + succeeded + " of " + results.length + " file(s). Found "
+                            + mergedLabs.size() + " lab value(s).")
+                    .fileType("BATCH")
+                    .characterCount(text.length())
+                    .pageMethods(pageMethods)
+                    .cached(succeeded > 0 && allCached)
+                    .profile(profile)
+                    .labValues(mergedLabs)
+                    .build();
+        }
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            // Batch jobs finish concurrently; keep frames whole
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; keep going so the result is still computed once
+            log.debug("Could not send '{}' OCR event: {}", name, e.getMessage());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Helpers
+    // ─────────────────────────────────────────────────────────────────────────
+    /**
+     * The request's profile, or the endpoint's default
+     *
+     * @throws IllegalArgumentException for an unknown profile name
+     */
+    private OcrProfile requestedProfile(String profile, String endpointDefault) {
+        return OcrProfile.parse(profile, OcrProfile.parse(endpointDefault, OcrProfile.ACCURATE));
+    }
+
+    private List<String> methodNames(TextExtractionResult result) {
+        return result.getPageMethods().stream().map(Enum::name).toList();
+    }
+
+    /**
+     * Cached extraction for the file's content, running OCR only on a miss.
+     * The cache holds accurate results, which also answer fast requests; a
+     * fast extraction is returned without being cached.
+     */
+    private CachedExtraction extractCached(MultipartFile file, OcrProfile requested)
+            throws IOException, TesseractException {
+        return extractCached(file.getBytes(), file.getOriginalFilename(), ocrService.isPdfFile(file), requested);
+    }
+
+    private CachedExtraction extractCached(byte[] content, String filename, boolean pdf, OcrProfile requested)
+            throws IOException, TesseractException {
+        String contentHash = UploadIngestUtil.sha256Hex(content);
+        OcrResultCache entry = ocrResultCacheService.find(contentHash).orElse(null);
+        if (entry != null) {
+            log.info("OCR served from cache for '{}' (sha256 {})", filename, contentHash);
+            return new CachedExtraction(entry, true, OcrProfile.ACCURATE);
+        }
+        OcrProfile tier = ocrService.resolveProfile(requested);
+        TextExtractionResult result = ocrService.extractDocument(content, filename, pdf, tier, null);
+        OcrResultCache extracted = tier == OcrProfile.ACCURATE
+                ? ocrResultCacheService.store(contentHash, result)
+                : ocrResultCacheService.unsaved(contentHash, result);
+        return new CachedExtraction(extracted, false, tier);
+    }
+
+    private record CachedExtraction(OcrResultCache entry, boolean hit, OcrProfile profile) {
+    }
+
+    /**
+     * 503 with Retry-After when the OCR queue is full
+     */
+    private ResponseEntity<OcrResponse> busy(OcrBusyException e) {
+        log.warn("OCR request rejected — executor saturated");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(OcrResponse.builder()
+                        .success(false)
+                        .message(e.getMessage())
+                        .build());
+    }
 }
@@ -4,6 +4,7 @@ import com.healthcare.dto.ApiResponse;
 import com.healthcare.model.*;
 import com.healthcare.repository.*;
 import com.healthcare.service.AuthService;
+import com.healthcare.service.ChatContextCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,6 +31,7 @@ public class PatientController {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final AuthService authService;
+    private final ChatContextCache chatContextCache;
 
     // ──────────────────────────────────── PROFILE ────────────────────────────────────
     @GetMapping("/profile")
@@ -79,6 +81,7 @@ public class PatientController {
             }
 
             HealthProfile saved = healthProfileRepository.save(profile);
+            chatContextCache.evictHealthContext(currentUser.getId());
             return ResponseEntity.ok(new ApiResponse(true, "Profile updated", saved));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
@@ -92,7 +95,7 @@ public class PatientController {
         try {
             User currentUser = authService.getCurrentUser();
             List<ChatSession> sessions = chatSessionRepository.findByUserOrderByCreatedAtDesc(currentUser);
-            List<MedicalReport> reports = medicalReportRepository.findByUserOrderByUploadedAtDesc(currentUser);
+            long reports = medicalReportRepository.countByUser(currentUser);
             List<Appointment> appointments = appointmentRepository.findByPatientOrderByAppointmentDateDesc(currentUser);
 
             long upcoming = appointments.stream()
@@ -110,7 +113,7 @@ public class PatientController {
 
             Map<String, Object> statsMap = new LinkedHashMap<>();
             statsMap.put("totalConsultations", sessions.size());
-            statsMap.put("totalReports", reports.size());
+            statsMap.put("totalReports", reports);
             statsMap.put("upcomingAppointments", upcoming);
             statsMap.put("totalAppointments", appointments.size());
             statsMap.put("emergencyAlerts", emergencies);
@@ -0,0 +1,25 @@
+package com.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a chat session for the session list (sidebar)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSessionSummary {
+
+    private Long id;
+    private String title;
+    private Boolean isEmergency;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastMessageAt;
+    private Integer messageCount;
+    private String lastMessagePreview;
+}
@@ -0,0 +1,45 @@
+package com.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A lab value checked against its reference range
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabFinding {
+
+    private String name;
+    private double value;
+    private Double secondaryValue;
+    private String unit;
+
+    /**
+     * Reference bounds used (null = unbounded on that side)
+     */
+    private Double low;
+    private Double high;
+
+    private Flag flag;
+
+    public enum Flag {
+        NORMAL,
+        LOW,
+        HIGH,
+        /**
+         * Normal or not depending on patient details we do not have (e.g. sex)
+         */
+        AMBIGUOUS,
+        /**
+         * No reference range for this analyte or unit
+         */
+        UNKNOWN,
+        /**
+         * Measurement without a normal range, e.g. weight
+         */
+        INFO
+    }
+}
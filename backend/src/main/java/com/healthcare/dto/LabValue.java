@@ -0,0 +1,37 @@
+package com.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One lab result read from report text, converted to the analyte's standard
+ * unit where the reported unit is known
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabValue {
+
+    /**
+     * Canonical analyte name, e.g. "Glucose"
+     */
+    private String name;
+
+    private double value;
+
+    /**
+     * Second number of a paired reading (diastolic blood pressure), else null
+     */
+    private Double secondaryValue;
+
+    /**
+     * Normalised unit, e.g. "mg/dL"; null when the report gave none
+     */
+    private String unit;
+
+    /**
+     * The value as it appeared in the text, e.g. "10.0 mmol/L"
+     */
+    private String raw;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,8 +23,29 @@ public class OcrResponse {
     private String fileType;
     private int characterCount;
 
+    /**
+     * How each page was read, in page order: TEXT_LAYER or OCR
+     */
+    private List<String> pageMethods;
+
+    /**
+     * True when the result was served from the extraction cache
+     */
+    private boolean cached;
+
+    /**
+     * OCR tier the text was extracted with: FAST or ACCURATE (MIXED for a
+     * merged batch whose files differ)
+     */
+    private String profile;
+
     /**
      * Populated only when structured lab extraction is requested
      */
-    private Map<String, String> labValues;
+    private Map<String, LabValue> labValues;
+
+    /**
+     * Set on a failed batch file when the OCR queue was full
+     */
+    private Integer retryAfterSeconds;
 }
@@ -0,0 +1,27 @@
+package com.healthcare.dto;
+
+import com.healthcare.model.MedicalReport.ProcessingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a medical report for report lists; the text and
+ * explanation are only loaded by the detail endpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSummary {
+
+    private Long id;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private ProcessingStatus processingStatus;
+    private Integer abnormalCount;
+    private LocalDateTime reportDate;
+    private LocalDateTime uploadedAt;
+}
@@ -0,0 +1,20 @@
+package com.healthcare.dto;
+
+import com.healthcare.model.MedicalReport;
+import com.healthcare.model.ReportJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A stored upload and the job that is processing it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportUploadResponse {
+
+    private MedicalReport report;
+
+    private ReportJob job;
+}
@@ -0,0 +1,44 @@
+package com.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Text extracted from a document, with how each page was read
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextExtractionResult {
+
+    private String text;
+
+    /**
+     * One entry per page, in page order
+     */
+    private List<Method> pageMethods;
+
+    public enum Method {
+        /**
+         * Embedded PDF text layer, no OCR
+         */
+        TEXT_LAYER,
+        OCR,
+        /**
+         * Digital lab export (CSV, HL7 v2, FHIR), no OCR
+         */
+        STRUCTURED
+    }
+
+    /**
+     * Page methods as a compact comma-separated list, e.g. "TEXT_LAYER,OCR"
+     */
+    public String pageMethodsAsString() {
+        return pageMethods == null ? null
+                : pageMethods.stream().map(Enum::name).collect(Collectors.joining(","));
+    }
+}
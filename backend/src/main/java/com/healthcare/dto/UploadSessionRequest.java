@@ -0,0 +1,29 @@
+package com.healthcare.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for starting a resumable report upload
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+
+    @Positive(message = "Total size must be positive")
+    private long totalSize;
+
+    /**
+     * Optional hex SHA-256 of the whole file, verified on completion
+     */
+    private String sha256;
+}
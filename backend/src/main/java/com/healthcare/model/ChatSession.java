@@ -14,7 +14,10 @@ import java.util.List;
  * Chat Session entity representing a conversation
  */
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions", indexes = {
+    @Index(name = "idx_sessions_user_active_last", columnList = "user_id, is_active, last_message_at, id"),
+    @Index(name = "idx_sessions_retention", columnList = "is_active, archived_at, last_message_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +49,16 @@ public class ChatSession {
     
     @Column(name = "last_message_at")
     private LocalDateTime lastMessageAt;
+    
+    // Denormalized for the session list; maintained by ChatService on every
+    // write through atomic updates, so never written back from the entity
+    @Column(name = "message_count", updatable = false)
+    private Integer messageCount = 0;
+    
+    @Column(name = "last_message_preview", length = 160, updatable = false)
+    private String lastMessagePreview;
+    
+    // Set while the session's messages live in message_archives instead of messages
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
 }
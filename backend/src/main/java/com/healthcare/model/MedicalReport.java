@@ -1,6 +1,7 @@
 package com.healthcare.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.healthcare.util.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,11 @@ import java.time.LocalDateTime;
  * Medical Report entity for uploaded documents
  */
 @Entity
-@Table(name = "medical_reports")
+@Table(name = "medical_reports", indexes = {
+    @Index(name = "idx_reports_content_hash", columnList = "content_hash"),
+    @Index(name = "idx_reports_file_path", columnList = "file_path"),
+    @Index(name = "idx_reports_user_uploaded", columnList = "user_id, uploaded_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,22 +36,49 @@ public class MedicalReport {
     @Column(name = "file_name", nullable = false)
     private String fileName;
 
+    // Shared by reports of identical uploads (content-addressed)
     @Column(name = "file_path", nullable = false)
     private String filePath;
 
     @Column(name = "file_type")
     private String fileType;
 
+    // Lower-case hex SHA-256 of the uploaded bytes
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Convert(converter = CompressedTextConverter.class)
     @Column(name = "extracted_text", columnDefinition = "LONGTEXT")
     private String extractedText;
 
+    @Convert(converter = CompressedTextConverter.class)
     @Column(name = "ai_explanation", columnDefinition = "LONGTEXT")
     private String aiExplanation;
 
+    // Per page, comma-separated: TEXT_LAYER (embedded PDF text) or OCR
+    @Column(name = "extraction_methods", length = 1024)
+    private String extractionMethods;
+
+    // Lab values outside their reference range; null when none could be read
+    @Column(name = "abnormal_count")
+    private Integer abnormalCount;
+
+    // Null for reports processed before uploads became background jobs
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", length = 20)
+    private ProcessingStatus processingStatus;
+
     @Column(name = "report_date")
     private LocalDateTime reportDate;
 
     @CreationTimestamp
     @Column(name = "uploaded_at", updatable = false)
     private LocalDateTime uploadedAt;
+
+    public enum ProcessingStatus {
+        PROCESSING, READY, FAILED
+    }
 }
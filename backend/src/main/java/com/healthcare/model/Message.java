@@ -1,6 +1,7 @@
 package com.healthcare.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.healthcare.util.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,9 @@ import java.time.LocalDateTime;
  * Message entity representing individual messages in a chat session
  */
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    @Index(name = "idx_messages_session_created", columnList = "chat_session_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,9 +35,11 @@ public class Message {
     @Column(nullable = false)
     private MessageRole role;
 
+    @Convert(converter = CompressedTextConverter.class)
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    // Not compressed: the column must stay valid JSON
     @Column(name = "structured_response", columnDefinition = "JSON")
     private String structuredResponse;
 
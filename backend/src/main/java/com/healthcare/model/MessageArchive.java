@@ -0,0 +1,52 @@
+package com.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold archive segment: the messages of one chat session for one calendar
+ * month, stored as gzip-compressed JSON lines
+ */
+@Entity
+@Table(name = "message_archives", indexes = {
+    @Index(name = "idx_archives_session_month", columnList = "chat_session_id, archive_month", unique = true),
+    @Index(name = "idx_archives_month", columnList = "archive_month")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain column rather than a relation so purging a session is a bulk delete
+    @Column(name = "chat_session_id", nullable = false)
+    private Long chatSessionId;
+
+    // yyyy-MM of the messages' created_at
+    @Column(name = "archive_month", nullable = false, length = 7)
+    private String archiveMonth;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "first_message_at")
+    private LocalDateTime firstMessageAt;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(name = "archived_at", updatable = false)
+    private LocalDateTime archivedAt;
+}
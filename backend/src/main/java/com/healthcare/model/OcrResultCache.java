@@ -0,0 +1,66 @@
+package com.healthcare.model;
+
+import com.healthcare.util.CompressedTextConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Extraction results for one document content, shared by every report and
+ * OCR request that uploads the same bytes
+ */
+@Entity
+@Table(name = "ocr_result_cache", indexes = {
+    @Index(name = "idx_ocr_cache_hash_pipeline", columnList = "content_hash, pipeline_version", unique = true),
+    @Index(name = "idx_ocr_cache_last_used", columnList = "last_used_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrResultCache {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Lower-case hex SHA-256 of the document bytes
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Short hash of the OCR settings the text was produced with
+    @Column(name = "pipeline_version", nullable = false, length = 16)
+    private String pipelineVersion;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "extracted_text", columnDefinition = "LONGTEXT")
+    private String extractedText;
+
+    @Column(name = "extraction_methods", length = 1024)
+    private String extractionMethods;
+
+    // JSON object of analyte name -> LabValue
+    @Column(name = "lab_values", columnDefinition = "TEXT")
+    private String labValues;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "ai_explanation", columnDefinition = "LONGTEXT")
+    private String aiExplanation;
+
+    // Model that wrote aiExplanation; another model means a fresh explanation
+    @Column(name = "explanation_model", length = 100)
+    private String explanationModel;
+
+    @Column(name = "hit_count", nullable = false)
+    private Long hitCount = 0L;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+}
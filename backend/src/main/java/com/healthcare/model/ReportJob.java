@@ -0,0 +1,87 @@
+package com.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background processing state of one uploaded report. The stage records the
+ * next step to run, so a retried or recovered job resumes where it stopped.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+    @Index(name = "idx_report_jobs_status_next", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_report_jobs_report", columnList = "report_id"),
+    @Index(name = "idx_report_jobs_run_status", columnList = "run_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Bulk re-processing run that created this job; null for uploads
+    @Column(name = "run_id")
+    private Long runId;
+
+    // Ask the model again even if it already explained this text
+    @Column(name = "refresh_explanation", nullable = false)
+    private boolean refreshExplanation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStage stage = JobStage.OCR;
+
+    // Attempts of the current stage, including one that is running
+    @Column(nullable = false)
+    private int attempts;
+
+    // Node that last claimed the job (report.jobs.node-id)
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    // Stored happens in the upload request; jobs start at OCR
+    public enum JobStage {
+        STORED, OCR, LABS, EXPLANATION, DONE
+    }
+}
@@ -0,0 +1,70 @@
+package com.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An admin-started re-processing of stored reports. Reports are walked by id
+ * up to {@code maxReportId}; {@code lastReportId} is the checkpoint of the
+ * last report a job was created for.
+ */
+@Entity
+@Table(name = "reprocess_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReprocessRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RunStatus status = RunStatus.RUNNING;
+
+    @Column(name = "refresh_explanation", nullable = false)
+    private boolean refreshExplanation;
+
+    // Re-processing jobs queued or running at once
+    @Column(name = "max_in_flight", nullable = false)
+    private int maxInFlight;
+
+    @Column(name = "rate_per_minute", nullable = false)
+    private int ratePerMinute;
+
+    @Column(name = "last_report_id", nullable = false)
+    private long lastReportId;
+
+    @Column(name = "max_report_id", nullable = false)
+    private long maxReportId;
+
+    @Column(name = "total_reports", nullable = false)
+    private long totalReports;
+
+    // Jobs created so far
+    @Column(name = "scheduled_reports", nullable = false)
+    private long scheduledReports;
+
+    @Column(name = "started_by")
+    private Long startedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum RunStatus {
+        RUNNING, PAUSED, COMPLETED, CANCELLED
+    }
+}
@@ -0,0 +1,90 @@
+package com.healthcare.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable report upload: chunks are appended to a staging file until
+ * {@code receivedBytes} reaches {@code totalSize} and the upload is completed
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_status_expires", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+
+    // Random UUID; also names the staging file
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    // Every chunk but the last has exactly this size
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    // Length of the verified prefix of the staging file
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    // Optional SHA-256 of the whole file, checked on completion
+    @Column(name = "expected_sha256", length = 64)
+    private String expectedSha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.OPEN;
+
+    @JsonIgnore
+    @Column(name = "staging_path", nullable = false, length = 500)
+    private String stagingPath;
+
+    @Column(name = "report_id")
+    private Long reportId;
+
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public int getNextChunk() {
+        return (int) (receivedBytes / chunkSize);
+    }
+
+    public int getChunkCount() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    public enum Status {
+        OPEN, COMPLETED, ABORTED, EXPIRED
+    }
+}
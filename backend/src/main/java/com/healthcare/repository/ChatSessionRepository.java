@@ -1,12 +1,22 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.ChatSessionSummary;
 import com.healthcare.model.ChatSession;
 import com.healthcare.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for ChatSession entity operations
@@ -18,6 +28,113 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
 
     List<ChatSession> findByUserAndIsActiveOrderByLastMessageAtDesc(User user, Boolean isActive);
 
+    /**
+     * First page of active session summaries, most recently used first
+     */
+    @Query("SELECT new com.healthcare.dto.ChatSessionSummary(c.id, c.title, c.isEmergency, c.isActive, "
+            + "c.createdAt, c.lastMessageAt, c.messageCount, c.lastMessagePreview) "
+            + "FROM ChatSession c WHERE c.user = :user AND c.isActive = true "
+            + "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ChatSessionSummary> findActiveSummaries(@Param("user") User user, Pageable pageable);
+
+    /**
+     * Keyset page of active session summaries older than (lastMessageAt, id)
+     */
+    @Query("SELECT new com.healthcare.dto.ChatSessionSummary(c.id, c.title, c.isEmergency, c.isActive, "
+            + "c.createdAt, c.lastMessageAt, c.messageCount, c.lastMessagePreview) "
+            + "FROM ChatSession c WHERE c.user = :user AND c.isActive = true "
+            + "AND (c.lastMessageAt < :lastMessageAt OR (c.lastMessageAt = :lastMessageAt AND c.id < :id)) "
+            + "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ChatSessionSummary> findActiveSummariesBefore(@Param("user") User user,
+                                                       @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    /**
+     * Sessions created before the denormalized list columns existed. Those
+     * rows got the column default (0) for message_count, so they are found by
+     * the missing preview, which every recorded message sets.
+     */
+    @Query(value = "SELECT c.id FROM chat_sessions c "
+            + "WHERE c.last_message_preview IS NULL AND c.archived_at IS NULL "
+            + "AND EXISTS (SELECT 1 FROM messages m WHERE m.chat_session_id = c.id)", nativeQuery = true)
+    List<Long> findIdsMissingMessageStats();
+
+    /**
+     * One-off backfill of a session found by {@link #findIdsMissingMessageStats}.
+     * The preview is built in Java from the decoded content; once filled the
+     * row is not touched again.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE chat_sessions c SET "
+            + "c.message_count = (SELECT COUNT(*) FROM messages m WHERE m.chat_session_id = c.id), "
+            + "c.last_message_preview = :preview "
+            + "WHERE c.id = :id AND c.last_message_preview IS NULL", nativeQuery = true)
+    int backfillMessageStats(@Param("id") Long id, @Param("preview") String preview);
+
+    /**
+     * Count one more message and make it the session's latest, in a single
+     * statement so concurrent writers cannot lose an increment
+     */
+    @Modifying
+    @Query("UPDATE ChatSession c SET c.messageCount = COALESCE(c.messageCount, 0) + 1, "
+            + "c.lastMessageAt = :at, c.lastMessagePreview = :preview WHERE c.id = :id")
+    int recordMessage(@Param("id") Long id,
+                      @Param("at") LocalDateTime at,
+                      @Param("preview") String preview);
+
+    /**
+     * Count one message fewer, never below zero
+     */
+    @Modifying
+    @Query("UPDATE ChatSession c SET c.messageCount = CASE WHEN COALESCE(c.messageCount, 0) > 0 "
+            + "THEN c.messageCount - 1 ELSE 0 END WHERE c.id = :id")
+    int decrementMessageCount(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatSession c SET c.isEmergency = true WHERE c.id = :id")
+    int markEmergency(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ChatSession c SET c.isActive = false WHERE c.id = :id")
+    int deactivate(@Param("id") Long id);
+
+    /**
+     * Set or clear (null) the time the session's messages were archived
+     */
+    @Modifying
+    @Query("UPDATE ChatSession c SET c.archivedAt = :archivedAt WHERE c.id = :id")
+    int updateArchivedAt(@Param("id") Long id, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * The session row, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ChatSession c WHERE c.id = :id")
+    Optional<ChatSession> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Active, not yet archived sessions idle since before the cutoff, by id
+     */
+    @Query("SELECT c.id FROM ChatSession c WHERE c.isActive = true AND c.archivedAt IS NULL "
+            + "AND c.lastMessageAt < :cutoff AND c.id > :afterId ORDER BY c.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    /**
+     * Soft-deleted sessions last used before the cutoff
+     */
+    @Query("SELECT c.id FROM ChatSession c WHERE c.isActive = false "
+            + "AND COALESCE(c.lastMessageAt, c.createdAt) < :cutoff ORDER BY c.id")
+    List<Long> findPurgeableIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ChatSession c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     Long countByUser(User user);
 
     @Query("SELECT COUNT(c) FROM ChatSession c WHERE c.isEmergency = true")
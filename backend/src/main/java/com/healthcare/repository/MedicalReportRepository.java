@@ -1,10 +1,15 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.ReportSummary;
 import com.healthcare.model.MedicalReport;
 import com.healthcare.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -13,5 +18,40 @@ import java.util.List;
 @Repository
 public interface MedicalReportRepository extends JpaRepository<MedicalReport, Long> {
     
-    List<MedicalReport> findByUserOrderByUploadedAtDesc(User user);
+    long countByUser(User user);
+
+    /**
+     * First page of report summaries, newest upload first
+     */
+    @Query("SELECT new com.healthcare.dto.ReportSummary(r.id, r.fileName, r.fileType, r.fileSize, "
+            + "r.processingStatus, r.abnormalCount, r.reportDate, r.uploadedAt) "
+            + "FROM MedicalReport r WHERE r.user = :user "
+            + "ORDER BY r.uploadedAt DESC, r.id DESC")
+    List<ReportSummary> findSummaries(@Param("user") User user, Pageable pageable);
+
+    /**
+     * Keyset page of report summaries older than (uploadedAt, id)
+     */
+    @Query("SELECT new com.healthcare.dto.ReportSummary(r.id, r.fileName, r.fileType, r.fileSize, "
+            + "r.processingStatus, r.abnormalCount, r.reportDate, r.uploadedAt) "
+            + "FROM MedicalReport r WHERE r.user = :user "
+            + "AND (r.uploadedAt < :uploadedAt OR (r.uploadedAt = :uploadedAt AND r.id < :id)) "
+            + "ORDER BY r.uploadedAt DESC, r.id DESC")
+    List<ReportSummary> findSummariesBefore(@Param("user") User user,
+                                            @Param("uploadedAt") LocalDateTime uploadedAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    long countByFilePath(String filePath);
+
+    @Query("SELECT MAX(r.id) FROM MedicalReport r")
+    Long findMaxId();
+
+    long countByIdLessThanEqual(Long id);
+
+    /**
+     * Next keyset page of report ids with their owners: [id, userId]
+     */
+    @Query("SELECT r.id, r.user.id FROM MedicalReport r WHERE r.id > :afterId AND r.id <= :maxId ORDER BY r.id")
+    List<Object[]> findIdsAfter(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable page);
 }
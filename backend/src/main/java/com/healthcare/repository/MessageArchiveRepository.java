@@ -0,0 +1,34 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.MessageArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for MessageArchive entity operations
+ */
+@Repository
+public interface MessageArchiveRepository extends JpaRepository<MessageArchive, Long> {
+
+    List<MessageArchive> findByChatSessionIdOrderByArchiveMonthAsc(Long chatSessionId);
+
+    /**
+     * Segment time spans without their payloads: [id, firstMessageAt, lastMessageAt]
+     */
+    @Query("SELECT a.id, a.firstMessageAt, a.lastMessageAt FROM MessageArchive a "
+            + "WHERE a.chatSessionId = :sessionId ORDER BY a.archiveMonth")
+    List<Object[]> findSpansByChatSessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT COALESCE(SUM(a.messageCount), 0) FROM MessageArchive a")
+    Long sumArchivedMessages();
+
+    @Modifying
+    @Query("DELETE FROM MessageArchive a WHERE a.chatSessionId IN :sessionIds")
+    int deleteByChatSessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+}
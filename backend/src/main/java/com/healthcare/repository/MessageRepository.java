@@ -2,10 +2,15 @@ package com.healthcare.repository;
 
 import com.healthcare.model.ChatSession;
 import com.healthcare.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,9 +21,56 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     List<Message> findByChatSessionOrderByCreatedAtAsc(ChatSession chatSession);
     
+    /**
+     * Newest messages of a session first; page size bounds how many rows are read
+     */
+    @Query("SELECT m FROM Message m WHERE m.chatSession = :session ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findRecentByChatSession(@Param("session") ChatSession session, Pageable pageable);
+    
+    /**
+     * Keyset page of messages strictly older than (createdAt, id), newest first
+     */
+    @Query("SELECT m FROM Message m WHERE m.chatSession = :session "
+            + "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) "
+            + "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findPageBefore(@Param("session") ChatSession session,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+    
+    /**
+     * Keyset page of messages strictly newer than (createdAt, id), oldest first
+     */
+    @Query("SELECT m FROM Message m WHERE m.chatSession = :session "
+            + "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) "
+            + "ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findPageAfter(@Param("session") ChatSession session,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+    
     @Query("SELECT COUNT(m) FROM Message m")
     Long countAllMessages();
     
+    /**
+     * Most recent user messages; the page bounds the scan to the newest rows
+     */
+    /**
+     * Content of the latest message(s) of a session, decoded by the column
+     * converter
+     */
+    @Query("SELECT m.content FROM Message m WHERE m.chatSession.id = :sessionId "
+            + "ORDER BY m.createdAt DESC, m.id DESC")
+    List<String> findLatestContent(@Param("sessionId") Long sessionId, Pageable pageable);
+
     @Query("SELECT m.content FROM Message m WHERE m.role = 'USER' ORDER BY m.createdAt DESC")
-    List<String> findRecentUserMessages();
+    List<String> findRecentUserMessages(Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.chatSession.id IN :sessionIds")
+    int deleteByChatSessionIds(@Param("sessionIds") Collection<Long> sessionIds);
 }
@@ -0,0 +1,28 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.OcrResultCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for OcrResultCache entity operations
+ */
+@Repository
+public interface OcrResultCacheRepository extends JpaRepository<OcrResultCache, Long> {
+
+    Optional<OcrResultCache> findByContentHashAndPipelineVersion(String contentHash, String pipelineVersion);
+
+    @Modifying
+    @Query("UPDATE OcrResultCache c SET c.hitCount = c.hitCount + 1, c.lastUsedAt = :now WHERE c.id = :id")
+    int recordHit(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OcrResultCache c SET c.aiExplanation = :explanation, c.explanationModel = :model WHERE c.id = :id")
+    int updateExplanation(@Param("id") Long id, @Param("explanation") String explanation, @Param("model") String model);
+}
@@ -0,0 +1,119 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.ReportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for ReportJob entity operations
+ */
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    /**
+     * Due queued jobs, uploads before bulk re-processing
+     */
+    @Query("SELECT j.id FROM ReportJob j WHERE j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED "
+            + "AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now) "
+            + "ORDER BY CASE WHEN j.runId IS NULL THEN 0 ELSE 1 END, j.id")
+    List<Long> findDueJobIds(@Param("now") LocalDateTime now, Pageable page);
+
+    long countByRunIdIsNullAndStatusIn(Collection<ReportJob.JobStatus> statuses);
+
+    long countByRunIdAndStatusIn(Long runId, Collection<ReportJob.JobStatus> statuses);
+
+    @Query("SELECT j.status, COUNT(j) FROM ReportJob j WHERE j.runId = :runId GROUP BY j.status")
+    List<Object[]> countByStatusForRun(@Param("runId") Long runId);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.healthcare.model.ReportJob.JobStatus.FAILED, "
+            + "j.lastError = 'Cancelled', j.updatedAt = :now, j.completedAt = :now "
+            + "WHERE j.runId = :runId AND j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED")
+    int cancelQueued(@Param("runId") Long runId, @Param("now") LocalDateTime now);
+
+    /**
+     * Take a queued job for this worker; 0 when another worker (or node) has it
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING, "
+            + "j.attempts = j.attempts + 1, j.claimedBy = :node, j.startedAt = :now, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("node") String node, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark this node's running jobs as alive, so they are not requeued as
+     * stale while a long stage runs; returns the number still claimed
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.updatedAt = :now WHERE j.id IN :ids "
+            + "AND j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.claimedBy = :node")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("node") String node, @Param("now") LocalDateTime now);
+
+    /**
+     * Move a job this node still holds to its next stage; 0 when the claim
+     * was lost (requeued as stale, taken by another node, or deleted)
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.stage = :stage, j.attempts = :attempts, j.lastError = NULL, "
+            + "j.updatedAt = :now WHERE j.id = :id "
+            + "AND j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.claimedBy = :node")
+    int advanceClaimed(@Param("id") Long id, @Param("node") String node,
+                       @Param("stage") ReportJob.JobStage stage, @Param("attempts") int attempts,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Put a job this node still holds back in the queue; {@code refund} (0 or
+     * 1) is taken off its attempts when the stage never got to run
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED, "
+            + "j.attempts = CASE WHEN j.attempts > :refund THEN j.attempts - :refund ELSE 0 END, "
+            + "j.lastError = :error, j.nextAttemptAt = :nextAttemptAt, j.updatedAt = :now WHERE j.id = :id "
+            + "AND j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.claimedBy = :node")
+    int deferClaimed(@Param("id") Long id, @Param("node") String node, @Param("refund") int refund,
+                     @Param("error") String error, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * End a job this node still holds with {@code outcome}
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :outcome, j.lastError = :error, j.updatedAt = :now, "
+            + "j.completedAt = :now WHERE j.id = :id "
+            + "AND j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.claimedBy = :node")
+    int finishClaimed(@Param("id") Long id, @Param("node") String node,
+                      @Param("outcome") ReportJob.JobStatus outcome, @Param("error") String error,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Requeue jobs left running by a previous process
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED, "
+            + "j.nextAttemptAt = :now, j.updatedAt = :now "
+            + "WHERE j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    /**
+     * Requeue jobs this node claimed before it restarted; other nodes' running
+     * jobs are left to them
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.healthcare.model.ReportJob.JobStatus.QUEUED, "
+            + "j.nextAttemptAt = :now, j.updatedAt = :now "
+            + "WHERE j.status = com.healthcare.model.ReportJob.JobStatus.RUNNING AND j.claimedBy = :node "
+            + "AND j.startedAt < :startedBefore")
+    int requeueInterrupted(@Param("node") String node,
+                           @Param("startedBefore") LocalDateTime startedBefore,
+                           @Param("now") LocalDateTime now);
+
+    void deleteByReportId(Long reportId);
+}
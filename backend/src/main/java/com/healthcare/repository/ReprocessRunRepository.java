@@ -0,0 +1,19 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.ReprocessRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Repository for ReprocessRun entity operations
+ */
+@Repository
+public interface ReprocessRunRepository extends JpaRepository<ReprocessRun, Long> {
+
+    Optional<ReprocessRun> findFirstByStatusInOrderByIdDesc(Collection<ReprocessRun.RunStatus> statuses);
+
+    Optional<ReprocessRun> findFirstByOrderByIdDesc();
+}
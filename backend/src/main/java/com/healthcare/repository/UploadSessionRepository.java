@@ -0,0 +1,30 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for UploadSession entity operations
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSession.Status status, LocalDateTime now);
+
+    /**
+     * Record a written chunk; 0 when the session moved on meanwhile
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :received, s.updatedAt = :now "
+            + "WHERE s.id = :id AND s.receivedBytes = :expected "
+            + "AND s.status = com.healthcare.model.UploadSession.Status.OPEN")
+    int advance(@Param("id") String id, @Param("expected") long expected,
+                @Param("received") long received, @Param("now") LocalDateTime now);
+}
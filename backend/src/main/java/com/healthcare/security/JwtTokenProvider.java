@@ -59,6 +59,18 @@ public class JwtTokenProvider {
         return claims.getSubject();
     }
     
+    /**
+     * Get expiry date from JWT token
+     */
+    public Date getExpirationFromToken(String token) {
+        return Jwts.parser()
+            .verifyWith(getSigningKey())
+            .build()
+            .parseSignedClaims(token)
+            .getPayload()
+            .getExpiration();
+    }
+    
     /**
      * Validate JWT token
      */
@@ -0,0 +1,213 @@
+package com.healthcare.service;
+
+import com.healthcare.model.Message;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of per-session chat context.
+ * <p>
+ * Holds a ring buffer of the most recent turns of each active session and the
+ * prebuilt health-context string of each user, so a chat turn on a hot session
+ * does not have to read history or the health profile from the database.
+ * Least recently used entries are evicted once the configured bound is reached.
+ * </p>
+ * <p>
+ * Every append or eviction stamps the session with a new version, cached or
+ * not. A history loaded from the database is only stored when no stamp is
+ * newer than the version taken before the load, so a snapshot that misses a
+ * concurrent write never replaces the buffer that write would have updated.
+ * Health contexts follow the same rule with a per-user generation bumped by
+ * every eviction.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ChatContextCache {
+
+    @Getter
+    @Value("${chat.context.history-size:10}")
+    private int historySize;
+
+    @Value("${chat.context.cache.max-sessions:1000}")
+    private int maxSessions;
+
+    private Map<Long, Deque<Message>> sessionHistory;
+    private Map<Long, String> healthContexts;
+
+    // Version of the last append/eviction per session; guarded by sessionHistory
+    private final AtomicLong clock = new AtomicLong();
+    private Map<Long, Long> lastWrites;
+    // Newest version dropped from lastWrites, assumed for sessions not in it
+    private long forgottenWrites;
+
+    // Version of the last health-context eviction per user; guarded by healthContexts
+    private Map<Long, Long> lastEvictions;
+    // Newest version dropped from lastEvictions, assumed for users not in it
+    private long forgottenEvictions;
+
+    @PostConstruct
+    void init() {
+        sessionHistory = Collections.synchronizedMap(boundedLruMap(maxSessions));
+        healthContexts = Collections.synchronizedMap(boundedLruMap(maxSessions));
+        lastWrites = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxSessions) {
+                    forgottenWrites = Math.max(forgottenWrites, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        lastEvictions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxSessions) {
+                    forgottenEvictions = Math.max(forgottenEvictions, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.debug("Chat context cache configured — history size: {}, max sessions: {}", historySize, maxSessions);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Conversation history
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Recent messages of a session in chronological order, if cached
+     */
+    public Optional<List<Message>> getHistory(Long sessionId) {
+        Deque<Message> buffer = sessionHistory.get(sessionId);
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        synchronized (buffer) {
+            return Optional.of(new ArrayList<>(buffer));
+        }
+    }
+
+    /**
+     * Version to pass to {@link #putHistory} for a load that starts now
+     */
+    public long historyVersion() {
+        return clock.get();
+    }
+
+    /**
+     * Seed the ring buffer of a session with messages loaded from the database,
+     * unless a message was appended or the session evicted since
+     * {@code version} was taken
+     *
+     * @return whether the messages were cached
+     */
+    public boolean putHistory(Long sessionId, long version, List<Message> messages) {
+        Deque<Message> buffer = new ArrayDeque<>(historySize);
+        messages.forEach(m -> appendBounded(buffer, m));
+        synchronized (sessionHistory) {
+            if (lastWriteOf(sessionId) > version) {
+                return false;
+            }
+            return sessionHistory.putIfAbsent(sessionId, buffer) == null;
+        }
+    }
+
+    /**
+     * Append a freshly committed message. Sessions that are not cached are only
+     * stamped, so a load already in flight does not cache a history without
+     * it; their next read loads the tail from the database. A message already
+     * in the buffer (loaded by its own transaction) is not added twice.
+     */
+    public void appendMessage(Long sessionId, Message message) {
+        Deque<Message> buffer;
+        synchronized (sessionHistory) {
+            stamp(sessionId);
+            buffer = sessionHistory.get(sessionId);
+        }
+        if (buffer != null) {
+            synchronized (buffer) {
+                if (buffer.stream().noneMatch(m -> m.getId().equals(message.getId()))) {
+                    appendBounded(buffer, message);
+                }
+            }
+        }
+    }
+
+    public void evictSession(Long sessionId) {
+        synchronized (sessionHistory) {
+            stamp(sessionId);
+            sessionHistory.remove(sessionId);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Health context
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Prebuilt health-context string for a user, built by the loader on a miss.
+     * The result is only cached when the user was not evicted during the load.
+     */
+    public String getHealthContext(Long userId, Supplier<String> loader) {
+        String cached = healthContexts.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = clock.get();
+        String built = loader.get();
+        synchronized (healthContexts) {
+            if (lastEvictionOf(userId) <= version) {
+                healthContexts.put(userId, built);
+            }
+        }
+        return built;
+    }
+
+    public void evictHealthContext(Long userId) {
+        synchronized (healthContexts) {
+            lastEvictions.put(userId, clock.incrementAndGet());
+            healthContexts.remove(userId);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void stamp(Long sessionId) {
+        lastWrites.put(sessionId, clock.incrementAndGet());
+    }
+
+    private long lastWriteOf(Long sessionId) {
+        Long version = lastWrites.get(sessionId);
+        return version != null ? version : forgottenWrites;
+    }
+
+    private long lastEvictionOf(Long userId) {
+        Long version = lastEvictions.get(userId);
+        return version != null ? version : forgottenEvictions;
+    }
+
+    private void appendBounded(Deque<Message> buffer, Message message) {
+        if (buffer.size() >= historySize) {
+            buffer.pollFirst();
+        }
+        buffer.addLast(message);
+    }
+
+    private static <V> Map<Long, V> boundedLruMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
@@ -2,15 +2,27 @@ package com.healthcare.service;
 
 import com.healthcare.dto.ChatRequest;
 import com.healthcare.dto.ChatResponse;
+import com.healthcare.dto.ChatSessionSummary;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.model.*;
 import com.healthcare.repository.*;
+import com.healthcare.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service for managing chat sessions and messages
@@ -20,11 +32,26 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ChatService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_SESSION_PAGE_SIZE = 100;
+    private static final int PREVIEW_LENGTH = 160;
+    // Transaction resource: messages recorded by the current turn, per session
+    private static final String UNCOMMITTED_MESSAGES = ChatService.class.getName() + ".uncommittedMessages";
+    
     private final ChatSessionRepository chatSessionRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final HealthProfileRepository healthProfileRepository;
     private final OpenAIService openAIService;
+    private final ChatContextCache chatContextCache;
+    private final MessageWriter messageWriter;
+    private final MessageArchiveService messageArchiveService;
+    
+    @Value("${chat.history.page-size:30}")
+    private int historyPageSize;
+    
+    @Value("${chat.sessions.page-size:20}")
+    private int sessionPageSize;
     
     /**
      * Create a new chat session
@@ -46,12 +73,27 @@ public class ChatService {
      */
     @Transactional
     public ChatResponse processMessage(ChatRequest chatRequest, User user) {
+        return processMessage(chatRequest, user, null);
+    }
+    
+    /**
+     * Process chat message, streaming the answer text to {@code onToken} as
+     * the model produces it (used by the WebSocket transport).
+     * <p>
+     * An existing session is locked for the whole turn, so the archiver
+     * cannot move its messages out between the restore check and the writes.
+     * The session row is only changed through targeted updates; the entity is
+     * never saved back.
+     * </p>
+     */
+    @Transactional
+    public ChatResponse processMessage(ChatRequest chatRequest, User user, Consumer<String> onToken) {
         try {
             // Get or create chat session
             ChatSession session;
             if (chatRequest.getSessionId() != null) {
-                session = chatSessionRepository.findById(chatRequest.getSessionId())
-                    .orElseThrow(() -> new RuntimeException("Chat session not found"));
+                session = lockOwnedSession(chatRequest.getSessionId(), user);
+                messageArchiveService.restoreIfArchived(session);
             } else {
                 // Create new session with first few words as title
                 String title = generateTitle(chatRequest.getMessage());
@@ -63,12 +105,11 @@ public class ChatService {
             userMessage.setChatSession(session);
             userMessage.setRole(Message.MessageRole.USER);
             userMessage.setContent(chatRequest.getMessage());
-            messageRepository.save(userMessage);
+            recordMessage(session, userMessage);
             
             // Check for emergency keywords
             if (openAIService.isEmergency(chatRequest.getMessage())) {
-                session.setIsEmergency(true);
-                chatSessionRepository.save(session);
+                chatSessionRepository.markEmergency(session.getId());
                 
                 ChatResponse emergencyResponse = openAIService.generateEmergencyResponse();
                 
@@ -82,8 +123,8 @@ public class ChatService {
                 return emergencyResponse;
             }
             
-            // Get conversation history
-            List<Message> conversationHistory = messageRepository.findByChatSessionOrderByCreatedAtAsc(session);
+            // Get conversation history (tail only, served from cache for hot sessions)
+            List<Message> conversationHistory = loadRecentHistory(session);
             
             // Get user health context
             String healthContext = buildHealthContext(user);
@@ -92,16 +133,13 @@ public class ChatService {
             ChatResponse aiResponse = openAIService.generateChatResponse(
                 chatRequest.getMessage(),
                 conversationHistory,
-                healthContext
+                healthContext,
+                onToken
             );
             
-            // Save assistant message
+            // Save assistant message (also moves the session's last-message time)
             Message assistantMessage = saveAssistantMessage(session, aiResponse);
             
-            // Update session
-            session.setLastMessageAt(LocalDateTime.now());
-            chatSessionRepository.save(session);
-            
             // Set response metadata
             aiResponse.setMessageId(assistantMessage.getId());
             aiResponse.setSessionId(session.getId());
@@ -111,21 +149,38 @@ public class ChatService {
             
         } catch (Exception e) {
             log.error("Error processing chat message", e);
+            // Transaction rolls back, so drop anything appended to the cache
+            if (chatRequest.getSessionId() != null) {
+                chatContextCache.evictSession(chatRequest.getSessionId());
+            }
             throw new RuntimeException("Failed to process message: " + e.getMessage());
         }
     }
     
     /**
-     * Get all chat sessions for a user
+     * Get a page of active chat session summaries for a user, most recently
+     * used first. Pass the previous page's {@code olderCursor} as {@code before}.
      */
-    public List<ChatSession> getUserChatSessions(User user) {
-        return chatSessionRepository.findByUserAndIsActiveOrderByLastMessageAtDesc(user, true);
+    public CursorPage<ChatSessionSummary> getUserChatSessions(User user, String before, Integer limit) {
+        int size = CursorUtil.pageSize(limit, sessionPageSize, MAX_SESSION_PAGE_SIZE);
+        CursorUtil.Cursor cursor = CursorUtil.decode(before);
+        PageRequest probe = PageRequest.of(0, size + 1);
+        
+        List<ChatSessionSummary> rows = cursor == null
+            ? chatSessionRepository.findActiveSummaries(user, probe)
+            : chatSessionRepository.findActiveSummariesBefore(user, cursor.timestamp(), cursor.id(), probe);
+        
+        boolean hasOlder = rows.size() > size;
+        List<ChatSessionSummary> items = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+        String olderCursor = items.isEmpty() ? null
+            : CursorUtil.encode(items.get(items.size() - 1).getLastMessageAt(), items.get(items.size() - 1).getId());
+        return new CursorPage<>(items, olderCursor, null, hasOlder, false);
     }
     
     /**
-     * Get messages for a chat session
+     * Get one page of messages for a chat session owned by the user
      */
-    public List<Message> getSessionMessages(Long sessionId, User user) {
+    public CursorPage<Message> getSessionMessages(Long sessionId, User user, String before, String after, Integer limit) {
         ChatSession session = chatSessionRepository.findById(sessionId)
             .orElseThrow(() -> new RuntimeException("Chat session not found"));
         
@@ -134,7 +189,74 @@ public class ChatService {
             throw new RuntimeException("Unauthorized access to chat session");
         }
         
-        return messageRepository.findByChatSessionOrderByCreatedAtAsc(session);
+        return getMessagePage(session, before, after, limit);
+    }
+    
+    /**
+     * Keyset page of a session's messages on (created_at, id), in chronological
+     * order. {@code before} loads older messages, {@code after} newer ones, and
+     * with neither the most recent page is returned.
+     */
+    public CursorPage<Message> getMessagePage(ChatSession session, String before, String after, Integer limit) {
+        int size = CursorUtil.pageSize(limit, historyPageSize, MAX_HISTORY_PAGE_SIZE);
+        CursorUtil.Cursor beforeCursor = CursorUtil.decode(before);
+        CursorUtil.Cursor afterCursor = CursorUtil.decode(after);
+        PageRequest probe = PageRequest.of(0, size + 1);
+        
+        if (session.getArchivedAt() != null) {
+            return getArchivedMessagePage(session, beforeCursor, afterCursor, size, before, after);
+        }
+        
+        List<Message> items;
+        boolean hasOlder;
+        boolean hasNewer;
+        if (afterCursor != null) {
+            // Unflushed write-behind messages are always the newest ones
+            List<Message> rows = messageWriter.mergePending(session.getId(),
+                messageRepository.findPageAfter(session, afterCursor.timestamp(), afterCursor.id(), probe));
+            rows = rows.stream().filter(m -> isAfter(m, afterCursor)).toList();
+            hasOlder = true;
+            hasNewer = rows.size() > size;
+            items = rows.subList(0, Math.min(size, rows.size()));
+        } else {
+            List<Message> rows = new ArrayList<>(beforeCursor != null
+                ? messageRepository.findPageBefore(session, beforeCursor.timestamp(), beforeCursor.id(), probe)
+                : messageRepository.findRecentByChatSession(session, probe));
+            Collections.reverse(rows);
+            if (beforeCursor == null) {
+                rows = messageWriter.mergePending(session.getId(), rows);
+            }
+            hasOlder = rows.size() > size;
+            hasNewer = beforeCursor != null;
+            items = rows.subList(Math.max(0, rows.size() - size), rows.size());
+        }
+        
+        return toMessagePage(items, hasOlder, hasNewer, before, after);
+    }
+    
+    /**
+     * Same paging over an archived session, read from its archive segments
+     */
+    private CursorPage<Message> getArchivedMessagePage(ChatSession session, CursorUtil.Cursor beforeCursor,
+                                                       CursorUtil.Cursor afterCursor, int size,
+                                                       String before, String after) {
+        // One extra row tells whether there is another page
+        if (afterCursor != null) {
+            List<Message> rows = messageArchiveService.readPageAfter(session, afterCursor, size + 1);
+            return toMessagePage(rows.subList(0, Math.min(size, rows.size())), true, rows.size() > size, before, after);
+        }
+        List<Message> rows = messageArchiveService.readPageBefore(session, beforeCursor, size + 1);
+        return toMessagePage(rows.subList(Math.max(0, rows.size() - size), rows.size()),
+            rows.size() > size, beforeCursor != null, before, after);
+    }
+    
+    private CursorPage<Message> toMessagePage(List<Message> items, boolean hasOlder, boolean hasNewer,
+                                              String before, String after) {
+        String olderCursor = items.isEmpty() ? before
+            : CursorUtil.encode(items.get(0).getCreatedAt(), items.get(0).getId());
+        String newerCursor = items.isEmpty() ? after
+            : CursorUtil.encode(items.get(items.size() - 1).getCreatedAt(), items.get(items.size() - 1).getId());
+        return new CursorPage<>(new ArrayList<>(items), olderCursor, newerCursor, hasOlder, hasNewer);
     }
     
     /**
@@ -149,8 +271,8 @@ public class ChatService {
             throw new RuntimeException("Unauthorized access to chat session");
         }
         
-        session.setIsActive(false);
-        chatSessionRepository.save(session);
+        chatSessionRepository.deactivate(sessionId);
+        chatContextCache.evictSession(sessionId);
     }
     
     /**
@@ -158,14 +280,10 @@ public class ChatService {
      */
     @Transactional
     public ChatResponse regenerateResponse(Long sessionId, User user) {
-        ChatSession session = chatSessionRepository.findById(sessionId)
-            .orElseThrow(() -> new RuntimeException("Chat session not found"));
+        ChatSession session = lockOwnedSession(sessionId, user);
+        messageArchiveService.restoreIfArchived(session);
         
-        if (!session.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized access to chat session");
-        }
-        
-        List<Message> messages = messageRepository.findByChatSessionOrderByCreatedAtAsc(session);
+        List<Message> messages = loadRecentHistory(session);
         
         if (messages.isEmpty()) {
             throw new RuntimeException("No messages to regenerate");
@@ -186,8 +304,10 @@ public class ChatService {
         
         // Remove last assistant message if exists
         if (!messages.isEmpty() && messages.get(messages.size() - 1).getRole() == Message.MessageRole.ASSISTANT) {
-            messageRepository.delete(messages.get(messages.size() - 1));
+            messageWriter.delete(messages.get(messages.size() - 1));
             messages.remove(messages.size() - 1);
+            chatSessionRepository.decrementMessageCount(session.getId());
+            chatContextCache.evictSession(session.getId());
         }
         
         // Get health context
@@ -211,9 +331,66 @@ public class ChatService {
     }
     
     /**
-     * Build health context from user profile
+     * The user's session, row-locked until the transaction ends (see
+     * {@link MessageArchiveService} for the archiver's side)
+     */
+    private ChatSession lockOwnedSession(Long sessionId, User user) {
+        ChatSession session = chatSessionRepository.findByIdForUpdate(sessionId)
+            .orElseThrow(() -> new RuntimeException("Chat session not found"));
+        if (!session.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Unauthorized access to chat session");
+        }
+        return session;
+    }
+    
+    /**
+     * Load the last few messages of a session in chronological order. Hot
+     * sessions are served from the context cache; a miss reads only the tail.
+     */
+    private List<Message> loadRecentHistory(ChatSession session) {
+        return chatContextCache.getHistory(session.getId())
+            .map(cached -> withUncommitted(session.getId(), cached))
+            .orElseGet(() -> {
+                long version = chatContextCache.historyVersion();
+                int historySize = chatContextCache.getHistorySize();
+                List<Message> recent = new ArrayList<>(messageRepository.findRecentByChatSession(
+                    session, PageRequest.of(0, historySize)));
+                Collections.reverse(recent);
+                recent = messageWriter.mergePending(session.getId(), recent);
+                recent = new ArrayList<>(recent.subList(Math.max(0, recent.size() - historySize), recent.size()));
+                chatContextCache.putHistory(session.getId(), version, recent);
+                return recent;
+            });
+    }
+    
+    /**
+     * Add the messages this transaction recorded, which reach the cache only
+     * once it commits, to a cached history
+     */
+    @SuppressWarnings("unchecked")
+    private List<Message> withUncommitted(Long sessionId, List<Message> cached) {
+        Map<Long, List<Message>> uncommitted =
+            (Map<Long, List<Message>>) TransactionSynchronizationManager.getResource(UNCOMMITTED_MESSAGES);
+        List<Message> own = uncommitted != null ? uncommitted.get(sessionId) : null;
+        if (own == null) {
+            return cached;
+        }
+        List<Message> merged = new ArrayList<>(cached);
+        own.stream()
+            .filter(m -> merged.stream().noneMatch(c -> c.getId().equals(m.getId())))
+            .forEach(merged::add);
+        int historySize = chatContextCache.getHistorySize();
+        return new ArrayList<>(merged.subList(Math.max(0, merged.size() - historySize), merged.size()));
+    }
+    
+    /**
+     * Build health context from user profile (cached per user)
      */
     private String buildHealthContext(User user) {
+        return chatContextCache.getHealthContext(user.getId(), () -> formatHealthContext(user));
+    }
+    
+    private String formatHealthContext(User user) {
         return healthProfileRepository.findByUser(user)
             .map(profile -> String.format(
                 "Age: %s, Allergies: %s, Chronic Conditions: %s, Current Medications: %s",
@@ -225,6 +402,11 @@ public class ChatService {
             .orElse("");
     }
     
+    private boolean isAfter(Message message, CursorUtil.Cursor cursor) {
+        int cmp = message.getCreatedAt().compareTo(cursor.timestamp());
+        return cmp > 0 || (cmp == 0 && message.getId() > cursor.id());
+    }
+    
     /**
      * Save assistant message
      */
@@ -234,7 +416,70 @@ public class ChatService {
         message.setRole(Message.MessageRole.ASSISTANT);
         message.setContent(response.getResponse());
         // In production, serialize structuredResponse to JSON
-        return messageRepository.save(message);
+        return recordMessage(session, message);
+    }
+    
+    /**
+     * Write a message and keep the cache and the session's list columns
+     * (message count, last-message time and preview) in step
+     */
+    private Message recordMessage(ChatSession session, Message message) {
+        Message saved = messageWriter.save(message);
+        cacheAfterCommit(session.getId(), saved);
+        String preview = messagePreview(saved.getContent());
+        LocalDateTime at = saved.getCreatedAt() != null ? saved.getCreatedAt() : LocalDateTime.now();
+        chatSessionRepository.recordMessage(session.getId(), at, preview);
+        return saved;
+    }
+    
+    /**
+     * Session-list preview of a message: at most {@value #PREVIEW_LENGTH}
+     * characters, truncated ones ending in "..." and never cut inside a
+     * surrogate pair (e.g. an emoji)
+     */
+    public static String messagePreview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        int end = PREVIEW_LENGTH - 3;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end) + "...";
+    }
+    
+    /**
+     * Append a message to the cache once the transaction writing it commits;
+     * a rollback evicts the session instead, in case a load inside the
+     * transaction cached the message
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheAfterCommit(Long sessionId, Message message) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chatContextCache.appendMessage(sessionId, message);
+            return;
+        }
+        Map<Long, List<Message>> uncommitted =
+            (Map<Long, List<Message>>) TransactionSynchronizationManager.getResource(UNCOMMITTED_MESSAGES);
+        if (uncommitted == null) {
+            uncommitted = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(UNCOMMITTED_MESSAGES, uncommitted);
+        }
+        uncommitted.computeIfAbsent(sessionId, k -> new ArrayList<>()).add(message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chatContextCache.appendMessage(sessionId, message);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(UNCOMMITTED_MESSAGES);
+                if (status != STATUS_COMMITTED) {
+                    chatContextCache.evictSession(sessionId);
+                }
+            }
+        });
     }
     
     /**
@@ -0,0 +1,575 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.LabValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Reads lab values out of report text in a single pass.
+ * <p>
+ * Every analyte name and alias is compiled once into a case-insensitive trie
+ * (runs of spaces match a single space). The scanner walks the text once;
+ * at each word start it follows the trie to the longest alias that ends on
+ * a word boundary, then parses the number and unit right after it and
+ * resumes scanning past them. Values are converted to the analyte's
+ * standard unit (e.g. glucose in mmol/L becomes mg/dL). Only the first
+ * occurrence of each analyte is kept. When no known analyte is found, a
+ * line-by-line fallback picks up any "label value unit" pairs.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LabValueExtractor {
+
+    private static final int MAX_GENERIC_LABEL = 40;
+    private static final int MAX_UNIT_LENGTH = 24;
+    private static final int MAX_QUALIFIER_LENGTH = 30;
+
+    /**
+     * Reported unit spellings (lower case, no spaces, micro sign normalised)
+     * to their standard form
+     */
+    private static final Map<String, String> UNITS = new HashMap<>();
+
+    static {
+        unit("mg/dL", "mg/dl");
+        unit("g/dL", "g/dl", "gm/dl", "gm%");
+        unit("g/L", "g/l");
+        unit("mg/L", "mg/l");
+        unit("mmol/L", "mmol/l");
+        unit("mmol/mol", "mmol/mol");
+        unit("mEq/L", "meq/l");
+        unit("µmol/L", "µmol/l", "umol/l");
+        unit("nmol/L", "nmol/l");
+        unit("pmol/L", "pmol/l");
+        unit("U/L", "u/l", "iu/l");
+        unit("%", "%");
+        unit("fL", "fl");
+        unit("pg", "pg");
+        unit("L/L", "l/l");
+        unit("ng/mL", "ng/ml", "µg/l", "ug/l", "mcg/l");
+        unit("pg/mL", "pg/ml");
+        unit("ng/dL", "ng/dl");
+        unit("µg/dL", "µg/dl", "ug/dl", "mcg/dl");
+        unit("mIU/L", "miu/l", "mu/l", "µiu/ml", "uiu/ml", "µu/ml", "uu/ml");
+        unit("mL/min/1.73m²", "ml/min/1.73m2", "ml/min/1.73m²", "ml/min/1.73");
+        unit("mm/h", "mm/h", "mm/hr", "mm/1sthr");
+        unit("s", "s", "sec", "secs", "seconds");
+        unit("mmHg", "mmhg");
+        unit("kPa", "kpa");
+        unit("bpm", "bpm", "/min", "beats/min");
+        unit("°F", "°f", "f");
+        unit("°C", "°c", "c");
+        unit("kg", "kg", "kgs");
+        unit("lb", "lb", "lbs");
+        unit("cm", "cm");
+        unit("in", "in", "inches");
+        unit("m", "m");
+        unit("kg/m²", "kg/m2", "kg/m²");
+        // 10^9/L and 10^3/µL are the same number of cells
+        unit("10^3/µL", "10^3/µl", "10^3/ul", "10³/µl", "10³/ul", "k/µl", "k/ul", "thou/µl", "thou/ul",
+                "10^9/l", "10^3/mm3", "10^3/cumm");
+        unit("10^6/µL", "10^6/µl", "10^6/ul", "10⁶/µl", "m/µl", "m/ul", "mill/µl", "mil/µl",
+                "10^12/l", "10^6/mm3", "10^6/cumm");
+        unit("/µL", "/µl", "/ul", "/mm3", "/cumm", "cumm", "cells/µl", "cells/ul", "cells/mm3");
+    }
+
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Analyte> analytes = new LinkedHashMap<>();
+    // Index = analyte id stored in trie nodes
+    private final List<Analyte> analyteIds = new ArrayList<>();
+
+    public LabValueExtractor() {
+        define("Glucose", "mg/dL", "blood glucose", "fasting glucose", "fasting blood glucose",
+                "fasting blood sugar", "fbs", "blood sugar", "random blood sugar", "rbs", "glucose fasting")
+                .from("mmol/L", 18.016);
+        define("HbA1c", "%", "hba1c", "a1c", "hb a1c", "glycated hemoglobin", "glycosylated hemoglobin",
+                "hemoglobin a1c", "haemoglobin a1c")
+                .from("mmol/mol", v -> v / 10.929 + 2.15);
+        define("Hemoglobin", "g/dL", "haemoglobin", "hgb", "hb")
+                .from("g/L", 0.1).from("mmol/L", 1.611);
+        define("Hematocrit", "%", "haematocrit", "hct", "pcv", "packed cell volume")
+                .from("L/L", 100);
+        define("WBC", "10^3/µL", "white blood cells", "white blood cell count", "white cell count",
+                "leukocytes", "total leucocyte count", "total leukocyte count", "tlc")
+                .from("/µL", 0.001);
+        define("RBC", "10^6/µL", "red blood cells", "red blood cell count", "red cell count", "erythrocytes");
+        define("Platelets", "10^3/µL", "platelet count", "platelet", "plt")
+                .from("/µL", 0.001);
+        define("MCV", "fL", "mean corpuscular volume");
+        define("MCH", "pg", "mean corpuscular hemoglobin");
+        define("MCHC", "g/dL", "mean corpuscular hemoglobin concentration")
+                .from("g/L", 0.1).from("%", 1);
+        define("Sodium", "mmol/L", "na", "serum sodium").from("mEq/L", 1);
+        define("Potassium", "mmol/L", "serum potassium").from("mEq/L", 1);
+        define("Chloride", "mmol/L", "cl", "serum chloride").from("mEq/L", 1);
+        define("Bicarbonate", "mmol/L", "total co2", "co2").from("mEq/L", 1);
+        define("BUN", "mg/dL", "blood urea nitrogen", "urea nitrogen").from("mmol/L", 2.801);
+        define("Creatinine", "mg/dL", "serum creatinine", "creat").from("µmol/L", 1 / 88.42);
+        define("eGFR", "mL/min/1.73m²", "gfr", "estimated gfr");
+        define("AST", "U/L", "sgot", "aspartate aminotransferase");
+        define("ALT", "U/L", "sgpt", "alanine aminotransferase");
+        define("ALP", "U/L", "alkaline phosphatase");
+        define("Total Bilirubin", "mg/dL", "bilirubin total", "bilirubin, total", "bilirubin", "t. bilirubin")
+                .from("µmol/L", 1 / 17.1);
+        define("Albumin", "g/dL", "serum albumin").from("g/L", 0.1);
+        define("Total Cholesterol", "mg/dL", "cholesterol", "cholesterol total", "cholesterol, total",
+                "serum cholesterol")
+                .from("mmol/L", 38.67);
+        define("LDL", "mg/dL", "ldl cholesterol", "ldl-c", "ldl-cholesterol").from("mmol/L", 38.67);
+        define("HDL", "mg/dL", "hdl cholesterol", "hdl-c", "hdl-cholesterol").from("mmol/L", 38.67);
+        define("Triglycerides", "mg/dL", "triglyceride", "tg").from("mmol/L", 88.57);
+        define("TSH", "mIU/L", "thyroid stimulating hormone");
+        define("T3", "ng/dL", "total t3").from("nmol/L", 65.1);
+        define("T4", "µg/dL", "total t4").from("nmol/L", 1 / 12.87);
+        define("Calcium", "mg/dL", "serum calcium").from("mmol/L", 4.008).from("mEq/L", 2.004);
+        define("Magnesium", "mg/dL", "serum magnesium").from("mmol/L", 2.431).from("mEq/L", 1.215);
+        define("Phosphorus", "mg/dL", "phosphate", "serum phosphorus").from("mmol/L", 3.097);
+        define("Iron", "µg/dL", "serum iron").from("µmol/L", 5.585);
+        define("Ferritin", "ng/mL", "serum ferritin");
+        define("Vitamin D", "ng/mL", "vit d", "vitamin d3", "vitamin d total", "25-oh vitamin d",
+                "25(oh)d", "25-hydroxy vitamin d", "vitamin d, 25-hydroxy")
+                .from("nmol/L", 1 / 2.496);
+        define("Vitamin B12", "pg/mL", "vit b12", "b12", "cobalamin").from("pmol/L", 1.355);
+        define("Folate", "ng/mL", "folic acid", "serum folate").from("nmol/L", 1 / 2.266);
+        define("PSA", "ng/mL", "prostate specific antigen");
+        define("CRP", "mg/L", "c-reactive protein", "c reactive protein", "hs-crp").from("mg/dL", 10);
+        define("ESR", "mm/h", "erythrocyte sedimentation rate");
+        define("PT", "s", "prothrombin time");
+        define("INR", null);
+        define("aPTT", "s", "ptt", "activated partial thromboplastin time");
+        define("pH", null);
+        define("pCO2", "mmHg").from("kPa", 7.50062);
+        define("pO2", "mmHg").from("kPa", 7.50062);
+        define("HCO3", "mmol/L", "hco3-").from("mEq/L", 1);
+        define("O2 Saturation", "%", "oxygen saturation", "sao2");
+        define("Blood Pressure", "mmHg", "bp").paired();
+        define("Heart Rate", "bpm");
+        define("Temperature", "°F", "temp", "body temperature").from("°C", v -> v * 9 / 5 + 32);
+        define("Pulse", "bpm", "pulse rate");
+        define("SpO2", "%");
+        define("Weight", "kg", "body weight").from("lb", 0.45359);
+        define("Height", "cm").from("in", 2.54).from("m", 100);
+        define("BMI", "kg/m²", "body mass index");
+    }
+
+    /**
+     * Lab values found in {@code text}, keyed by analyte name in order of
+     * appearance
+     */
+    public Map<String, LabValue> extract(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, LabValue> found = new LinkedHashMap<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isWordStart(text, i)) {
+                i++;
+                continue;
+            }
+            long match = matchLabel(text, i);
+            if (match >= 0) {
+                Analyte analyte = analyteAt(match);
+                ParsedValue value = parseValue(text, (int) match, analyte.paired);
+                if (value != null) {
+                    if (!found.containsKey(analyte.name)) {
+                        found.put(analyte.name, analyte.toLabValue(value));
+                    }
+                    i = value.end;
+                    continue;
+                }
+            }
+            // Skip the rest of this word; no alias starts inside it
+            do {
+                i++;
+            } while (i < length && Character.isLetterOrDigit(text.charAt(i)));
+        }
+        if (found.isEmpty()) {
+            extractGeneric(text, found);
+        }
+        log.info("Extracted {} lab value(s) from OCR text", found.size());
+        return found;
+    }
+
+    /**
+     * A value read from a structured source (CSV, HL7, FHIR) under the same
+     * analyte names and standard units as text extraction. {@code label} must
+     * be an analyte name or alias as a whole; other labels are kept as given,
+     * with the value in its reported unit.
+     */
+    public LabValue normalise(String label, double value, Double secondary, String unit, String raw) {
+        String name = label.trim();
+        String reportedUnit = null;
+        if (unit != null && !unit.isBlank()) {
+            // UCUM spellings: 10*3/uL, [IU]/L
+            String token = unit.trim().replace(" ", "").replace("10*", "10^").replace("[", "").replace("]", "");
+            reportedUnit = normaliseUnit(token);
+            if (reportedUnit == null) {
+                reportedUnit = unit.trim();
+            }
+        }
+        ParsedValue parsed = new ParsedValue(value, secondary, reportedUnit, raw, name.length());
+        long match = name.isEmpty() ? -1 : matchLabel(name, 0);
+        if (match >= 0 && (int) match == name.length()) {
+            return analyteAt(match).toLabValue(parsed);
+        }
+        return new LabValue(name, value, secondary, reportedUnit, raw);
+    }
+
+    public Collection<String> getAnalyteNames() {
+        return Collections.unmodifiableCollection(analytes.keySet());
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Label matching
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Longest alias starting at {@code start} and ending on a word boundary,
+     * packed as (analyte id << 32 | end index), or -1
+     */
+    private long matchLabel(String text, int start) {
+        TrieNode node = root;
+        long best = -1;
+        int length = text.length();
+        for (int j = start; j < length; j++) {
+            char c = text.charAt(j);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            boolean blank = c == ' ' || c == '\t';
+            if (blank && j > start && isBlank(text.charAt(j - 1))) {
+                continue;
+            }
+            node = node.child(blank ? ' ' : Character.toLowerCase(c));
+            if (node == null) {
+                break;
+            }
+            if (node.analyteId >= 0 && (j + 1 == length || !Character.isLetterOrDigit(text.charAt(j + 1)))) {
+                best = ((long) node.analyteId << 32) | (j + 1);
+            }
+        }
+        return best;
+    }
+
+    private Analyte analyteAt(long match) {
+        return analyteIds.get((int) (match >>> 32));
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Value parsing
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Number (and unit) following a label on the same line: separators
+     * (":", "=", "-") and one short parenthetical such as "(fasting)" may sit
+     * in between
+     */
+    private ParsedValue parseValue(String text, int pos, boolean paired) {
+        int length = text.length();
+        int j = pos;
+        boolean parenthesisSkipped = false;
+        while (j < length) {
+            char c = text.charAt(j);
+            if (isBlank(c) || c == ':' || c == '=' || c == '-' || c == '–') {
+                j++;
+            } else if (c == '(' && !parenthesisSkipped) {
+                int close = text.indexOf(')', j);
+                int newline = text.indexOf('\n', j);
+                if (close < 0 || close - j > MAX_QUALIFIER_LENGTH || (newline >= 0 && newline < close)) {
+                    return null;
+                }
+                j = close + 1;
+                parenthesisSkipped = true;
+            } else {
+                break;
+            }
+        }
+        return parseNumberAndUnit(text, j, paired);
+    }
+
+    private ParsedValue parseNumberAndUnit(String text, int start, boolean paired) {
+        int length = text.length();
+        int j = start;
+        if (j < length && "<>≤≥".indexOf(text.charAt(j)) >= 0) {
+            j++;
+            while (j < length && isBlank(text.charAt(j))) {
+                j++;
+            }
+        }
+        int numberEnd = scanNumber(text, j);
+        if (numberEnd < 0) {
+            return null;
+        }
+        double value = toNumber(text, j, numberEnd);
+        int end = numberEnd;
+
+        Double secondary = null;
+        if (paired && end + 1 < length && text.charAt(end) == '/') {
+            int secondEnd = scanNumber(text, end + 1);
+            if (secondEnd > 0) {
+                secondary = toNumber(text, end + 1, secondEnd);
+                end = secondEnd;
+            }
+        }
+
+        String unit = null;
+        int u = end;
+        while (u < length && isBlank(text.charAt(u))) {
+            u++;
+        }
+        int unitEnd = scanUnit(text, u);
+        if (unitEnd > u) {
+            String token = text.substring(u, unitEnd);
+            unit = normaliseUnit(token);
+            if (unit == null && (token.indexOf('/') >= 0 || token.indexOf('%') >= 0)) {
+                unit = token;
+            }
+            if (unit != null) {
+                end = unitEnd;
+            }
+        }
+        return new ParsedValue(value, secondary, unit, text.substring(start, end).trim(), end);
+    }
+
+    /**
+     * End of a number at {@code start} ("180", "13.5", "250,000", OCR's
+     * decimal comma "13,5"), or -1
+     */
+    private int scanNumber(String text, int start) {
+        int length = text.length();
+        int j = start;
+        while (j < length && Character.isDigit(text.charAt(j))) {
+            j++;
+        }
+        if (j == start) {
+            return -1;
+        }
+        while (j + 1 < length && (text.charAt(j) == '.' || text.charAt(j) == ',')
+                && Character.isDigit(text.charAt(j + 1))) {
+            j++;
+            while (j < length && Character.isDigit(text.charAt(j))) {
+                j++;
+            }
+        }
+        return j;
+    }
+
+    private double toNumber(String text, int start, int end) {
+        String number = text.substring(start, end);
+        int comma = number.lastIndexOf(',');
+        if (comma >= 0) {
+            // Thousands groups have exactly three digits after each comma
+            boolean thousands = number.indexOf('.') < 0 ? number.length() - comma == 4 : comma < number.indexOf('.');
+            number = thousands ? number.replace(",", "") : number.replace(',', '.');
+        }
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private int scanUnit(String text, int start) {
+        int length = text.length();
+        if (start >= length) {
+            return start;
+        }
+        char first = text.charAt(start);
+        boolean scaled = (first == 'x' || first == '×' || first == '*' || first == '1')
+                && text.startsWith("10", first == '1' ? start : start + 1);
+        if (!(Character.isLetter(first) || first == '%' || first == '/' || first == '°' || scaled)) {
+            return start;
+        }
+        int j = start;
+        while (j < length && j - start < MAX_UNIT_LENGTH) {
+            char c = text.charAt(j);
+            if (Character.isLetterOrDigit(c) || "/%^.°²³⁶×*".indexOf(c) >= 0) {
+                j++;
+            } else {
+                break;
+            }
+        }
+        while (j > start && (text.charAt(j - 1) == '.' || text.charAt(j - 1) == ',')) {
+            j--;
+        }
+        return j;
+    }
+
+    private static String normaliseUnit(String token) {
+        String key = token.toLowerCase().replace('μ', 'µ');
+        if (key.startsWith("x10") || key.startsWith("×10") || key.startsWith("*10")) {
+            key = key.substring(1);
+        }
+        return UNITS.get(key);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Generic fallback
+    // ─────────────────────────────────────────────────────────
+    /**
+     * "Label: 12.3 unit" pairs on any line, for reports whose analytes are
+     * not in the dictionary; values are kept in their reported unit
+     */
+    private void extractGeneric(String text, Map<String, LabValue> found) {
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            int segmentStart = lineStart;
+            int k = lineStart;
+            while (k < lineEnd) {
+                if (Character.isDigit(text.charAt(k)) && (k == lineStart || !Character.isLetterOrDigit(text.charAt(k - 1)))) {
+                    String label = genericLabel(text, segmentStart, k);
+                    ParsedValue value = label == null ? null : parseNumberAndUnit(text, k, false);
+                    if (value != null && value.unit != null && value.end <= lineEnd) {
+                        found.put(label, new LabValue(label, value.value, value.secondary, value.unit, value.raw));
+                        segmentStart = value.end;
+                        k = value.end;
+                        continue;
+                    }
+                }
+                k++;
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private String genericLabel(String text, int start, int end) {
+        int s = start;
+        int e = end;
+        while (s < e && !Character.isLetter(text.charAt(s))) {
+            s++;
+        }
+        while (e > s && (isBlank(text.charAt(e - 1)) || text.charAt(e - 1) == ':' || text.charAt(e - 1) == '-')) {
+            e--;
+        }
+        if (e - s == 0 || e - s > MAX_GENERIC_LABEL) {
+            return null;
+        }
+        for (int i = s; i < e; i++) {
+            char c = text.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || isBlank(c) || "/()%".indexOf(c) >= 0)) {
+                return null;
+            }
+        }
+        return text.substring(s, e);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Dictionary
+    // ─────────────────────────────────────────────────────────
+    private static void unit(String standard, String... spellings) {
+        for (String spelling : spellings) {
+            UNITS.put(spelling, standard);
+        }
+    }
+
+    private Analyte define(String name, String unit, String... aliases) {
+        Analyte analyte = new Analyte(name, unit);
+        int id = analyteIds.size();
+        analyteIds.add(analyte);
+        analytes.put(name, analyte);
+        addAlias(name, id);
+        for (String alias : aliases) {
+            addAlias(alias, id);
+        }
+        return analyte;
+    }
+
+    private void addAlias(String alias, int analyteId) {
+        TrieNode node = root;
+        String normalised = alias.toLowerCase().trim().replaceAll("\\s+", " ");
+        for (int i = 0; i < normalised.length(); i++) {
+            node = node.childOrCreate(normalised.charAt(i));
+        }
+        node.analyteId = analyteId;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        // Digits too: some aliases start with one ("25-OH vitamin D")
+        return Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static final class TrieNode {
+
+        // Aliases are ASCII; anything else ends the walk
+        private final TrieNode[] children = new TrieNode[128];
+        private int analyteId = -1;
+
+        TrieNode child(char c) {
+            return c < 128 ? children[c] : null;
+        }
+
+        TrieNode childOrCreate(char c) {
+            if (c >= 128) {
+                throw new IllegalArgumentException("Non-ASCII character in lab alias: " + c);
+            }
+            if (children[c] == null) {
+                children[c] = new TrieNode();
+            }
+            return children[c];
+        }
+    }
+
+    private static final class Analyte {
+
+        private final String name;
+        private final String unit;
+        private final Map<String, DoubleUnaryOperator> conversions = new HashMap<>();
+        private boolean paired;
+
+        Analyte(String name, String unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        Analyte from(String reportedUnit, double factor) {
+            return from(reportedUnit, v -> v * factor);
+        }
+
+        Analyte from(String reportedUnit, DoubleUnaryOperator conversion) {
+            conversions.put(reportedUnit, conversion);
+            return this;
+        }
+
+        Analyte paired() {
+            paired = true;
+            return this;
+        }
+
+        LabValue toLabValue(ParsedValue parsed) {
+            DoubleUnaryOperator conversion = parsed.unit == null ? null : conversions.get(parsed.unit);
+            if (conversion == null) {
+                // Standard unit, no unit given, or a unit we cannot convert: keep as reported
+                return new LabValue(name, parsed.value, parsed.secondary,
+                        parsed.unit != null ? parsed.unit : unit, parsed.raw);
+            }
+            Double secondary = parsed.secondary == null ? null : round(conversion.applyAsDouble(parsed.secondary));
+            return new LabValue(name, round(conversion.applyAsDouble(parsed.value)), secondary, unit, parsed.raw);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    private record ParsedValue(double value, Double secondary, String unit, String raw, int end) {
+    }
+}
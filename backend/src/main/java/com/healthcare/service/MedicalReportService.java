@@ -1,23 +1,43 @@
 package com.healthcare.service;
 
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.ReportSummary;
+import com.healthcare.dto.ReportUploadResponse;
 import com.healthcare.model.MedicalReport;
+import com.healthcare.model.ReportJob;
+import com.healthcare.model.ReportJob.JobStage;
 import com.healthcare.model.User;
 import com.healthcare.repository.MedicalReportRepository;
+import com.healthcare.repository.ReportJobRepository;
+import com.healthcare.service.StructuredLabImportService.StructuredImport;
+import com.healthcare.util.CursorUtil;
+import com.healthcare.util.StructuredLabParser.Format;
+import com.healthcare.util.UploadIngestUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -30,16 +50,43 @@ public class MedicalReportService {
 
     private final MedicalReportRepository medicalReportRepository;
     private final OCRService ocrService;
-    private final OpenAIService openAIService;
+    private final ReportJobService reportJobService;
+    private final ReportJobRepository reportJobRepository;
+    private final StructuredLabImportService structuredLabImportService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    // Uploads are written here first, then moved under OBJECT_DIRECTORY by hash
+    private static final String STAGING_DIRECTORY = ".incoming";
+    private static final String OBJECT_DIRECTORY = "objects";
+    private static final int MAX_REPORT_PAGE_SIZE = 100;
+    private static final int FILE_LOCK_TIMEOUT_SECONDS = 30;
+    private static final Map<String, String> DOWNLOAD_TYPES = Map.of(
+            ".pdf", "application/pdf", ".png", "image/png", ".jpg", "image/jpeg", ".jpeg", "image/jpeg",
+            ".gif", "image/gif", ".bmp", "image/bmp", ".tif", "image/tiff", ".tiff", "image/tiff",
+            ".csv", "text/csv", ".json", "application/json");
 
     @Value("${upload.directory}")
     private String uploadDirectory;
 
+    @Value("${report.list.page-size:20}")
+    private int reportPageSize;
+
+    @Value("${report.structured.max-file-size:5242880}")
+    private long maxStructuredSize;
+
     /**
-     * Upload and process medical report
+     * Store an upload and queue it for processing.
+     * <p>
+     * The file is stored once per distinct content under
+     * {@code objects/ab/cd/<sha256>.<ext>}; reports of identical uploads
+     * share it, and it is removed with the last of them (see
+     * {@link #deleteReport}). Text, lab values and the explanation are filled in afterwards
+     * by {@link ReportJobService}; follow the returned job for progress.
+     * </p>
      */
-    @Transactional
-    public MedicalReport uploadReport(MultipartFile file, User user) {
+    public ReportUploadResponse uploadReport(MultipartFile file, User user) {
+        Path stagedPath = null;
         try {
             // Validate file
             try {
@@ -48,56 +95,176 @@ public class MedicalReportService {
                 throw new RuntimeException(e.getMessage());
             }
 
-            // Create upload directory if not exists
+            // Create upload directories if not exist
             Path uploadPath = Paths.get(uploadDirectory);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            Path stagingPath = uploadPath.resolve(STAGING_DIRECTORY);
+            Files.createDirectories(stagingPath);
 
-            // Generate unique filename
             String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
-            String filePath = uploadDirectory + uniqueFilename;
-
-            // Save file
-            Files.copy(file.getInputStream(), Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
-
-            // Extract text using OCR
-            log.info("Starting OCR extraction for file: {}", uniqueFilename);
-            String extractedText = ocrService.processFile(file, filePath);
-
-            // Generate AI explanation
-            log.info("Generating AI explanation for extracted text");
-            String aiExplanation = "";
-            if (extractedText != null && !extractedText.startsWith("Error")) {
-                aiExplanation = openAIService.generateReportExplanation(extractedText);
-            }
+            stagedPath = stagingPath.resolve(UUID.randomUUID().toString() + extension(originalFilename));
 
-            // Create medical report record
-            MedicalReport report = new MedicalReport();
-            report.setUser(user);
-            report.setFileName(originalFilename);
-            report.setFilePath(filePath);
-            report.setFileType(file.getContentType());
-            report.setExtractedText(extractedText);
-            report.setAiExplanation(aiExplanation);
-            report.setReportDate(LocalDateTime.now());
+            // Single pass: stage the file and hash it on the way
+            String contentHash = UploadIngestUtil.store(file.getInputStream(), stagedPath);
 
-            return medicalReportRepository.save(report);
+            ReportUploadResponse response = submitStoredUpload(stagedPath, contentHash, file.getSize(),
+                    originalFilename, file.getContentType(), user);
+            stagedPath = null;
+            return response;
 
         } catch (IOException e) {
             log.error("Error saving uploaded file", e);
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
+        } finally {
+            // Left over only when the upload failed before the file was stored
+            if (stagedPath != null) {
+                try {
+                    Files.deleteIfExists(stagedPath);
+                } catch (IOException e) {
+                    log.warn("Could not remove staged upload {}", stagedPath);
+                }
+            }
         }
     }
 
     /**
-     * Get all reports for a user
+     * Import a digital lab export (CSV, HL7 v2 ORU, FHIR JSON) as a report.
+     * <p>
+     * The file is read while the request is open, so a malformed export is
+     * rejected right away; its text and lab values are on the report when
+     * this returns, and only the explanation is left to the job.
+     * </p>
+     *
+     * @param format "csv", "hl7" or "fhir"; detected from the file when blank
      */
-    public List<MedicalReport> getUserReports(User user) {
-        return medicalReportRepository.findByUserOrderByUploadedAtDesc(user);
+    public ReportUploadResponse importStructured(MultipartFile file, String format, User user) {
+        Path stagedPath = null;
+        try {
+            if (file == null || file.isEmpty()) {
+                throw new RuntimeException("File must not be empty.");
+            }
+            if (file.getSize() > maxStructuredSize) {
+                throw new RuntimeException("File size (" + (file.getSize() / 1024)
+                        + " KB) exceeds maximum allowed " + (maxStructuredSize / 1024) + " KB.");
+            }
+            String originalFilename = file.getOriginalFilename();
+            Format resolved = structuredLabImportService.resolveFormat(format, originalFilename, file.getContentType());
+
+            Path stagingPath = Paths.get(uploadDirectory).resolve(STAGING_DIRECTORY);
+            Files.createDirectories(stagingPath);
+            stagedPath = stagingPath.resolve(UUID.randomUUID().toString() + extension(originalFilename));
+            String contentHash = UploadIngestUtil.store(file.getInputStream(), stagedPath);
+
+            StructuredImport imported;
+            try (InputStream in = Files.newInputStream(stagedPath)) {
+                imported = structuredLabImportService.read(in, resolved);
+            }
+            ReportUploadResponse response = submitStoredUpload(stagedPath, contentHash, file.getSize(),
+                    originalFilename, file.getContentType(), user, imported);
+            stagedPath = null;
+            return response;
+
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        } catch (IOException e) {
+            log.error("Error importing lab export", e);
+            throw new RuntimeException("Failed to import file: " + e.getMessage());
+        } finally {
+            if (stagedPath != null) {
+                try {
+                    Files.deleteIfExists(stagedPath);
+                } catch (IOException e) {
+                    log.warn("Could not remove staged upload {}", stagedPath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move a fully received upload from staging to its content address and
+     * queue the new report for processing. Also used to finish resumable
+     * uploads. Runs in its own transaction holding the stored file's lock,
+     * so the file cannot be removed before the report that uses it commits.
+     */
+    ReportUploadResponse submitStoredUpload(Path stagedPath, String contentHash, long size,
+                                            String originalFilename, String contentType, User user) throws IOException {
+        return submitStoredUpload(stagedPath, contentHash, size, originalFilename, contentType, user, null);
+    }
+
+    /**
+     * @param imported text of a lab export read on upload, or null for
+     *                 documents that still need OCR
+     */
+    private ReportUploadResponse submitStoredUpload(Path stagedPath, String contentHash, long size,
+                                                    String originalFilename, String contentType, User user,
+                                                    StructuredImport imported) throws IOException {
+        // Keep one copy per content
+        Path objectPath = UploadIngestUtil.contentAddress(
+                Paths.get(uploadDirectory).resolve(OBJECT_DIRECTORY), contentHash, extension(originalFilename));
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                lockStoredFile(objectPath.toString());
+                try {
+                    UploadIngestUtil.moveToContentAddress(stagedPath, objectPath);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return createReport(objectPath, contentHash, size, originalFilename, contentType, user, imported);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ReportUploadResponse createReport(Path objectPath, String contentHash, long size, String originalFilename,
+                                              String contentType, User user, StructuredImport imported) {
+        // Create medical report record; processing fills in the rest
+        MedicalReport report = new MedicalReport();
+        report.setUser(user);
+        report.setFileName(originalFilename);
+        report.setFilePath(objectPath.toString());
+        report.setFileType(contentType);
+        report.setContentHash(contentHash);
+        report.setFileSize(size);
+        report.setReportDate(LocalDateTime.now());
+        if (imported != null) {
+            report.setExtractedText(imported.extraction().getText());
+            report.setExtractionMethods(imported.extraction().pageMethodsAsString());
+            if (imported.reportDate() != null) {
+                report.setReportDate(imported.reportDate());
+            }
+        }
+
+        ReportJob job = reportJobService.submit(report, imported != null ? JobStage.LABS : JobStage.OCR);
+        log.info("Stored {} ({} bytes, sha256 {}) as report {} — job {} queued",
+                originalFilename, size, contentHash, report.getId(), job.getId());
+        return new ReportUploadResponse(report, job);
+    }
+
+    /**
+     * Processing state of an upload
+     */
+    public ReportJob getJob(Long jobId, User user) {
+        return reportJobService.getJob(jobId, user.getId());
+    }
+
+    /**
+     * Get a page of report summaries for a user, newest upload first. Pass
+     * the previous page's {@code olderCursor} as {@code before}.
+     */
+    public CursorPage<ReportSummary> getUserReports(User user, String before, Integer limit) {
+        int size = CursorUtil.pageSize(limit, reportPageSize, MAX_REPORT_PAGE_SIZE);
+        CursorUtil.Cursor cursor = CursorUtil.decode(before);
+        PageRequest probe = PageRequest.of(0, size + 1);
+
+        List<ReportSummary> rows = cursor == null
+                ? medicalReportRepository.findSummaries(user, probe)
+                : medicalReportRepository.findSummariesBefore(user, cursor.timestamp(), cursor.id(), probe);
+
+        boolean hasOlder = rows.size() > size;
+        List<ReportSummary> items = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+        String olderCursor = items.isEmpty() ? null
+                : CursorUtil.encode(items.get(items.size() - 1).getUploadedAt(), items.get(items.size() - 1).getId());
+        return new CursorPage<>(items, olderCursor, null, hasOlder, false);
     }
 
     /**
@@ -117,7 +284,41 @@ public class MedicalReportService {
     }
 
     /**
-     * Delete report
+     * The stored upload of a report the user may see, for download
+     *
+     * @throws NoSuchFileException when the file is no longer on disk
+     */
+    public StoredFile getReportFile(Long reportId, User user) throws IOException {
+        MedicalReport report = getReportById(reportId, user);
+        Path root = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+        Path file = Paths.get(report.getFilePath()).toAbsolutePath().normalize();
+        if (!file.startsWith(root)) {
+            throw new RuntimeException("Report file is not available");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(report.getFileName());
+        }
+        // Type from the stored extension, not the client's claim
+        String ext = extension(report.getFilePath());
+        String contentType = DOWNLOAD_TYPES.getOrDefault(ext, "application/octet-stream");
+        String name = report.getFileName() != null ? report.getFileName() : "report" + ext;
+        return new StoredFile(file, contentType, name, report.getContentHash(),
+                contentType.startsWith("image/") || contentType.equals("application/pdf"));
+    }
+
+    /**
+     * A report's file on disk
+     *
+     * @param etag   content hash (null for reports stored before hashing)
+     * @param inline images and PDFs are shown in the browser, other types
+     *               are downloaded
+     */
+    public record StoredFile(Path path, String contentType, String fileName, String etag, boolean inline) {
+    }
+
+    /**
+     * Delete report. Its file is removed after the delete commits, and only
+     * when no other report shares it.
      */
     @Transactional
     public void deleteReport(Long reportId, User user) {
@@ -128,17 +329,64 @@ public class MedicalReportService {
             throw new RuntimeException("Unauthorized to delete this report");
         }
 
-        // Delete physical file
+        // Held until this transaction completes; an upload of the same content waits for it
+        String filePath = report.getFilePath();
+        lockStoredFile(filePath);
+
+        // Delete database record; a job still running stops when it finds the report gone
+        reportJobRepository.deleteByReportId(reportId);
+        medicalReportRepository.delete(report);
+        medicalReportRepository.flush();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFileIfUnreferenced(filePath);
+            }
+        });
+    }
+
+    /**
+     * Remove a stored file no committed report refers to. Runs after the
+     * deleting transaction commits, still under its file lock, so the count
+     * sees every upload that committed before it and none can start meanwhile.
+     */
+    private void deleteFileIfUnreferenced(String filePath) {
         try {
-            File file = new File(report.getFilePath());
-            if (file.exists()) {
-                file.delete();
+            if (medicalReportRepository.countByFilePath(filePath) > 0) {
+                log.debug("Keeping {} — still referenced by other reports", filePath);
+                return;
             }
+            Files.deleteIfExists(Paths.get(filePath));
         } catch (Exception e) {
-            log.error("Error deleting physical file", e);
+            log.error("Error deleting physical file {}", filePath, e);
         }
+    }
 
-        // Delete database record
-        medicalReportRepository.delete(report);
+    /**
+     * Take a database lock named after a stored file, held by the current
+     * transaction's connection until the transaction completes. Serialises
+     * uploads into the file with its removal, across nodes.
+     */
+    private void lockStoredFile(String filePath) {
+        String name = "report-file:" + UploadIngestUtil.sha256Hex(filePath.getBytes(StandardCharsets.UTF_8))
+                .substring(0, 48);
+        Integer locked = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class,
+                name, FILE_LOCK_TIMEOUT_SECONDS);
+        if (locked == null || locked != 1) {
+            throw new RuntimeException("Report file is busy, please retry");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Same connection: it stays bound to the thread until after this callback
+                jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, name);
+            }
+        });
+    }
+
+    private String extension(String filename) {
+        return filename != null && filename.contains(".")
+                ? filename.substring(filename.lastIndexOf(".")).toLowerCase() : ".jpg";
     }
 }
@@ -0,0 +1,409 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.model.ChatSession;
+import com.healthcare.model.Message;
+import com.healthcare.model.MessageArchive;
+import com.healthcare.repository.ChatSessionRepository;
+import com.healthcare.repository.MessageArchiveRepository;
+import com.healthcare.repository.MessageRepository;
+import com.healthcare.util.CompressedTextConverter;
+import com.healthcare.util.CursorUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retention for chat messages.
+ * <p>
+ * Sessions idle for longer than {@code chat.retention.archive-after-days}
+ * have their messages moved out of the hot {@code messages} table into
+ * per-month compressed {@link MessageArchive} segments. Archived sessions stay
+ * readable through {@link #readMessages} and are restored to the hot table when
+ * the user writes to them again. Soft-deleted sessions are purged for good
+ * after {@code chat.retention.purge-after-days}. Both jobs work in small
+ * batches, one transaction each, with a pause in between.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MessageArchiveService {
+
+    private static final String RESTORE_SQL = "INSERT IGNORE INTO messages "
+            + "(id, chat_session_id, role, content, structured_response, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int DELETE_CHUNK = 500;
+    private static final Comparator<Message> MESSAGE_ORDER =
+            Comparator.comparing(Message::getCreatedAt).thenComparing(Message::getId);
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final MessageRepository messageRepository;
+    private final MessageArchiveRepository messageArchiveRepository;
+    private final MessageWriter messageWriter;
+    private final ChatContextCache chatContextCache;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CompressedTextConverter compressedTextConverter;
+
+    @Value("${chat.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.retention.archive-after-days:90}")
+    private int archiveAfterDays;
+
+    @Value("${chat.retention.purge-after-days:30}")
+    private int purgeAfterDays;
+
+    @Value("${chat.retention.batch-size:50}")
+    private int batchSize;
+
+    @Value("${chat.retention.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${chat.retention.pause-ms:200}")
+    private long pauseMs;
+
+    private final AtomicBoolean manualRunInProgress = new AtomicBoolean();
+
+    // ─────────────────────────────────────────────────────────
+    // Scheduled jobs
+    // ─────────────────────────────────────────────────────────
+    @Scheduled(cron = "${chat.retention.archive-cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveInactiveSessions();
+        }
+    }
+
+    @Scheduled(cron = "${chat.retention.purge-cron:0 0 4 * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purgeDeletedSessions();
+        }
+    }
+
+    /**
+     * Archive and purge now, on the application task executor. Skipped while
+     * an earlier run started this way is still going.
+     */
+    @Async
+    public void runNow() {
+        if (!manualRunInProgress.compareAndSet(false, true)) {
+            log.info("Retention run already in progress, request ignored");
+            return;
+        }
+        try {
+            int archived = archiveInactiveSessions();
+            int purged = purgeDeletedSessions();
+            log.info("Manual retention run completed — {} archived, {} purged", archived, purged);
+        } catch (Exception e) {
+            log.error("Manual retention run failed", e);
+        } finally {
+            manualRunInProgress.set(false);
+        }
+    }
+
+    public boolean isManualRunInProgress() {
+        return manualRunInProgress.get();
+    }
+
+    /**
+     * Archive sessions idle past the threshold; returns the number archived
+     */
+    public int archiveInactiveSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(archiveAfterDays);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        int archived = 0;
+        long afterId = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = chatSessionRepository.findArchivableIds(cutoff, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            // Messages written since the last flush must be in the table before they are moved
+            messageWriter.flush();
+            for (Long id : ids) {
+                try {
+                    if (Boolean.TRUE.equals(tx.execute(status -> archiveSession(id, cutoff)))) {
+                        archived++;
+                    }
+                } catch (Exception e) {
+                    log.error("Could not archive chat session {}", id, e);
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+            pause();
+        }
+        if (archived > 0) {
+            log.info("Archived {} inactive chat session(s) idle since before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Hard-delete soft-deleted sessions with their messages and archives;
+     * returns the number of sessions removed
+     */
+    public int purgeDeletedSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(purgeAfterDays);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        messageWriter.flush();
+
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = chatSessionRepository.findPurgeableIds(cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            tx.executeWithoutResult(status -> {
+                messageRepository.deleteByChatSessionIds(ids);
+                messageArchiveRepository.deleteByChatSessionIds(ids);
+                chatSessionRepository.deleteByIds(ids);
+            });
+            ids.forEach(chatContextCache::evictSession);
+            purged += ids.size();
+            pause();
+        }
+        if (purged > 0) {
+            log.info("Purged {} deleted chat session(s)", purged);
+        }
+        return purged;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Archive access
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * All archived messages of a session in chronological order
+     */
+    public List<Message> readMessages(ChatSession session) {
+        List<Message> messages = new ArrayList<>();
+        for (MessageArchive segment : messageArchiveRepository.findByChatSessionIdOrderByArchiveMonthAsc(session.getId())) {
+            messages.addAll(toMessages(session, segment.getPayload()));
+        }
+        messages.sort(MESSAGE_ORDER);
+        return messages;
+    }
+
+    /**
+     * Up to {@code limit} archived messages just before {@code before} (the
+     * newest ones when null), in chronological order. Only segments whose
+     * time span reaches back past the cursor are decoded, newest first.
+     */
+    public List<Message> readPageBefore(ChatSession session, CursorUtil.Cursor before, int limit) {
+        List<Object[]> spans = messageArchiveRepository.findSpansByChatSessionId(session.getId());
+        List<Message> rows = new ArrayList<>();
+        for (int i = spans.size() - 1; i >= 0 && rows.size() < limit; i--) {
+            LocalDateTime first = (LocalDateTime) spans.get(i)[1];
+            if (before != null && first != null && first.isAfter(before.timestamp())) {
+                continue;
+            }
+            for (Message m : readSegment(session, (Long) spans.get(i)[0])) {
+                if (before == null || compare(m, before) < 0) {
+                    rows.add(m);
+                }
+            }
+        }
+        rows.sort(MESSAGE_ORDER);
+        return rows.subList(Math.max(0, rows.size() - limit), rows.size());
+    }
+
+    /**
+     * Up to {@code limit} archived messages just after {@code after}, in
+     * chronological order; decodes only segments that end after the cursor
+     */
+    public List<Message> readPageAfter(ChatSession session, CursorUtil.Cursor after, int limit) {
+        List<Message> rows = new ArrayList<>();
+        for (Object[] span : messageArchiveRepository.findSpansByChatSessionId(session.getId())) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            LocalDateTime last = (LocalDateTime) span[2];
+            if (last != null && last.isBefore(after.timestamp())) {
+                continue;
+            }
+            for (Message m : readSegment(session, (Long) span[0])) {
+                if (compare(m, after) > 0) {
+                    rows.add(m);
+                }
+            }
+        }
+        rows.sort(MESSAGE_ORDER);
+        return rows.subList(0, Math.min(limit, rows.size()));
+    }
+
+    /**
+     * Move an archived session's messages back into the hot table, keeping
+     * their ids. Runs in the caller's transaction, which must hold the
+     * session's row lock ({@link ChatSessionRepository#findByIdForUpdate}).
+     */
+    public void restoreIfArchived(ChatSession session) {
+        if (session.getArchivedAt() == null) {
+            return;
+        }
+        List<Message> messages = readMessages(session);
+        jdbcTemplate.batchUpdate(RESTORE_SQL, messages, batchSize, (ps, m) -> {
+            ps.setLong(1, m.getId());
+            ps.setLong(2, session.getId());
+            ps.setString(3, m.getRole().name());
+            ps.setString(4, compressedTextConverter.convertToDatabaseColumn(m.getContent()));
+            ps.setString(5, m.getStructuredResponse());
+            ps.setTimestamp(6, Timestamp.valueOf(m.getCreatedAt()));
+        });
+        messageArchiveRepository.deleteByChatSessionIds(List.of(session.getId()));
+        chatSessionRepository.updateArchivedAt(session.getId(), null);
+        chatContextCache.evictSession(session.getId());
+        log.debug("Restored {} archived message(s) of chat session {}", messages.size(), session.getId());
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Archive one session under a row lock, so no message can be added to it
+     * between reading its messages and deleting them
+     *
+     * @return false when the session no longer qualifies or still has
+     * write-behind messages waiting; it is retried on the next run
+     */
+    private boolean archiveSession(Long sessionId, LocalDateTime cutoff) {
+        ChatSession session = chatSessionRepository.findByIdForUpdate(sessionId).orElse(null);
+        if (session == null || session.getArchivedAt() != null || !Boolean.TRUE.equals(session.getIsActive())
+                || session.getLastMessageAt() == null || !session.getLastMessageAt().isBefore(cutoff)) {
+            return false;
+        }
+        if (messageWriter.hasPending(sessionId)) {
+            log.debug("Chat session {} has unflushed messages, archiving it next run", sessionId);
+            return false;
+        }
+        List<Message> messages = messageRepository.findByChatSessionOrderByCreatedAtAsc(session);
+
+        Map<YearMonth, List<Message>> byMonth = new TreeMap<>();
+        for (Message m : messages) {
+            byMonth.computeIfAbsent(YearMonth.from(m.getCreatedAt()), k -> new ArrayList<>()).add(m);
+        }
+        for (Map.Entry<YearMonth, List<Message>> entry : byMonth.entrySet()) {
+            List<Message> month = entry.getValue();
+            MessageArchive segment = new MessageArchive();
+            segment.setChatSessionId(sessionId);
+            segment.setArchiveMonth(entry.getKey().toString());
+            segment.setMessageCount(month.size());
+            segment.setFirstMessageAt(month.get(0).getCreatedAt());
+            segment.setLastMessageAt(month.get(month.size() - 1).getCreatedAt());
+            segment.setPayload(encode(month));
+            messageArchiveRepository.save(segment);
+        }
+
+        // Exactly the rows written to the segments
+        List<Long> ids = messages.stream().map(Message::getId).toList();
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            messageRepository.deleteByIds(ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK)));
+        }
+        chatSessionRepository.updateArchivedAt(sessionId, LocalDateTime.now());
+        chatContextCache.evictSession(sessionId);
+        return true;
+    }
+
+    private List<Message> readSegment(ChatSession session, Long segmentId) {
+        return messageArchiveRepository.findById(segmentId)
+                .map(segment -> toMessages(session, segment.getPayload()))
+                .orElse(List.of());
+    }
+
+    private List<Message> toMessages(ChatSession session, byte[] payload) {
+        List<Message> messages = new ArrayList<>();
+        for (ArchivedMessage record : decode(payload)) {
+            Message message = new Message();
+            message.setId(record.getId());
+            message.setChatSession(session);
+            message.setRole(Message.MessageRole.valueOf(record.getRole()));
+            message.setContent(record.getContent());
+            message.setStructuredResponse(record.getStructuredResponse());
+            message.setCreatedAt(record.getCreatedAt());
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static int compare(Message m, CursorUtil.Cursor cursor) {
+        int byTime = m.getCreatedAt().compareTo(cursor.timestamp());
+        return byTime != 0 ? byTime : Long.compare(m.getId(), cursor.id());
+    }
+
+    private byte[] encode(List<Message> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (Message m : messages) {
+                ArchivedMessage record = new ArchivedMessage(m.getId(), m.getRole().name(), m.getContent(),
+                        m.getStructuredResponse(), m.getCreatedAt());
+                out.write(objectMapper.writeValueAsString(record));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress archive segment", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ArchivedMessage> decode(byte[] payload) {
+        List<ArchivedMessage> records = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    records.add(objectMapper.readValue(line, ArchivedMessage.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment", e);
+        }
+        return records;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ArchivedMessage {
+
+        private Long id;
+        private String role;
+        private String content;
+        private String structuredResponse;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.healthcare.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out message ids from blocks reserved in the {@code message_id_seq}
+ * table, so write-behind inserts can carry their ids before they reach the
+ * database. Blocks are reserved in their own transaction and never reused.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MessageIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${chat.write-behind.id-block-size:100}")
+    private int blockSize;
+
+    private long nextId;
+    private long blockLimit;
+
+    /**
+     * Create and seed the sequence table, moving it past any id already used
+     * by identity inserts.
+     */
+    public void initialize() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS message_id_seq ("
+                + "id INT PRIMARY KEY, next_val BIGINT NOT NULL) ENGINE=InnoDB");
+        jdbcTemplate.update("INSERT IGNORE INTO message_id_seq (id, next_val) "
+                + "SELECT 1, COALESCE(MAX(id), 0) + 1 FROM messages");
+        jdbcTemplate.update("UPDATE message_id_seq SET next_val = GREATEST(next_val, "
+                + "(SELECT COALESCE(MAX(id), 0) + 1 FROM messages)) WHERE id = 1");
+        log.info("Message id allocator ready — block size: {}", blockSize);
+    }
+
+    public synchronized long nextId() {
+        if (nextId >= blockLimit) {
+            reserveBlock();
+        }
+        return nextId++;
+    }
+
+    private void reserveBlock() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long start = tx.execute(status -> {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM message_id_seq WHERE id = 1 FOR UPDATE", Long.class);
+            jdbcTemplate.update("UPDATE message_id_seq SET next_val = ? WHERE id = 1", current + blockSize);
+            return current;
+        });
+        nextId = start;
+        blockLimit = start + blockSize;
+        log.debug("Reserved message id block [{}, {})", nextId, blockLimit);
+    }
+}
@@ -0,0 +1,232 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.model.ChatSession;
+import com.healthcare.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only on-disk journal for write-behind messages.
+ * <p>
+ * Messages are appended as JSON lines to the active segment. The flusher seals
+ * the active segment before inserting its entries and deletes it once they are
+ * committed; segments left over after a crash are replayed on startup.
+ * Messages the database refuses are moved to dead-letter files in the same
+ * directory, which are never replayed.
+ * </p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MessageJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DEAD_LETTER_PREFIX = "dead-letter-";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.write-behind.journal-directory:./data/message-journal}")
+    private String journalDirectory;
+
+    @Value("${chat.write-behind.fsync:true}")
+    private boolean fsync;
+
+    private FileChannel activeChannel;
+    private Path activeSegment;
+    private long segmentSequence;
+
+    /**
+     * Segments present on disk before the journal was opened, oldest first
+     */
+    public List<Path> existingSegments() throws IOException {
+        Path dir = Paths.get(journalDirectory);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> !p.equals(activeSegment))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public synchronized void open() throws IOException {
+        Files.createDirectories(Paths.get(journalDirectory));
+        segmentSequence = System.currentTimeMillis();
+        openSegment();
+    }
+
+    public synchronized void append(Message message) throws IOException {
+        write(activeChannel, toRecord(message));
+    }
+
+    /**
+     * Record that a journaled message was deleted before it was flushed, so
+     * a replay does not insert it
+     */
+    public synchronized void appendDeletion(Long messageId) throws IOException {
+        write(activeChannel, new JournalRecord(messageId, null, null, null, null, null, true));
+    }
+
+    /**
+     * Keep messages the database refused in a new dead-letter file, in the
+     * journal format, for an operator to inspect or re-insert
+     *
+     * @return the file written
+     */
+    public synchronized Path deadLetter(List<Message> messages) throws IOException {
+        Path dir = Paths.get(journalDirectory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(String.format("%s%020d%s", DEAD_LETTER_PREFIX, System.nanoTime(), SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (Message message : messages) {
+                write(channel, toRecord(message));
+            }
+            channel.force(false);
+        }
+        return file;
+    }
+
+    /**
+     * Close the active segment and start a new one; returns the sealed segment
+     */
+    public synchronized Path seal() throws IOException {
+        Path sealed = activeSegment;
+        activeChannel.close();
+        openSegment();
+        return sealed;
+    }
+
+    /**
+     * Read messages back from sealed segments, without those deleted later
+     * on. A torn trailing line left by a crash is skipped.
+     */
+    public List<Message> read(List<Path> segments) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>();
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        JournalRecord record = objectMapper.readValue(line, JournalRecord.class);
+                        if (Boolean.TRUE.equals(record.getDeleted())) {
+                            deleted.add(record.getId());
+                        } else {
+                            messages.add(toMessage(record));
+                        }
+                    } catch (IOException e) {
+                        log.warn("Skipping unreadable journal entry in {}: {}", segment.getFileName(), e.getMessage());
+                    }
+                }
+            }
+        }
+        messages.removeIf(m -> deleted.contains(m.getId()));
+        return messages;
+    }
+
+    public void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            log.warn("Could not delete journal segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (activeChannel != null && activeChannel.isOpen()) {
+            activeChannel.close();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void write(FileChannel channel, JournalRecord record) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap(
+                (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private static JournalRecord toRecord(Message message) {
+        return new JournalRecord(
+                message.getId(),
+                message.getChatSession().getId(),
+                message.getRole().name(),
+                message.getContent(),
+                message.getStructuredResponse(),
+                message.getCreatedAt(),
+                null);
+    }
+
+    private void openSegment() throws IOException {
+        activeSegment = Paths.get(journalDirectory,
+                String.format("%s%020d%s", SEGMENT_PREFIX, segmentSequence++, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(activeSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Message toMessage(JournalRecord record) {
+        ChatSession session = new ChatSession();
+        session.setId(record.getSessionId());
+
+        Message message = new Message();
+        message.setId(record.getId());
+        message.setChatSession(session);
+        message.setRole(Message.MessageRole.valueOf(record.getRole()));
+        message.setContent(record.getContent());
+        message.setStructuredResponse(record.getStructuredResponse());
+        message.setCreatedAt(record.getCreatedAt());
+        return message;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class JournalRecord {
+
+        private Long id;
+        private Long sessionId;
+        private String role;
+        private String content;
+        private String structuredResponse;
+        private LocalDateTime createdAt;
+
+        // Set on deletion records, which carry only the id
+        private Boolean deleted;
+    }
+}
@@ -0,0 +1,362 @@
+package com.healthcare.service;
+
+import com.healthcare.model.Message;
+import com.healthcare.repository.MessageRepository;
+import com.healthcare.util.CompressedTextConverter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Single write path for chat messages.
+ * <p>
+ * With {@code chat.write-behind.enabled=false} (default) messages are saved
+ * through JPA as before. When enabled, each message gets a pre-allocated id,
+ * is appended to the durable {@link MessageJournal} once its transaction
+ * commits, and is inserted later by the flusher in multi-row batches. Messages
+ * not yet flushed stay visible to readers through {@link #mergePending}.
+ * Journal segments left by a previous run are replayed at startup whether or
+ * not write-behind is still enabled.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MessageWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO messages "
+            + "(id, chat_session_id, role, content, structured_response, created_at) VALUES ";
+
+    private final MessageRepository messageRepository;
+    private final MessageJournal journal;
+    private final MessageIdAllocator idAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CompressedTextConverter compressedTextConverter;
+
+    @Value("${chat.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${chat.write-behind.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Written but not yet flushed, per session (read-your-writes)
+     */
+    private final Map<Long, List<Message>> pendingBySession = new ConcurrentHashMap<>();
+
+    /**
+     * Committed and journaled, waiting for the next flush; guarded by
+     * journalLock
+     */
+    private final Deque<Message> flushQueue = new ArrayDeque<>();
+    /**
+     * Deleted before their transaction committed; not to be journaled
+     */
+    private final Set<Long> discarded = new HashSet<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Object journalLock = new Object();
+    private final Object flushLock = new Object();
+
+    @PostConstruct
+    void init() throws IOException {
+        List<Path> leftover = journal.existingSegments();
+        if (writeBehindEnabled) {
+            idAllocator.initialize();
+            journal.open();
+        }
+        if (!leftover.isEmpty()) {
+            List<Message> replay = journal.read(leftover);
+            log.info("Replaying {} journaled message(s) from {} segment(s)", replay.size(), leftover.size());
+            synchronized (journalLock) {
+                replay.forEach(m -> pendingBySession
+                        .computeIfAbsent(m.getChatSession().getId(), k -> new CopyOnWriteArrayList<>()).add(m));
+                flushQueue.addAll(replay);
+                sealedSegments.addAll(leftover);
+            }
+            flush();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Public API
+    // ─────────────────────────────────────────────────────────
+    public Message save(Message message) {
+        if (!writeBehindEnabled) {
+            return messageRepository.save(message);
+        }
+        message.setId(idAllocator.nextId());
+        message.setCreatedAt(LocalDateTime.now());
+        Long sessionId = message.getChatSession().getId();
+        pendingBySession.computeIfAbsent(sessionId, k -> new CopyOnWriteArrayList<>()).add(message);
+
+        // Journal only after the surrounding transaction commits, so the session
+        // row exists before the flusher inserts and rolled-back turns never land
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    journalAndEnqueue(message);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        removePending(message);
+                        synchronized (journalLock) {
+                            discarded.remove(message.getId());
+                        }
+                    }
+                }
+            });
+        } else {
+            journalAndEnqueue(message);
+        }
+        return message;
+    }
+
+    /**
+     * Delete a message. One that is still pending is dropped from the flush
+     * queue (with a journal tombstone) instead, so it is never inserted.
+     */
+    public void delete(Message message) {
+        if (writeBehindEnabled && discardPending(message)) {
+            return;
+        }
+        messageRepository.delete(message);
+    }
+
+    /**
+     * True while a message of the session is written but not yet in the table
+     */
+    public boolean hasPending(Long sessionId) {
+        List<Message> pending = pendingBySession.get(sessionId);
+        return pending != null && !pending.isEmpty();
+    }
+
+    /**
+     * Merge pending messages of a session into a list read from the database,
+     * returning them in chronological order.
+     */
+    public List<Message> mergePending(Long sessionId, List<Message> persisted) {
+        List<Message> pending = pendingBySession.get(sessionId);
+        if (pending == null || pending.isEmpty()) {
+            return persisted;
+        }
+        Set<Long> persistedIds = persisted.stream().map(Message::getId).collect(Collectors.toSet());
+        List<Message> merged = new ArrayList<>(persisted);
+        pending.stream().filter(m -> !persistedIds.contains(m.getId())).forEach(merged::add);
+        merged.sort(Comparator.comparing(Message::getCreatedAt).thenComparing(Message::getId));
+        return merged;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Flusher
+    // ─────────────────────────────────────────────────────────
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Insert everything journaled so far. On failure the batch is re-queued
+     * and its segments are kept for the next attempt; rows the table refuses
+     * go to a dead-letter file before the segments are deleted.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Message> batch;
+            synchronized (journalLock) {
+                if (flushQueue.isEmpty()) {
+                    return;
+                }
+                if (writeBehindEnabled) {
+                    try {
+                        sealedSegments.add(journal.seal());
+                    } catch (IOException e) {
+                        log.error("Could not seal message journal segment", e);
+                        return;
+                    }
+                }
+                batch = new ArrayList<>(flushQueue);
+                flushQueue.clear();
+            }
+
+            try {
+                List<Message> rejected = List.of();
+                try {
+                    insertBatch(batch);
+                } catch (DataIntegrityViolationException e) {
+                    rejected = insertEach(batch);
+                }
+                if (!rejected.isEmpty()) {
+                    Path file = journal.deadLetter(rejected);
+                    log.error("Moved {} write-behind message(s) refused by the database to {}",
+                            rejected.size(), file);
+                }
+            } catch (Exception e) {
+                log.error("Write-behind flush of {} message(s) failed, will retry", batch.size(), e);
+                synchronized (journalLock) {
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        flushQueue.addFirst(batch.get(i));
+                    }
+                }
+                return;
+            }
+
+            sealedSegments.forEach(journal::delete);
+            sealedSegments.clear();
+            batch.forEach(this::removePending);
+            log.debug("Flushed {} message(s)", batch.size());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        if (writeBehindEnabled) {
+            journal.close();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void journalAndEnqueue(Message message) {
+        synchronized (journalLock) {
+            if (discarded.remove(message.getId())) {
+                return;
+            }
+            try {
+                journal.append(message);
+                flushQueue.add(message);
+                return;
+            } catch (IOException e) {
+                log.error("Could not journal message {}, inserting directly", message.getId(), e);
+            }
+        }
+        insertBatch(List.of(message));
+        removePending(message);
+    }
+
+    private void insertBatch(List<Message> batch) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                List<Message> chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+                StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+                List<Object> args = new ArrayList<>(chunk.size() * 6);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Message m = chunk.get(i);
+                    sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                    args.add(m.getId());
+                    args.add(m.getChatSession().getId());
+                    args.add(m.getRole().name());
+                    args.add(compressedTextConverter.convertToDatabaseColumn(m.getContent()));
+                    args.add(m.getStructuredResponse());
+                    args.add(Timestamp.valueOf(m.getCreatedAt()));
+                }
+                jdbcTemplate.update(sql.toString(), args.toArray());
+            }
+        });
+    }
+
+    /**
+     * Insert a batch the table refused as a whole row by row. A duplicate id
+     * counts as inserted only when that row is this very message (a replayed
+     * entry); every other refused row is returned.
+     */
+    private List<Message> insertEach(List<Message> batch) {
+        List<Message> rejected = new ArrayList<>();
+        for (Message m : batch) {
+            try {
+                insertBatch(List.of(m));
+            } catch (DuplicateKeyException e) {
+                if (!isAlreadyInserted(m)) {
+                    log.error("Write-behind message {} of chat session {} collides with another row",
+                            m.getId(), m.getChatSession().getId());
+                    rejected.add(m);
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.error("Write-behind message {} of chat session {} refused: {}",
+                        m.getId(), m.getChatSession().getId(), e.getMostSpecificCause().getMessage());
+                rejected.add(m);
+            }
+        }
+        return rejected;
+    }
+
+    private boolean isAlreadyInserted(Message message) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT chat_session_id, content FROM messages WHERE id = ?", message.getId());
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Map<String, Object> row = rows.get(0);
+        Object sessionId = row.get("chat_session_id");
+        return sessionId != null
+                && message.getChatSession().getId().equals(((Number) sessionId).longValue())
+                && Objects.equals(message.getContent(),
+                        compressedTextConverter.convertToEntityAttribute((String) row.get("content")));
+    }
+
+    /**
+     * Drop a message that is not in the table yet
+     *
+     * @return false when it was already flushed (or never written here)
+     */
+    private boolean discardPending(Message message) {
+        Long id = message.getId();
+        // Under flushLock no batch is between the queue and the table
+        synchronized (flushLock) {
+            synchronized (journalLock) {
+                List<Message> pending = pendingBySession.get(message.getChatSession().getId());
+                Message match = pending == null ? null
+                        : pending.stream().filter(m -> m.getId().equals(id)).findFirst().orElse(null);
+                if (match == null) {
+                    return false;
+                }
+                if (flushQueue.removeIf(m -> m.getId().equals(id))) {
+                    try {
+                        journal.appendDeletion(id);
+                    } catch (IOException e) {
+                        log.error("Could not journal deletion of message {}; a crash before the next flush "
+                                + "would restore it", id, e);
+                    }
+                } else {
+                    // Its transaction has not committed yet
+                    discarded.add(id);
+                }
+                removePending(match);
+                return true;
+            }
+        }
+    }
+
+    // Identity comparison: Message.equals would walk the session graph
+    private void removePending(Message message) {
+        pendingBySession.computeIfPresent(message.getChatSession().getId(), (id, list) -> {
+            list.removeIf(m -> m == message);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -1,31 +1,43 @@
 package com.healthcare.service;
 
-import net.sourceforge.tess4j.Tesseract;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.util.ImageDecodeUtil;
+import com.healthcare.util.RasterPreprocessUtil;
 import net.sourceforge.tess4j.TesseractException;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * OCR Service using Tesseract (via Tess4J) with optional PDF support (PDFBox).
  * <p>
- * Supports: JPG, PNG, BMP, GIF, TIFF, PDF (first page)
+ * Supports: JPG, PNG, BMP, GIF, TIFF, PDF (all pages, up to ocr.pdf.max-pages)
+ * </p>
+ * <p>
+ * Each extraction runs with an {@link OcrProfile}. {@code ACCURATE} is the
+ * full pipeline; {@code FAST} decodes and renders at
+ * {@code ocr.profile.fast.target-dpi} within
+ * {@code ocr.profile.fast.decode-megapixels} and uses the fast engine set.
+ * {@code AUTO} picks FAST while {@code ocr.profile.auto.fast-queue-depth} or
+ * more OCR tasks are waiting, so under load previews degrade instead of
+ * queueing into a 503.
  * </p>
  */
 @Service
@@ -53,88 +65,215 @@ public class OCRService {
      */
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
-    @Value("${tesseract.data.path:C:/Program Files/Tesseract-OCR/tessdata}")
-    private String tesseractDataPath;
+    /**
+     * Resolution used to render PDF pages, passed on to Tesseract
+     */
+    private static final int PDF_RENDER_DPI = 300;
+
+    /**
+     * Floor for pages scaled down to fit the decode budget; below this
+     * Tesseract accuracy collapses
+     */
+    private static final int MIN_RENDER_DPI = 72;
+
+    /**
+     * Assumed resolution of uploaded images
+     */
+    private static final int IMAGE_DPI = 300;
+
+    /**
+     * Receives extracted text page by page, in page order (1-based page
+     * numbers), with the method used for the page
+     */
+    @FunctionalInterface
+    public interface PageListener {
+
+        void onPage(int pageNumber, int pageCount, TextExtractionResult.Method method, String text);
+    }
+
+    @FunctionalInterface
+    private interface Extraction {
+
+        TextExtractionResult run() throws IOException, TesseractException;
+    }
+
+    /**
+     * Decodes the source image keeping every {@code step}-th row and column
+     */
+    @FunctionalInterface
+    private interface ImageDecoder {
+
+        BufferedImage read(int step) throws IOException;
+    }
+
+    private final OcrEnginePool ocrEnginePool;
+    private final OcrMemoryBudget ocrMemoryBudget;
+    private final OcrProfileMetrics ocrProfileMetrics;
+
+    // Images are decoded, and PDF pages rendered, at no more than this many pixels
+    @Value("${ocr.decode.target-megapixels:12}")
+    private int decodeTargetMegapixels;
+
+    // Images declaring more pixels than this are rejected before decoding
+    @Value("${ocr.image.max-source-megapixels:100}")
+    private int maxSourceMegapixels;
+
+    @Value("${ocr.pdf.max-pages:20}")
+    private int maxPdfPages;
+
+    @Value("${ocr.pdf.text-layer.enabled:true}")
+    private boolean textLayerEnabled;
+
+    // Visible characters a page's text layer needs before OCR is skipped
+    @Value("${ocr.pdf.text-layer.min-chars:40}")
+    private int textLayerMinChars;
+
+    // Bump when a code change alters extracted text, so cached results are recomputed
+    @Value("${ocr.pipeline.revision:2}")
+    private int pipelineRevision;
+
+    @Value("${ocr.profile.fast.decode-megapixels:4}")
+    private int fastDecodeMegapixels;
+
+    // OCR tasks waiting before AUTO requests are routed to FAST
+    @Value("${ocr.profile.auto.fast-queue-depth:4}")
+    private int autoFastQueueDepth;
+
+    private final RasterPreprocessUtil.Options preprocessOptions;
+    private final RasterPreprocessUtil.Options fastPreprocessOptions;
+
+    public OCRService(OcrEnginePool ocrEnginePool,
+                      OcrMemoryBudget ocrMemoryBudget,
+                      OcrProfileMetrics ocrProfileMetrics,
+                      @Value("${ocr.preprocess.target-dpi:300}") int preprocessTargetDpi,
+                      @Value("${ocr.preprocess.threshold:adaptive}") String preprocessThreshold,
+                      @Value("${ocr.preprocess.deskew:true}") boolean preprocessDeskew,
+                      @Value("${ocr.profile.fast.target-dpi:200}") int fastTargetDpi) {
+        this.ocrEnginePool = ocrEnginePool;
+        this.ocrMemoryBudget = ocrMemoryBudget;
+        this.ocrProfileMetrics = ocrProfileMetrics;
+        RasterPreprocessUtil.Threshold threshold =
+                RasterPreprocessUtil.Threshold.valueOf(preprocessThreshold.trim().toUpperCase());
+        this.preprocessOptions = new RasterPreprocessUtil.Options(preprocessTargetDpi, threshold, preprocessDeskew);
+        this.fastPreprocessOptions = new RasterPreprocessUtil.Options(
+                Math.min(fastTargetDpi, preprocessTargetDpi), threshold, preprocessDeskew);
+    }
 
     // ─────────────────────────────────────────────────────────
     // Public API
     // ─────────────────────────────────────────────────────────
     /**
      * Validate and extract text from an uploaded MultipartFile. Automatically
-     * detects image vs PDF and routes accordingly. Temporary files are always
-     * cleaned up after processing.
+     * detects image vs PDF and routes accordingly. The upload (at most 5 MB)
+     * is read into memory once and decoded from there.
      */
     public String extractText(MultipartFile file) throws IOException, TesseractException {
+        return extractText(file, null);
+    }
+
+    /**
+     * Same as {@link #extractText(MultipartFile)}, reporting each page's text
+     * to {@code listener} as soon as it and all earlier pages are done.
+     */
+    public String extractText(MultipartFile file, PageListener listener) throws IOException, TesseractException {
+        return extractDocument(file, listener).getText();
+    }
+
+    /**
+     * Extract text and report how each page was read (text layer or OCR)
+     */
+    public TextExtractionResult extractDocument(MultipartFile file, PageListener listener)
+            throws IOException, TesseractException {
         validateFile(file);
+        return extractDocument(file.getBytes(), file.getOriginalFilename(), isPdfFile(file), listener);
+    }
 
-        Path tempDir = Files.createTempDirectory("ocr_");
-        File tempFile = tempDir.resolve(
-                Objects.requireNonNull(file.getOriginalFilename(), "filename")).toFile();
-        try {
-            file.transferTo(tempFile);
-            log.info("Processing OCR for '{}' ({} bytes)", file.getOriginalFilename(), file.getSize());
-            return isPdfFile(file) ? extractFromPdf(tempFile) : extractFromImage(tempFile);
-        } finally {
-            deleteSilently(tempFile);
-            deleteSilently(tempDir.toFile());
-        }
+    /**
+     * Extract text from an upload already read into memory, e.g. by the
+     * single-pass ingestion in MedicalReportService or for streamed OCR whose
+     * work outlives the request; call {@link #validateFile} first. Uses the
+     * accurate profile.
+     */
+    public TextExtractionResult extractDocument(byte[] content, String filename, boolean pdf, PageListener listener)
+            throws IOException, TesseractException {
+        return extractDocument(content, filename, pdf, OcrProfile.ACCURATE, listener);
     }
 
     /**
-     * Extract structured lab values from raw OCR text using regex.
-     *
-     * <p>
-     * Example input: "Glucose: 180 mg/dL\nHbA1c: 7.8%"</p>
-     * <p>
-     * Returns: {"Glucose" → "180 mg/dL", "HbA1c" → "7.8%"}</p>
+     * Same as {@link #extractDocument(byte[], String, boolean, PageListener)}
+     * with the given profile; AUTO is resolved here, so callers that report
+     * the tier used should resolve it first with {@link #resolveProfile}
      */
-    public Map<String, String> extractLabValues(String rawText) {
-        Map<String, String> labValues = new LinkedHashMap<>();
-
-        List<String> knownLabels = List.of(
-                "Glucose", "HbA1c", "Hemoglobin", "Hematocrit", "WBC", "RBC",
-                "Platelets", "MCV", "MCH", "MCHC", "Sodium", "Potassium",
-                "Chloride", "Bicarbonate", "BUN", "Creatinine", "eGFR",
-                "AST", "ALT", "ALP", "Total Bilirubin", "Albumin",
-                "Total Cholesterol", "LDL", "HDL", "Triglycerides",
-                "TSH", "T3", "T4", "Calcium", "Magnesium", "Phosphorus",
-                "Iron", "Ferritin", "Vitamin D", "Vitamin B12", "Folate",
-                "PSA", "CRP", "ESR", "PT", "INR", "aPTT",
-                "pH", "pCO2", "pO2", "HCO3", "O2 Saturation",
-                "Blood Pressure", "Heart Rate", "Temperature", "Pulse", "SpO2",
-                "Weight", "Height", "BMI"
-        );
-
-        for (String label : knownLabels) {
-            Pattern p = Pattern.compile(
-                    "(?i)\\b" + Pattern.quote(label)
-                    + "\\s*[:\\-]?\\s*(\\d+\\.?\\d*(?:\\s*[a-zA-Z/%]+(?:/[a-zA-Z]+)*)?)",
-                    Pattern.MULTILINE);
-            Matcher m = p.matcher(rawText);
-            if (m.find()) {
-                labValues.put(label, m.group(1).trim());
-            }
+    public TextExtractionResult extractDocument(byte[] content, String filename, boolean pdf, OcrProfile profile,
+                                                PageListener listener) throws IOException, TesseractException {
+        OcrProfile tier = resolveProfile(profile);
+        log.info("Processing OCR for '{}' ({} bytes, {} profile)", filename, content.length, tier);
+        return measured(tier, () -> pdf ? extractFromPdf(content, filename, tier, listener)
+                : extractFromImage(content, filename, tier, listener));
+    }
+
+    /**
+     * Extract text from a stored file, decoding it from disk instead of
+     * reading it into memory first. Uses the accurate profile.
+     */
+    public TextExtractionResult extractDocument(Path file, String filename, boolean pdf, PageListener listener)
+            throws IOException, TesseractException {
+        OcrProfile tier = OcrProfile.ACCURATE;
+        log.info("Processing OCR for '{}' ({} bytes on disk, {} profile)", filename, Files.size(file), tier);
+        return measured(tier, () -> pdf ? extractFromPdf(file, filename, tier, listener)
+                : extractFromImage(file, filename, tier, listener));
+    }
+
+    private TextExtractionResult measured(OcrProfile tier, Extraction extraction)
+            throws IOException, TesseractException {
+        long start = System.nanoTime();
+        try {
+            TextExtractionResult result = extraction.run();
+            long ocrPages = result.getPageMethods().stream()
+                    .filter(m -> m == TextExtractionResult.Method.OCR).count();
+            ocrProfileMetrics.recordExtraction(tier, (System.nanoTime() - start) / 1_000_000,
+                    result.getPageMethods().size(), (int) ocrPages);
+            return result;
+        } catch (OcrBusyException e) {
+            ocrProfileMetrics.recordRejected(tier);
+            throw e;
+        } catch (IOException | TesseractException | RuntimeException e) {
+            ocrProfileMetrics.recordFailure(tier);
+            throw e;
         }
+    }
 
-        // Fallback: generic extraction when no known label matches
-        if (labValues.isEmpty()) {
-            Pattern generic = Pattern.compile(
-                    "([A-Za-z][A-Za-z0-9\\s/()%]+?)\\s*[:\\-]?\\s*(\\d+\\.?\\d*\\s*[a-zA-Z/%]+(?:/[a-zA-Z]+)*)",
-                    Pattern.MULTILINE);
-            Matcher gm = generic.matcher(rawText);
-            while (gm.find()) {
-                String key = gm.group(1).trim();
-                String val = gm.group(2).trim();
-                if (key.length() <= 40 && !key.isBlank()) {
-                    labValues.put(key, val);
-                }
-            }
+    /**
+     * The tier a request runs with: FAST or ACCURATE as asked, or for AUTO
+     * FAST while the OCR queue is at least {@code ocr.profile.auto.fast-queue-depth}
+     * deep. Counts the routing decision.
+     */
+    public OcrProfile resolveProfile(OcrProfile requested) {
+        if (requested != OcrProfile.AUTO) {
+            return requested;
         }
+        OcrProfile tier = ocrEnginePool.getQueueDepth() >= autoFastQueueDepth ? OcrProfile.FAST : OcrProfile.ACCURATE;
+        ocrProfileMetrics.recordRouted(tier);
+        return tier;
+    }
 
-        log.info("Extracted {} lab value(s) from OCR text", labValues.size());
-        return labValues;
+    /**
+     * Per-tier extraction metrics, with the routing threshold and current
+     * OCR queue depth
+     */
+    public Map<String, Object> getProfileMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", ocrEnginePool.getQueueDepth());
+        metrics.put("autoFastQueueDepth", autoFastQueueDepth);
+        metrics.put("fastEngines", ocrEnginePool.hasFastEngines());
+        metrics.put("signatures", Map.of(
+                OcrProfile.FAST.name(), getPipelineSignature(OcrProfile.FAST),
+                OcrProfile.ACCURATE.name(), getPipelineSignature(OcrProfile.ACCURATE)));
+        metrics.put("tiers", ocrProfileMetrics.snapshot());
+        return metrics;
     }
 
+
     // ─────────────────────────────────────────────────────────
     // Validation
     // ─────────────────────────────────────────────────────────
@@ -146,18 +285,47 @@ public class OCRService {
             throw new IllegalArgumentException(
                     "File size (" + (file.getSize() / 1024) + " KB) exceeds maximum allowed 5 MB.");
         }
-        String ext = getExtension(file.getOriginalFilename());
+        validateType(file.getOriginalFilename(), file.getContentType());
+    }
+
+    /**
+     * Extension and content-type checks, for uploads that do not arrive as
+     * one multipart file (e.g. resumable uploads)
+     */
+    public void validateType(String filename, String contentType) {
+        String ext = getExtension(filename);
         if (!ALLOWED_EXTENSIONS.contains(ext.toLowerCase())) {
             throw new IllegalArgumentException(
                     "Unsupported file extension '." + ext + "'. Allowed: jpg, jpeg, png, bmp, tiff, gif, pdf");
         }
-        String contentType = file.getContentType();
         if (contentType != null && !contentType.equals("application/octet-stream")
                 && !ALLOWED_TYPES.contains(contentType.toLowerCase())) {
             throw new IllegalArgumentException("Unsupported content type '" + contentType + "'.");
         }
     }
 
+    /**
+     * Every setting that changes what a document extracts to with the
+     * accurate profile. Cached results recorded under a different signature
+     * are treated as stale.
+     */
+    public String getPipelineSignature() {
+        return getPipelineSignature(OcrProfile.ACCURATE);
+    }
+
+    public String getPipelineSignature(OcrProfile profile) {
+        RasterPreprocessUtil.Options options = preprocessOptions(profile);
+        return "r" + pipelineRevision
+                + (profile == OcrProfile.FAST ? ";fast" : "")
+                + ";" + ocrEnginePool.getEngineSignature(profile)
+                + ";dpi" + renderDpi(profile) + "/" + IMAGE_DPI
+                + ";pages" + maxPdfPages
+                + ";decode" + decodeTargetPixels(profile) / 1_000_000
+                + ";textLayer" + (textLayerEnabled ? textLayerMinChars : "off")
+                + ";pre" + options.targetDpi() + "/" + options.threshold()
+                + "/" + (options.deskew() ? "deskew" : "nodeskew");
+    }
+
     public boolean isPdfFile(MultipartFile file) {
         String ct = file.getContentType();
         return "pdf".equalsIgnoreCase(getExtension(file.getOriginalFilename()))
@@ -167,63 +335,269 @@ public class OCRService {
     // ─────────────────────────────────────────────────────────
     // OCR Core
     // ─────────────────────────────────────────────────────────
-    private String extractFromImage(File imageFile) throws TesseractException, IOException {
-        BufferedImage original = ImageIO.read(imageFile);
-        if (original == null) {
-            throw new IOException("Cannot read image: " + imageFile.getName());
+    private TextExtractionResult extractFromImage(byte[] content, String filename, OcrProfile profile,
+                                                  PageListener listener) throws IOException, TesseractException {
+        return extractFromImage(ImageDecodeUtil.readSize(content), step -> ImageDecodeUtil.read(content, step),
+                filename, profile, listener);
+    }
+
+    private TextExtractionResult extractFromImage(Path file, String filename, OcrProfile profile,
+                                                  PageListener listener) throws IOException, TesseractException {
+        return extractFromImage(ImageDecodeUtil.readSize(file), step -> ImageDecodeUtil.read(file, step),
+                filename, profile, listener);
+    }
+
+    private TextExtractionResult extractFromImage(Dimension size, ImageDecoder decoder, String filename,
+                                                  OcrProfile profile, PageListener listener)
+            throws IOException, TesseractException {
+        if ((long) size.width * size.height > maxSourceMegapixels * 1_000_000L) {
+            throw new IllegalArgumentException("Image is too large to process (" + size.width + "×" + size.height
+                    + " pixels, limit " + maxSourceMegapixels + " MP).");
+        }
+        // Let the codec skip pixels rather than decode at full size and scale down
+        int step = ImageDecodeUtil.subsampling(size.width, size.height, decodeTargetPixels(profile));
+        try (OcrMemoryBudget.Reservation reservation =
+                     ocrMemoryBudget.reserve(ImageDecodeUtil.decodedPixels(size.width, size.height, step))) {
+            BufferedImage image = decoder.read(step);
+            if (step > 1) {
+                log.info("Decoded '{}' ({}×{}) at 1/{} resolution: {}×{}", filename,
+                        size.width, size.height, step, image.getWidth(), image.getHeight());
+            }
+            // Subsampling lowers the effective resolution by the same factor
+            return extractFromImage(image, Math.max(MIN_RENDER_DPI, IMAGE_DPI / step), profile, listener);
         }
-        BufferedImage processed = preprocessImage(original);
-        String text = buildTesseract().doOCR(processed);
+    }
+
+    private TextExtractionResult extractFromImage(BufferedImage original, int dpi, OcrProfile profile,
+                                                  PageListener listener) throws TesseractException {
+        String text = ocr(original, dpi, profile);
         log.debug("Image OCR result: {} chars", text == null ? 0 : text.length());
-        return cleanText(text);
+        if (listener != null) {
+            listener.onPage(1, 1, TextExtractionResult.Method.OCR, text == null ? "" : text.trim());
+        }
+        return new TextExtractionResult(cleanText(text), List.of(TextExtractionResult.Method.OCR));
+    }
+
+    /**
+     * Extract every page (up to {@code ocr.pdf.max-pages}). A page whose
+     * embedded text layer looks like real text is read directly; only
+     * image-only pages are OCR'd. Those are rendered on the calling thread,
+     * since a PDFRenderer is not thread-safe, and recognised in parallel on
+     * the OCR pool. At most one rendered page per engine, plus one, is held in
+     * memory at once, rendered in grayscale and counted against
+     * {@link OcrMemoryBudget} until recognised; results are collected, and
+     * reported to the listener, in page order.
+     */
+    private TextExtractionResult extractFromPdf(byte[] content, String name, OcrProfile profile,
+                                                PageListener listener) throws IOException, TesseractException {
+        try (PDDocument doc = PDDocument.load(content)) {
+            return extractFromPdf(doc, name, profile, listener);
+        }
+    }
+
+    private TextExtractionResult extractFromPdf(Path file, String name, OcrProfile profile,
+                                                PageListener listener) throws IOException, TesseractException {
+        try (PDDocument doc = PDDocument.load(file.toFile())) {
+            return extractFromPdf(doc, name, profile, listener);
+        }
+    }
+
+    private TextExtractionResult extractFromPdf(PDDocument doc, String name, OcrProfile profile,
+                                                PageListener listener) throws IOException, TesseractException {
+        int totalPages = doc.getNumberOfPages();
+        if (totalPages == 0) {
+            throw new IllegalArgumentException("PDF has no pages.");
+        }
+        int pageCount = Math.min(totalPages, maxPdfPages);
+        if (pageCount < totalPages) {
+            log.warn("PDF '{}' has {} pages, extraction limited to the first {}", name, totalPages, pageCount);
+        }
+
+        PDFRenderer renderer = new PDFRenderer(doc);
+        PDFTextStripper stripper = textLayerEnabled ? newTextStripper() : null;
+        int window = ocrEnginePool.getEngineCount() + 1;
+        List<Future<String>> pages = new ArrayList<>(pageCount);
+        List<TextExtractionResult.Method> methods = new ArrayList<>(pageCount);
+        List<OcrMemoryBudget.Reservation> reservations = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int collected = 0;
+        int inFlight = 0;
+        try {
+            for (int i = 0; i < pageCount; i++) {
+                String embedded = stripper != null ? embeddedText(stripper, doc, i) : null;
+                if (embedded != null) {
+                    pages.add(CompletableFuture.completedFuture(embedded));
+                    methods.add(TextExtractionResult.Method.TEXT_LAYER);
+                    continue;
+                }
+                while (inFlight >= window) {
+                    TextExtractionResult.Method method = methods.get(collected);
+                    appendPage(text, pages.get(collected), ++collected, pageCount, method, listener);
+                    if (method == TextExtractionResult.Method.OCR) {
+                        inFlight--;
+                    }
+                }
+                PDRectangle box = doc.getPage(i).getCropBox();
+                int dpi = renderDpi(box, profile);
+                OcrMemoryBudget.Reservation reservation = ocrMemoryBudget.reserve(renderedPixels(box, dpi));
+                reservations.add(reservation);
+                BufferedImage pageImage = renderer.renderImageWithDPI(i, dpi, ImageType.GRAY);
+                pages.add(ocrEnginePool.submit(() -> {
+                    try {
+                        return recognize(pageImage, dpi, profile);
+                    } finally {
+                        reservation.close();
+                    }
+                }));
+                methods.add(TextExtractionResult.Method.OCR);
+                inFlight++;
+            }
+            while (collected < pages.size()) {
+                TextExtractionResult.Method method = methods.get(collected);
+                appendPage(text, pages.get(collected), ++collected, pageCount, method, listener);
+            }
+        } finally {
+            // Only pages still queued or running are affected, e.g. after a failure
+            pages.forEach(f -> f.cancel(true));
+            // Cancelled tasks never reach their own release
+            reservations.forEach(OcrMemoryBudget.Reservation::close);
+        }
+        long ocrPages = methods.stream().filter(m -> m == TextExtractionResult.Method.OCR).count();
+        log.info("Extracted {} PDF page(s) from '{}' — {} from the text layer, {} by OCR, {} chars",
+                pageCount, name, pageCount - ocrPages, ocrPages, text.length());
+        return new TextExtractionResult(cleanText(text.toString()), methods);
     }
 
-    private String extractFromPdf(File pdfFile) throws IOException, TesseractException {
-        log.info("Converting first PDF page to image for OCR: {}", pdfFile.getName());
-        try (PDDocument doc = PDDocument.load(pdfFile)) {
-            if (doc.getNumberOfPages() == 0) {
-                throw new IllegalArgumentException("PDF has no pages.");
+    /**
+     * The profile's render resolution, lowered for oversized pages so the
+     * rendered bitmap stays within its decode budget
+     */
+    private int renderDpi(PDRectangle box, OcrProfile profile) {
+        int maxDpi = renderDpi(profile);
+        double squareInches = (box.getWidth() / 72.0) * (box.getHeight() / 72.0);
+        if (squareInches <= 0) {
+            return maxDpi;
+        }
+        int fitting = (int) Math.sqrt(decodeTargetPixels(profile) / squareInches);
+        return Math.max(MIN_RENDER_DPI, Math.min(maxDpi, fitting));
+    }
+
+    /**
+     * Page render resolution of a profile; FAST renders at its preprocessing
+     * target rather than rendering large and scaling down
+     */
+    private int renderDpi(OcrProfile profile) {
+        return profile == OcrProfile.FAST ? fastPreprocessOptions.targetDpi() : PDF_RENDER_DPI;
+    }
+
+    private long renderedPixels(PDRectangle box, int dpi) {
+        return (long) Math.ceil(box.getWidth() / 72.0 * dpi) * (long) Math.ceil(box.getHeight() / 72.0 * dpi);
+    }
+
+    private void appendPage(StringBuilder text, Future<String> page, int pageNumber, int pageCount,
+                            TextExtractionResult.Method method, PageListener listener) throws TesseractException {
+        String pageText = ocrEnginePool.await(page);
+        pageText = pageText == null ? "" : pageText.trim();
+        if (!pageText.isEmpty()) {
+            if (text.length() > 0) {
+                text.append("\n\n");
             }
-            BufferedImage pageImage = new PDFRenderer(doc).renderImageWithDPI(0, 300);
-            BufferedImage processed = preprocessImage(pageImage);
-            String text = buildTesseract().doOCR(processed);
-            log.debug("PDF OCR result: {} chars", text == null ? 0 : text.length());
-            return cleanText(text);
+            text.append(pageText);
+        }
+        if (listener != null) {
+            listener.onPage(pageNumber, pageCount, method, pageText);
         }
     }
 
     // ─────────────────────────────────────────────────────────
-    // Image Preprocessing
+    // PDF Text Layer
     // ─────────────────────────────────────────────────────────
+    private PDFTextStripper newTextStripper() throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        // Keeps table rows (test, value, unit, range) on one line
+        stripper.setSortByPosition(true);
+        return stripper;
+    }
+
     /**
-     * Convert to grayscale and enhance contrast to improve Tesseract accuracy.
+     * The page's embedded text, or null when it has none or it does not look
+     * like real text (scans with an empty or garbled OCR layer, broken font
+     * encodings)
      */
-    private BufferedImage preprocessImage(BufferedImage original) {
-        // Step 1: grayscale
-        BufferedImage gray = new BufferedImage(
-                original.getWidth(), original.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        Graphics2D g = gray.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g.drawImage(original, 0, 0, null);
-        g.dispose();
+    private String embeddedText(PDFTextStripper stripper, PDDocument doc, int pageIndex) {
+        try {
+            stripper.setStartPage(pageIndex + 1);
+            stripper.setEndPage(pageIndex + 1);
+            String text = stripper.getText(doc);
+            return isPlausibleText(text) ? text : null;
+        } catch (IOException e) {
+            log.debug("Text layer of page {} unreadable, falling back to OCR: {}", pageIndex + 1, e.getMessage());
+            return null;
+        }
+    }
 
-        // Step 2: contrast enhancement via RescaleOp
-        java.awt.image.RescaleOp rescale = new java.awt.image.RescaleOp(
-                new float[]{1.5f}, new float[]{-30f}, null);
-        return rescale.filter(gray, null);
+    private boolean isPlausibleText(String text) {
+        if (text == null) {
+            return false;
+        }
+        int visible = 0;
+        int alphanumeric = 0;
+        int suspicious = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp)) {
+                continue;
+            }
+            visible++;
+            if (Character.isLetterOrDigit(cp)) {
+                alphanumeric++;
+            } else if (cp == 0xFFFD || Character.isISOControl(cp)
+                    || Character.getType(cp) == Character.PRIVATE_USE) {
+                suspicious++;
+            }
+        }
+        return visible >= textLayerMinChars
+                && alphanumeric >= visible / 2
+                && suspicious * 20 <= visible;
     }
 
     // ─────────────────────────────────────────────────────────
-    // Tesseract Factory
+    // Image Preprocessing
     // ─────────────────────────────────────────────────────────
-    private Tesseract buildTesseract() {
-        Tesseract t = new Tesseract();
-        t.setDatapath(tesseractDataPath);
-        t.setLanguage("eng");
-        t.setPageSegMode(3);   // Fully automatic page segmentation, no OSD
-        t.setOcrEngineMode(1); // LSTM engine only (more accurate)
-        log.debug("Tesseract configured — datapath: {}", tesseractDataPath);
-        return t;
+    /**
+     * Grayscale, downscale to {@code ocr.preprocess.target-dpi}, deskew and
+     * binarise on raw pixel buffers (see {@link RasterPreprocessUtil}).
+     */
+    private RasterPreprocessUtil.Result preprocessImage(BufferedImage original, int dpi, OcrProfile profile) {
+        long start = System.nanoTime();
+        RasterPreprocessUtil.Result prepared =
+                RasterPreprocessUtil.preprocess(original, dpi, preprocessOptions(profile));
+        log.debug("Preprocessed {}x{} image in {} ms — skew {}°, {} dpi",
+                original.getWidth(), original.getHeight(), (System.nanoTime() - start) / 1_000_000,
+                prepared.skewDegrees(), prepared.dpi());
+        return prepared;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Engine Pool
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Preprocess and recognise an image on the bounded OCR executor using a
+     * warm engine from the pool.
+     *
+     * @throws OcrBusyException when the OCR queue is full
+     */
+    private String ocr(BufferedImage image, int dpi, OcrProfile profile) throws TesseractException {
+        return ocrEnginePool.call(() -> recognize(image, dpi, profile));
+    }
+
+    /**
+     * Preprocess and recognise; runs on an OCR thread
+     */
+    private String recognize(BufferedImage image, int dpi, OcrProfile profile) throws TesseractException {
+        RasterPreprocessUtil.Result prepared = preprocessImage(image, dpi, profile);
+        return ocrEnginePool.recognize(prepared.image(), prepared.dpi(), profile);
     }
 
     // ─────────────────────────────────────────────────────────
@@ -240,6 +614,16 @@ public class OCRService {
         return text.trim();
     }
 
+    private long decodeTargetPixels(OcrProfile profile) {
+        int megapixels = profile == OcrProfile.FAST
+                ? Math.min(fastDecodeMegapixels, decodeTargetMegapixels) : decodeTargetMegapixels;
+        return megapixels * 1_000_000L;
+    }
+
+    private RasterPreprocessUtil.Options preprocessOptions(OcrProfile profile) {
+        return profile == OcrProfile.FAST ? fastPreprocessOptions : preprocessOptions;
+    }
+
     private String getExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             return "";
@@ -247,24 +631,6 @@ public class OCRService {
         return filename.substring(filename.lastIndexOf('.') + 1);
     }
 
-    private void deleteSilently(File f) {
-        try {
-            if (f != null && f.exists()) {
-                if (f.isDirectory()) {
-                    File[] children = f.listFiles();
-                    if (children != null) {
-                        Arrays.stream(children).forEach(this::deleteSilently);
-                    }
-                }
-                if (!f.delete()) {
-                    log.warn("Could not delete temp path: {}", f.getAbsolutePath());
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Error deleting temp path {}: {}", f, e.getMessage());
-        }
-    }
-
     // ─────────────────────────────────────────────────────────
     // Legacy adapter methods (used by MedicalReportService)
     // ─────────────────────────────────────────────────────────
@@ -282,18 +648,31 @@ public class OCRService {
     }
 
     /**
-     * Adapter: extract text from an already-saved file on disk. Used by
-     * MedicalReportService after it has written the file to storage.
+     * Adapter: extract text from an already-saved file on disk.
      */
     public String processFile(MultipartFile file, String savedFilePath) {
         try {
-            File savedFile = new File(savedFilePath);
-            boolean isPdf = isPdfFile(file);
-            String text = isPdf ? extractFromPdf(savedFile) : extractFromImage(savedFile);
-            return cleanText(text);
-        } catch (Exception e) {
-            log.error("Error processing saved file '{}': {}", savedFilePath, e.getMessage(), e);
+            return processUpload(Files.readAllBytes(Path.of(savedFilePath)),
+                    file.getOriginalFilename(), isPdfFile(file)).getText();
+        } catch (IOException e) {
+            log.error("Error reading saved file '{}': {}", savedFilePath, e.getMessage(), e);
             return "Error: Unable to extract text from file.";
         }
     }
+
+    /**
+     * Extract text from upload bytes already in memory, reporting how each
+     * page was read. Failures other than a full OCR queue are turned into an
+     * error text, as report uploads still keep the file.
+     */
+    public TextExtractionResult processUpload(byte[] content, String filename, boolean pdf) {
+        try {
+            return extractDocument(content, filename, pdf, null);
+        } catch (OcrBusyException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing upload '{}': {}", filename, e.getMessage(), e);
+            return new TextExtractionResult("Error: Unable to extract text from file.", List.of());
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package com.healthcare.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the OCR executor queue is full; controllers answer with
+ * 503 and a Retry-After header.
+ */
+@Getter
+public class OcrBusyException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public OcrBusyException(int retryAfterSeconds) {
+        super("OCR service is busy, please retry in " + retryAfterSeconds + " seconds.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,319 @@
+package com.healthcare.service;
+
+import com.sun.jna.Pointer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.TesseractException;
+import net.sourceforge.tess4j.util.ImageIOHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warm Tesseract engines and the bounded executor that runs OCR on them.
+ * <p>
+ * {@code net.sourceforge.tess4j.Tesseract} initialises and tears down the
+ * native engine (reloading traineddata) on every call, so the pool keeps its
+ * own {@code TessBaseAPI} handles, initialised once at startup and only
+ * cleared between images. There is one engine per OCR thread and
+ * {@link OcrProfile}: the accurate set uses {@code ocr.page-seg-mode} and the
+ * traineddata in {@code tesseract.data.path}, the fast set its own
+ * {@code ocr.profile.fast.*} settings (e.g. a tessdata_fast directory). If the
+ * fast set cannot be created, fast requests share the accurate engines. When
+ * all engines are busy and the queue is full, {@link #submit} fails fast with
+ * {@link OcrBusyException} instead of piling work onto request threads.
+ * </p>
+ */
+@Component
+@Slf4j
+public class OcrEnginePool {
+
+    @Value("${tesseract.data.path:C:/Program Files/Tesseract-OCR/tessdata}")
+    private String tesseractDataPath;
+
+    @Value("${ocr.language:eng}")
+    private String language;
+
+    @Value("${ocr.page-seg-mode:3}")
+    private int pageSegMode;
+
+    @Value("${ocr.engine-mode:1}")
+    private int engineMode;
+
+    @Value("${ocr.profile.fast.enabled:true}")
+    private boolean fastEnabled;
+
+    // Blank = tesseract.data.path
+    @Value("${ocr.profile.fast.data-path:}")
+    private String fastDataPath;
+
+    @Value("${ocr.profile.fast.page-seg-mode:6}")
+    private int fastPageSegMode;
+
+    @Value("${ocr.profile.fast.engine-mode:1}")
+    private int fastEngineMode;
+
+    // 0 = one engine per available core
+    @Value("${ocr.engines:0}")
+    private int configuredEngines;
+
+    @Value("${ocr.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${ocr.busy.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final Map<OcrProfile, BlockingQueue<ITessAPI.TessBaseAPI>> idleEngines = new EnumMap<>(OcrProfile.class);
+    private final Map<OcrProfile, String> engineSignatures = new EnumMap<>(OcrProfile.class);
+    private final List<ITessAPI.TessBaseAPI> allEngines = new ArrayList<>();
+    private int engineCount;
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    void init() {
+        int engines = configuredEngines > 0 ? configuredEngines : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(engines, engines, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "ocr-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Drives streamed OCR requests; the work itself still runs on the OCR executor
+        AtomicInteger jobNumber = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(0, engines + queueCapacity, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "ocr-job-" + jobNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        long start = System.currentTimeMillis();
+        BlockingQueue<ITessAPI.TessBaseAPI> accurate = new LinkedBlockingQueue<>();
+        idleEngines.put(OcrProfile.ACCURATE, accurate);
+        idleEngines.put(OcrProfile.FAST, accurate);
+        engineSignatures.put(OcrProfile.ACCURATE, signature(language, pageSegMode, engineMode));
+        engineSignatures.put(OcrProfile.FAST, engineSignatures.get(OcrProfile.ACCURATE));
+        try {
+            createEngines(accurate, engines, tesseractDataPath, pageSegMode, engineMode);
+            engineCount = engines;
+            log.info("OCR engine pool ready — {} engine(s), queue capacity {}, warmed in {} ms",
+                    engines, queueCapacity, System.currentTimeMillis() - start);
+        } catch (Throwable e) {
+            // Keep the app usable without Tesseract; OCR calls fail until it is installed
+            log.error("Could not initialise Tesseract engines (datapath: {}): {}", tesseractDataPath, e.getMessage());
+            engineCount = allEngines.size();
+            return;
+        }
+
+        if (fastEnabled) {
+            String dataPath = fastDataPath.isBlank() ? tesseractDataPath : fastDataPath;
+            BlockingQueue<ITessAPI.TessBaseAPI> fast = new LinkedBlockingQueue<>();
+            try {
+                createEngines(fast, engines, dataPath, fastPageSegMode, fastEngineMode);
+                idleEngines.put(OcrProfile.FAST, fast);
+                engineSignatures.put(OcrProfile.FAST, signature(language, fastPageSegMode, fastEngineMode)
+                        + (fastDataPath.isBlank() ? "" : "/fastdata"));
+                log.info("Fast OCR engines ready — {} engine(s), psm {}, datapath {}", engines, fastPageSegMode, dataPath);
+            } catch (Throwable e) {
+                log.warn("Could not initialise fast OCR engines (datapath: {}), fast requests use the accurate engines: {}",
+                        dataPath, e.getMessage());
+                fast.forEach(this::destroy);
+                allEngines.removeAll(fast);
+            }
+        }
+    }
+
+    /**
+     * Queue an OCR task on the bounded executor
+     *
+     * @throws OcrBusyException when the queue is full
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("OCR executor saturated — active: {}, queued: {}", executor.getActiveCount(), executor.getQueue().size());
+            throw new OcrBusyException(retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Run a job that coordinates OCR work (e.g. a streamed upload) off the
+     * request thread
+     *
+     * @throws OcrBusyException when too many jobs are running
+     */
+    public void runJob(Runnable job) {
+        try {
+            jobExecutor.execute(job);
+        } catch (RejectedExecutionException e) {
+            throw new OcrBusyException(retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Run OCR and wait for the text, unwrapping task failures
+     */
+    public <T> T call(Callable<T> task) throws TesseractException {
+        return await(submit(task));
+    }
+
+    /**
+     * Wait for a submitted OCR task, unwrapping its failure
+     */
+    public <T> T await(Future<T> future) throws TesseractException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("OCR interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TesseractException te) {
+                throw te;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new TesseractException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Recognise text on a borrowed engine of the profile's set. Meant to run
+     * on an OCR thread (inside {@link #submit}), which guarantees an engine is
+     * free.
+     */
+    public String recognize(BufferedImage image, int dpi, OcrProfile profile) throws TesseractException {
+        if (allEngines.isEmpty()) {
+            throw new TesseractException("Tesseract engine is not available. Check tesseract.data.path.");
+        }
+        BlockingQueue<ITessAPI.TessBaseAPI> idle = idleEngines.get(profile);
+        ITessAPI.TessBaseAPI engine;
+        try {
+            engine = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("OCR interrupted", e);
+        }
+        try {
+            ByteBuffer pixels = ImageIOHelper.convertImageData(image);
+            int bitsPerPixel = image.getColorModel().getPixelSize();
+            int bytesPerLine = (int) Math.ceil(image.getWidth() * bitsPerPixel / 8.0);
+            TessAPI1.TessBaseAPISetImage(engine, pixels, image.getWidth(), image.getHeight(),
+                    bitsPerPixel / 8, bytesPerLine);
+            TessAPI1.TessBaseAPISetSourceResolution(engine, dpi);
+
+            Pointer textPointer = TessAPI1.TessBaseAPIGetUTF8Text(engine);
+            if (textPointer == null) {
+                return "";
+            }
+            try {
+                return textPointer.getString(0, StandardCharsets.UTF_8.name());
+            } finally {
+                TessAPI1.TessDeleteText(textPointer);
+            }
+        } finally {
+            TessAPI1.TessBaseAPIClear(engine);
+            idle.add(engine);
+        }
+    }
+
+    /**
+     * Engines per profile, i.e. OCR tasks that can run at once
+     */
+    public int getEngineCount() {
+        return engineCount;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Whether fast requests have engines of their own
+     */
+    public boolean hasFastEngines() {
+        return idleEngines.get(OcrProfile.FAST) != idleEngines.get(OcrProfile.ACCURATE);
+    }
+
+    /**
+     * Engine settings of a profile that affect recognised text, e.g.
+     * "eng/psm3/oem1"
+     */
+    public String getEngineSignature(OcrProfile profile) {
+        return engineSignatures.get(profile);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Engines must not be freed while a thread is still using one: only
+        // those back in the idle queues are destroyed, the rest are leaked
+        List<ITessAPI.TessBaseAPI> idle = new ArrayList<>();
+        new HashSet<>(idleEngines.values()).forEach(queue -> queue.drainTo(idle));
+        idle.forEach(this::destroy);
+        int inUse = allEngines.size() - idle.size();
+        if (inUse > 0) {
+            log.warn("{} OCR engine(s) still in use after shutdown timeout — not freed", inUse);
+        }
+        allEngines.clear();
+        idleEngines.clear();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void createEngines(BlockingQueue<ITessAPI.TessBaseAPI> idle, int count, String dataPath,
+                               int segMode, int oem) throws TesseractException {
+        for (int i = 0; i < count; i++) {
+            ITessAPI.TessBaseAPI engine = createEngine(dataPath, segMode, oem);
+            allEngines.add(engine);
+            idle.add(engine);
+        }
+    }
+
+    private ITessAPI.TessBaseAPI createEngine(String dataPath, int segMode, int oem) throws TesseractException {
+        ITessAPI.TessBaseAPI engine = TessAPI1.TessBaseAPICreate();
+        if (TessAPI1.TessBaseAPIInit2(engine, dataPath, language, oem) != 0) {
+            TessAPI1.TessBaseAPIDelete(engine);
+            throw new TesseractException("Tesseract init failed for language '" + language + "'");
+        }
+        TessAPI1.TessBaseAPISetPageSegMode(engine, segMode);
+        return engine;
+    }
+
+    private void destroy(ITessAPI.TessBaseAPI engine) {
+        TessAPI1.TessBaseAPIEnd(engine);
+        TessAPI1.TessBaseAPIDelete(engine);
+    }
+
+    private static String signature(String language, int segMode, int oem) {
+        return language + "/psm" + segMode + "/oem" + oem;
+    }
+}
@@ -0,0 +1,91 @@
+package com.healthcare.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Global cap on decoded OCR pixels held in memory at once.
+ * <p>
+ * Every decoded image or rendered PDF page reserves its pixel count (in
+ * units of {@value #PIXELS_PER_PERMIT} pixels) before it is allocated and
+ * releases it once recognition is done, so heap use for OCR stays bounded
+ * whatever the mix of uploads. A reservation that cannot be granted within
+ * {@code ocr.memory.acquire-timeout-ms} fails with {@link OcrBusyException},
+ * like a full OCR queue.
+ * </p>
+ */
+@Component
+@Slf4j
+public class OcrMemoryBudget {
+
+    private static final int PIXELS_PER_PERMIT = 65_536;
+
+    private final Semaphore permits;
+    private final int totalPermits;
+    private final long acquireTimeoutMs;
+    private final int retryAfterSeconds;
+
+    public OcrMemoryBudget(@Value("${ocr.memory.max-megapixels-in-flight:160}") int maxMegapixels,
+                           @Value("${ocr.memory.acquire-timeout-ms:15000}") long acquireTimeoutMs,
+                           @Value("${ocr.busy.retry-after-seconds:5}") int retryAfterSeconds) {
+        this.totalPermits = Math.max(1, (int) (maxMegapixels * 1_000_000L / PIXELS_PER_PERMIT));
+        this.permits = new Semaphore(totalPermits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Reserve room for {@code pixels} decoded pixels, waiting for other OCR
+     * work to release memory if needed
+     *
+     * @throws OcrBusyException when the budget stays exhausted past the timeout
+     */
+    public Reservation reserve(long pixels) {
+        // A single image larger than the whole budget may still run, alone
+        int needed = (int) Math.min(totalPermits, Math.max(1, (pixels + PIXELS_PER_PERMIT - 1) / PIXELS_PER_PERMIT));
+        try {
+            if (!permits.tryAcquire(needed, acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("OCR memory budget exhausted — {} MP requested, {} MP free",
+                        toMegapixels(needed), toMegapixels(permits.availablePermits()));
+                throw new OcrBusyException(retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrBusyException(retryAfterSeconds);
+        }
+        return new Reservation(needed);
+    }
+
+    public double getMegapixelsInUse() {
+        return toMegapixels(totalPermits - permits.availablePermits());
+    }
+
+    private static double toMegapixels(int permitCount) {
+        return permitCount * (double) PIXELS_PER_PERMIT / 1_000_000;
+    }
+
+    /**
+     * Reserved pixels; closing releases them (only the first close counts)
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final int count;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.healthcare.service;
+
+/**
+ * OCR quality tier a document is extracted with.
+ * <p>
+ * {@link #FAST} trades accuracy for latency (lower resolution, the fast
+ * traineddata, simpler page segmentation) and suits previews;
+ * {@link #ACCURATE} is the full pipeline and the only tier whose results are
+ * cached and stored on reports. {@link #AUTO} is not a tier of its own: it is
+ * resolved per request by {@link OCRService#resolveProfile} from OCR queue
+ * pressure.
+ * </p>
+ */
+public enum OcrProfile {
+
+    FAST,
+    ACCURATE,
+    AUTO;
+
+    /**
+     * Parse a request parameter ("fast", "accurate", "auto"), falling back
+     * to {@code defaultProfile} when it is blank
+     *
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public static OcrProfile parse(String name, OcrProfile defaultProfile) {
+        if (name == null || name.isBlank()) {
+            return defaultProfile;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown OCR profile '" + name + "'. Allowed: fast, accurate, auto");
+        }
+    }
+}
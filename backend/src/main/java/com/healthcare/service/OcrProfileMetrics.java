@@ -0,0 +1,90 @@
+package com.healthcare.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory extraction counters per OCR tier since startup: documents,
+ * failures, requests turned away by a full OCR queue, pages, latency, and
+ * how many documents {@link OcrProfile#AUTO} routed to each tier. Reset on
+ * restart.
+ */
+@Component
+public class OcrProfileMetrics {
+
+    private final Map<OcrProfile, Tier> tiers = new EnumMap<>(OcrProfile.class);
+
+    public OcrProfileMetrics() {
+        tiers.put(OcrProfile.FAST, new Tier());
+        tiers.put(OcrProfile.ACCURATE, new Tier());
+    }
+
+    /**
+     * An automatic request was routed to {@code profile}
+     */
+    public void recordRouted(OcrProfile profile) {
+        tiers.get(profile).autoRouted.increment();
+    }
+
+    /**
+     * A finished extraction; {@code ocrPages} counts pages that went through
+     * the engine rather than a PDF text layer
+     */
+    public void recordExtraction(OcrProfile profile, long elapsedMs, int pages, int ocrPages) {
+        Tier tier = tiers.get(profile);
+        tier.documents.increment();
+        tier.pages.add(pages);
+        tier.ocrPages.add(ocrPages);
+        tier.totalMs.add(elapsedMs);
+        tier.maxMs.accumulateAndGet(elapsedMs, Math::max);
+    }
+
+    public void recordFailure(OcrProfile profile) {
+        tiers.get(profile).failures.increment();
+    }
+
+    public void recordRejected(OcrProfile profile) {
+        tiers.get(profile).rejected.increment();
+    }
+
+    /**
+     * Counters per tier, e.g. {"FAST": {"documents": 12, "avgMs": 840, ...}}
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        tiers.forEach((profile, tier) -> {
+            long documents = tier.documents.sum();
+            long ocrPages = tier.ocrPages.sum();
+            long totalMs = tier.totalMs.sum();
+            Map<String, Object> figures = new LinkedHashMap<>();
+            figures.put("documents", documents);
+            figures.put("failures", tier.failures.sum());
+            figures.put("rejected", tier.rejected.sum());
+            figures.put("autoRouted", tier.autoRouted.sum());
+            figures.put("pages", tier.pages.sum());
+            figures.put("ocrPages", ocrPages);
+            figures.put("avgMs", documents > 0 ? totalMs / documents : 0);
+            figures.put("maxMs", tier.maxMs.get());
+            figures.put("avgMsPerOcrPage", ocrPages > 0 ? totalMs / ocrPages : 0);
+            snapshot.put(profile.name(), figures);
+        });
+        return snapshot;
+    }
+
+    private static class Tier {
+
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder autoRouted = new LongAdder();
+        private final LongAdder pages = new LongAdder();
+        private final LongAdder ocrPages = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong();
+    }
+}
@@ -0,0 +1,196 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.LabValue;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.model.OcrResultCache;
+import com.healthcare.repository.OcrResultCacheRepository;
+import com.healthcare.util.UploadIngestUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Extraction results keyed by document content hash and pipeline version.
+ * <p>
+ * The pipeline version is a short hash of {@link OCRService#getPipelineSignature()},
+ * so changing the OCR language, page mode, page limit or text-layer settings
+ * (or bumping {@code ocr.pipeline.revision}) makes earlier entries miss
+ * without any cleanup. Only accurate-profile results are stored; a cached
+ * entry also answers fast requests for the same content. Failed extractions
+ * and failed explanations are never stored. Writes run in their own transaction so a lost insert race between
+ * two identical uploads does not roll back the caller.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OcrResultCacheService {
+
+    private final OcrResultCacheRepository ocrResultCacheRepository;
+    private final OCRService ocrService;
+    private final LabValueExtractor labValueExtractor;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${ocr.result-cache.enabled:true}")
+    private boolean enabled;
+
+    private String pipelineVersion;
+    private TransactionTemplate writeTx;
+
+    @PostConstruct
+    void init() {
+        String signature = ocrService.getPipelineSignature();
+        pipelineVersion = UploadIngestUtil.sha256Hex(signature.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+        writeTx = new TransactionTemplate(transactionManager);
+        writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        log.info("OCR result cache {} — pipeline version {} ({})",
+                enabled ? "enabled" : "disabled", pipelineVersion, signature);
+    }
+
+    /**
+     * Cached results for this content under the current pipeline, counting
+     * the hit
+     */
+    public Optional<OcrResultCache> find(String contentHash) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        Optional<OcrResultCache> entry = ocrResultCacheRepository
+                .findByContentHashAndPipelineVersion(contentHash, pipelineVersion);
+        entry.ifPresent(e -> {
+            try {
+                writeTx.executeWithoutResult(status ->
+                        ocrResultCacheRepository.recordHit(e.getId(), LocalDateTime.now()));
+            } catch (Exception ex) {
+                log.debug("Could not record OCR cache hit for {}: {}", contentHash, ex.getMessage());
+            }
+        });
+        return entry;
+    }
+
+    /**
+     * Cached results without counting a hit, for later stages of a report
+     * job whose extraction stage already counted one
+     */
+    public Optional<OcrResultCache> peek(String contentHash) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        return ocrResultCacheRepository.findByContentHashAndPipelineVersion(contentHash, pipelineVersion);
+    }
+
+    /**
+     * Record a fresh extraction. Returns the stored entry, the one a
+     * concurrent upload stored first, or an unsaved entry when the result is
+     * not cacheable (failed extraction or cache disabled).
+     */
+    public OcrResultCache store(String contentHash, TextExtractionResult result) {
+        OcrResultCache entry = unsaved(contentHash, result);
+        if (!enabled || contentHash == null || !isCacheable(result.getText())) {
+            return entry;
+        }
+        try {
+            return writeTx.execute(status -> ocrResultCacheRepository.save(entry));
+        } catch (DataIntegrityViolationException e) {
+            // Another upload of the same bytes stored it first
+            return ocrResultCacheRepository.findByContentHashAndPipelineVersion(contentHash, pipelineVersion)
+                    .orElse(entry);
+        }
+    }
+
+    /**
+     * An entry for a result that must not be cached, e.g. a fast-profile
+     * extraction, so callers can read it like a cached one
+     */
+    public OcrResultCache unsaved(String contentHash, TextExtractionResult result) {
+        OcrResultCache entry = new OcrResultCache();
+        entry.setContentHash(contentHash);
+        entry.setPipelineVersion(pipelineVersion);
+        entry.setExtractedText(result.getText());
+        entry.setExtractionMethods(result.pageMethodsAsString());
+        entry.setLabValues(writeLabValues(labValueExtractor.extract(result.getText())));
+        entry.setLastUsedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    /**
+     * Explanation cached for this entry, if it was written by the model now
+     * in use
+     */
+    public Optional<String> explanation(OcrResultCache entry, String activeModel) {
+        if (entry.getAiExplanation() == null || !activeModel.equals(entry.getExplanationModel())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.getAiExplanation());
+    }
+
+    public void storeExplanation(OcrResultCache entry, String explanation, String model) {
+        entry.setAiExplanation(explanation);
+        entry.setExplanationModel(model);
+        if (entry.getId() == null || explanation == null
+                || OpenAIService.EXPLANATION_UNAVAILABLE.equals(explanation)) {
+            return;
+        }
+        try {
+            writeTx.executeWithoutResult(status ->
+                    ocrResultCacheRepository.updateExplanation(entry.getId(), explanation, model));
+        } catch (Exception e) {
+            log.warn("Could not cache explanation for {}: {}", entry.getContentHash(), e.getMessage());
+        }
+    }
+
+    public Map<String, LabValue> labValues(OcrResultCache entry) {
+        if (entry.getLabValues() == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(entry.getLabValues(), new TypeReference<LinkedHashMap<String, LabValue>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable cached lab values for {}: {}", entry.getContentHash(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    public List<String> pageMethods(OcrResultCache entry) {
+        String methods = entry.getExtractionMethods();
+        return methods == null || methods.isEmpty() ? Collections.emptyList() : Arrays.asList(methods.split(","));
+    }
+
+    public String getPipelineVersion() {
+        return pipelineVersion;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private boolean isCacheable(String text) {
+        return text != null && !text.startsWith("Error");
+    }
+
+    private String writeLabValues(Map<String, LabValue> labValues) {
+        try {
+            return objectMapper.writeValueAsString(labValues);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -10,10 +10,14 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service for AI integration — supports Ollama (local) and OpenAI
@@ -39,6 +43,11 @@ public class OpenAIService {
     @Value("${ollama.model:llama3:latest}")
     private String ollamaModel;
 
+    /**
+     * Returned by {@link #generateReportExplanation} when the model call fails
+     */
+    public static final String EXPLANATION_UNAVAILABLE = "Unable to generate explanation at this time.";
+
     private static final String OPENAI_API_URL = "https://api.openai.com/v1/chat/completions";
 
     private final RestTemplate restTemplate;
@@ -63,6 +72,13 @@ public class OpenAIService {
         return callOpenAI(messages, 400);
     }
 
+    /**
+     * Model that currently answers requests, e.g. "ollama:phi3:mini"
+     */
+    public String getActiveModel() {
+        return ollamaEnabled ? "ollama:" + ollamaModel : "openai:" + openAiModel;
+    }
+
     /**
      * Check if message contains emergency keywords
      */
@@ -104,6 +120,15 @@ public class OpenAIService {
      * Generate AI response with conversation context
      */
     public ChatResponse generateChatResponse(String userMessage, List<Message> conversationHistory, String healthContext) {
+        return generateChatResponse(userMessage, conversationHistory, healthContext, null);
+    }
+
+    /**
+     * Generate AI response, streaming the English answer text to
+     * {@code onToken} as it is produced (null disables streaming)
+     */
+    public ChatResponse generateChatResponse(String userMessage, List<Message> conversationHistory,
+            String healthContext, Consumer<String> onToken) {
         try {
             // Build conversation messages
             List<Map<String, String>> messages = new ArrayList<>();
@@ -126,7 +151,9 @@ public class OpenAIService {
             messages.add(Map.of("role", "user", "content", userMessage));
 
             // Call OpenAI API
-            String apiResponse = callOpenAI(messages);
+            String apiResponse = onToken != null
+                    ? callOpenAIStream(messages, 600, new EnglishFieldStreamer(onToken))
+                    : callOpenAI(messages);
 
             // Parse and structure response
             return parseStructuredResponse(apiResponse);
@@ -161,7 +188,7 @@ public class OpenAIService {
 
         } catch (Exception e) {
             log.error("Error generating report explanation", e);
-            return "Unable to generate explanation at this time.";
+            return EXPLANATION_UNAVAILABLE;
         }
     }
 
@@ -216,41 +243,205 @@ public class OpenAIService {
 
     private String callOpenAI(List<Map<String, String>> messages, int maxTokens) throws Exception {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        String apiUrl = prepareRequest(headers);
+        Map<String, Object> requestBody = buildRequestBody(messages, maxTokens);
 
-        String apiUrl;
-        String modelName;
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
 
+        ResponseEntity<String> response = restTemplate.exchange(
+                apiUrl,
+                HttpMethod.POST,
+                request,
+                String.class
+        );
+
+        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+        return jsonResponse.get("choices").get(0).get("message").get("content").asText();
+    }
+
+    /**
+     * Streaming variant of callOpenAI — reads the server-sent chunks, passes
+     * each content delta to {@code onDelta} and returns the full text
+     */
+    private String callOpenAIStream(List<Map<String, String>> messages, int maxTokens,
+            Consumer<String> onDelta) {
+        HttpHeaders headers = new HttpHeaders();
+        String apiUrl = prepareRequest(headers);
+        Map<String, Object> requestBody = buildRequestBody(messages, maxTokens);
+        requestBody.put("stream", true);
+
+        return restTemplate.execute(apiUrl, HttpMethod.POST, request -> {
+            request.getHeaders().putAll(headers);
+            objectMapper.writeValue(request.getBody(), requestBody);
+        }, response -> {
+            StringBuilder full = new StringBuilder();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                if (delta.isTextual()) {
+                    full.append(delta.asText());
+                    onDelta.accept(delta.asText());
+                }
+            }
+            return full.toString();
+        });
+    }
+
+    /**
+     * Set content type and auth on the headers; returns the endpoint URL
+     */
+    private String prepareRequest(HttpHeaders headers) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
         if (ollamaEnabled) {
             // Ollama OpenAI-compatible endpoint — no auth needed
-            apiUrl = ollamaBaseUrl + "/v1/chat/completions";
-            modelName = ollamaModel;
-            log.debug("Using Ollama at {} with model {}", apiUrl, modelName);
-        } else {
-            // OpenAI
-            apiUrl = OPENAI_API_URL;
-            modelName = openAiModel;
-            headers.setBearerAuth(apiKey);
-            log.debug("Using OpenAI with model {}", modelName);
+            String apiUrl = ollamaBaseUrl + "/v1/chat/completions";
+            log.debug("Using Ollama at {} with model {}", apiUrl, ollamaModel);
+            return apiUrl;
         }
+        // OpenAI
+        headers.setBearerAuth(apiKey);
+        log.debug("Using OpenAI with model {}", openAiModel);
+        return OPENAI_API_URL;
+    }
 
+    private Map<String, Object> buildRequestBody(List<Map<String, String>> messages, int maxTokens) {
         Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", modelName);
+        requestBody.put("model", ollamaEnabled ? ollamaModel : openAiModel);
         requestBody.put("messages", messages);
         requestBody.put("temperature", 0.7);
         requestBody.put("max_tokens", maxTokens);
+        return requestBody;
+    }
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+    /**
+     * Forwards only the text of the "english" field while the model streams
+     * the bilingual JSON answer; plain-text answers are passed through as-is.
+     * JSON escapes are decoded, including unicode escapes and
+     * surrogate pairs split across deltas.
+     */
+    private static class EnglishFieldStreamer implements Consumer<String> {
+
+        private static final String FIELD = "\"english\"";
+
+        private final Consumer<String> target;
+        private final StringBuilder prefix = new StringBuilder();
+        private boolean passThrough;
+        private boolean inField;
+        private boolean escaped;
+        private boolean done;
+        // Hex digits of a unicode escape still being read, null outside one
+        private StringBuilder unicode;
+        // High surrogate waiting for its low half, 0 when none
+        private char highSurrogate;
+
+        EnglishFieldStreamer(Consumer<String> target) {
+            this.target = target;
+        }
 
-        ResponseEntity<String> response = restTemplate.exchange(
-                apiUrl,
-                HttpMethod.POST,
-                request,
-                String.class
-        );
+        @Override
+        public void accept(String delta) {
+            if (done) {
+                return;
+            }
+            if (passThrough) {
+                target.accept(delta);
+                return;
+            }
+            if (!inField) {
+                prefix.append(delta);
+                String head = prefix.toString().stripLeading().replace("```json", "").replace("```", "").stripLeading();
+                // Wait while only a (possibly partial) code fence has arrived
+                if (!head.isEmpty() && head.charAt(0) != '{' && head.charAt(0) != '`') {
+                    passThrough = true;
+                    target.accept(prefix.toString());
+                    return;
+                }
+                int field = prefix.indexOf(FIELD);
+                int colon = field < 0 ? -1 : prefix.indexOf(":", field + FIELD.length());
+                int quote = colon < 0 ? -1 : prefix.indexOf("\"", colon + 1);
+                if (quote < 0) {
+                    return;
+                }
+                inField = true;
+                delta = prefix.substring(quote + 1);
+            }
+            StringBuilder out = new StringBuilder();
+            for (char c : delta.toCharArray()) {
+                if (unicode != null) {
+                    unicode.append(c);
+                    if (unicode.length() == 4) {
+                        emit(out, decodeHex(unicode));
+                        unicode = null;
+                    }
+                } else if (escaped) {
+                    escaped = false;
+                    if (c == 'u') {
+                        unicode = new StringBuilder(4);
+                    } else {
+                        emit(out, switch (c) {
+                            case 'n' -> '\n';
+                            case 't' -> '\t';
+                            case 'r' -> '\r';
+                            case 'b' -> '\b';
+                            case 'f' -> '\f';
+                            default -> c;
+                        });
+                    }
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    done = true;
+                    break;
+                } else {
+                    emit(out, c);
+                }
+            }
+            if (done && highSurrogate != 0) {
+                out.append('\uFFFD');
+                highSurrogate = 0;
+            }
+            if (out.length() > 0) {
+                target.accept(out.toString());
+            }
+        }
 
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        return jsonResponse.get("choices").get(0).get("message").get("content").asText();
+        /**
+         * Append a decoded char, holding a high surrogate back until its low
+         * half arrives; unpaired halves become U+FFFD
+         */
+        private void emit(StringBuilder out, char c) {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    out.append(high).append(c);
+                    return;
+                }
+                out.append('\uFFFD');
+            }
+            if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else {
+                out.append(Character.isLowSurrogate(c) ? '\uFFFD' : c);
+            }
+        }
+
+        private static char decodeHex(CharSequence hex) {
+            try {
+                return (char) Integer.parseInt(hex.toString(), 16);
+            } catch (NumberFormatException e) {
+                return '\uFFFD';
+            }
+        }
     }
 
     /**
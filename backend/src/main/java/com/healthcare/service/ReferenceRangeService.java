@@ -0,0 +1,334 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.LabFinding;
+import com.healthcare.dto.LabValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Checks lab values against an in-memory table of reference ranges.
+ * <p>
+ * Ranges are in the standard units {@link LabValueExtractor} converts to and
+ * may depend on age and sex. When the sex is unknown (the health profile does
+ * not record it) both ranges are tried: a value normal for one sex and not
+ * the other is {@link LabFinding.Flag#AMBIGUOUS}. A panel where every value
+ * is {@link LabFinding.Flag#NORMAL} gets a templated explanation; anything
+ * abnormal, ambiguous or unrecognised is left to the LLM.
+ * </p>
+ */
+@Service
+@Slf4j
+public class ReferenceRangeService {
+
+    public enum Sex {
+        ANY,
+        MALE,
+        FEMALE
+    }
+
+    private static final int ADULT_AGE = 18;
+    private static final int MAX_AGE = 150;
+
+    // Assumed when the profile has no age
+    private static final int DEFAULT_AGE = 30;
+
+    private static final int MAX_LISTED_VALUES = 8;
+
+    // Measurements reported alongside labs that have no normal range
+    private static final Set<String> INFO_ONLY = Set.of("Weight", "Height");
+
+    // Qualitative results the range table cannot judge; "non-reactive", "not detected" etc. are excluded
+    private static final Pattern QUALITATIVE_FINDING = Pattern.compile(
+            "(?i)(?<!non[- ])(?<!not )\\b(abnormal|critical|positive|reactive|detected)\\b");
+
+    private final Map<String, List<Range>> ranges = new HashMap<>();
+
+    public ReferenceRangeService() {
+        adult("Glucose", "mg/dL", 70.0, 99.0);
+        adult("HbA1c", "%", 4.0, 5.6);
+        bySex("Hemoglobin", "g/dL", 13.5, 17.5, 12.0, 15.5);
+        child("Hemoglobin", "g/dL", 11.0, 15.5);
+        bySex("Hematocrit", "%", 41.0, 50.0, 36.0, 44.0);
+        child("Hematocrit", "%", 33.0, 45.0);
+        adult("WBC", "10^3/µL", 4.0, 11.0);
+        child("WBC", "10^3/µL", 4.5, 13.5);
+        bySex("RBC", "10^6/µL", 4.5, 5.9, 4.1, 5.1);
+        any("Platelets", "10^3/µL", 150.0, 450.0);
+        any("MCV", "fL", 80.0, 100.0);
+        any("MCH", "pg", 27.0, 33.0);
+        any("MCHC", "g/dL", 32.0, 36.0);
+        any("Sodium", "mmol/L", 135.0, 145.0);
+        any("Potassium", "mmol/L", 3.5, 5.1);
+        any("Chloride", "mmol/L", 98.0, 107.0);
+        any("Bicarbonate", "mmol/L", 22.0, 29.0);
+        any("HCO3", "mmol/L", 22.0, 26.0);
+        add("BUN", "mg/dL", Sex.ANY, 0, 60, 7.0, 20.0);
+        add("BUN", "mg/dL", Sex.ANY, 60, MAX_AGE, 8.0, 23.0);
+        bySex("Creatinine", "mg/dL", 0.74, 1.35, 0.59, 1.04);
+        child("Creatinine", "mg/dL", 0.3, 0.7);
+        any("eGFR", "mL/min/1.73m²", 60.0, null);
+        any("AST", "U/L", 10.0, 40.0);
+        any("ALT", "U/L", 7.0, 56.0);
+        adult("ALP", "U/L", 44.0, 147.0);
+        // Bone growth keeps ALP high through adolescence
+        child("ALP", "U/L", 100.0, 400.0);
+        any("Total Bilirubin", "mg/dL", 0.1, 1.2);
+        any("Albumin", "g/dL", 3.5, 5.0);
+        adult("Total Cholesterol", "mg/dL", null, 199.0);
+        adult("LDL", "mg/dL", null, 99.0);
+        bySex("HDL", "mg/dL", 40.0, null, 50.0, null);
+        adult("Triglycerides", "mg/dL", null, 149.0);
+        any("TSH", "mIU/L", 0.4, 4.0);
+        any("T3", "ng/dL", 80.0, 200.0);
+        any("T4", "µg/dL", 5.0, 12.0);
+        any("Calcium", "mg/dL", 8.6, 10.3);
+        any("Magnesium", "mg/dL", 1.7, 2.2);
+        adult("Phosphorus", "mg/dL", 2.5, 4.5);
+        child("Phosphorus", "mg/dL", 4.0, 7.0);
+        bySex("Iron", "µg/dL", 65.0, 175.0, 50.0, 170.0);
+        bySex("Ferritin", "ng/mL", 24.0, 336.0, 11.0, 307.0);
+        any("Vitamin D", "ng/mL", 30.0, 100.0);
+        any("Vitamin B12", "pg/mL", 200.0, 900.0);
+        any("Folate", "ng/mL", 2.7, 17.0);
+        adult("PSA", "ng/mL", null, 4.0);
+        any("CRP", "mg/L", null, 10.0);
+        add("ESR", "mm/h", Sex.MALE, ADULT_AGE, 50, null, 15.0);
+        add("ESR", "mm/h", Sex.FEMALE, ADULT_AGE, 50, null, 20.0);
+        add("ESR", "mm/h", Sex.MALE, 50, MAX_AGE, null, 20.0);
+        add("ESR", "mm/h", Sex.FEMALE, 50, MAX_AGE, null, 30.0);
+        any("PT", "s", 11.0, 13.5);
+        any("INR", null, 0.8, 1.1);
+        any("aPTT", "s", 25.0, 35.0);
+        any("pH", null, 7.35, 7.45);
+        any("pCO2", "mmHg", 35.0, 45.0);
+        any("pO2", "mmHg", 75.0, 100.0);
+        any("O2 Saturation", "%", 95.0, 100.0);
+        any("SpO2", "%", 95.0, 100.0);
+        Range bloodPressure = add("Blood Pressure", "mmHg", Sex.ANY, ADULT_AGE, MAX_AGE, 90.0, 119.0);
+        bloodPressure.secondaryLow = 60.0;
+        bloodPressure.secondaryHigh = 79.0;
+        adult("Heart Rate", "bpm", 60.0, 100.0);
+        adult("Pulse", "bpm", 60.0, 100.0);
+        any("Temperature", "°F", 97.0, 99.5);
+        adult("BMI", "kg/m²", 18.5, 24.9);
+    }
+
+    /**
+     * Flag each value for a patient of the given age and sex (either may be
+     * null when unknown)
+     */
+    public List<LabFinding> evaluate(Collection<LabValue> values, Integer age, Sex sex) {
+        List<LabFinding> findings = new ArrayList<>(values.size());
+        for (LabValue value : values) {
+            findings.add(evaluate(value, age != null ? age : DEFAULT_AGE, sex));
+        }
+        return findings;
+    }
+
+    /**
+     * True when there is at least one checked value and all are normal, so
+     * no model needs to look at the report
+     */
+    public boolean isAllNormal(List<LabFinding> findings) {
+        boolean anyNormal = false;
+        for (LabFinding finding : findings) {
+            if (finding.getFlag() == LabFinding.Flag.NORMAL) {
+                anyNormal = true;
+            } else if (finding.getFlag() != LabFinding.Flag.INFO) {
+                return false;
+            }
+        }
+        return anyNormal;
+    }
+
+    /**
+     * Whether the report text states a qualitative finding (e.g. "Culture:
+     * positive") that numeric ranges cannot vouch for
+     */
+    public boolean mentionsQualitativeFinding(String text) {
+        return text != null && QUALITATIVE_FINDING.matcher(text).find();
+    }
+
+    public int countAbnormal(List<LabFinding> findings) {
+        return (int) findings.stream()
+                .filter(f -> f.getFlag() == LabFinding.Flag.LOW || f.getFlag() == LabFinding.Flag.HIGH)
+                .count();
+    }
+
+    /**
+     * Patient-facing summary for a panel where {@link #isAllNormal} holds
+     */
+    public String normalPanelExplanation(List<LabFinding> findings, Integer age) {
+        List<LabFinding> normal = findings.stream()
+                .filter(f -> f.getFlag() == LabFinding.Flag.NORMAL)
+                .toList();
+        String listed = normal.stream()
+                .limit(MAX_LISTED_VALUES)
+                .map(this::describe)
+                .collect(Collectors.joining("; "));
+        if (normal.size() > MAX_LISTED_VALUES) {
+            listed += "; and " + (normal.size() - MAX_LISTED_VALUES) + " more";
+        }
+        return "Good news: " + (normal.size() == 1 ? "the lab value we could read from this report is"
+                : "all " + normal.size() + " lab values we could read from this report are")
+                + " within the usual reference range" + (age != null ? " for your age" : "")
+                + " — " + listed + ". "
+                + "Nothing in these results stands out as needing attention. "
+                + "Keep up your routine check-ups, and talk to your doctor if you have symptoms "
+                + "or questions about these numbers.";
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Evaluation
+    // ─────────────────────────────────────────────────────────
+    private LabFinding evaluate(LabValue value, int age, Sex sex) {
+        LabFinding finding = new LabFinding(value.getName(), value.getValue(), value.getSecondaryValue(),
+                value.getUnit(), null, null, LabFinding.Flag.UNKNOWN);
+        if (INFO_ONLY.contains(value.getName())) {
+            finding.setFlag(LabFinding.Flag.INFO);
+            return finding;
+        }
+        List<Range> rows = ranges.get(value.getName());
+        if (rows == null || Double.isNaN(value.getValue())) {
+            return finding;
+        }
+
+        LabFinding.Flag flag = null;
+        Double low = null;
+        Double high = null;
+        boolean first = true;
+        for (Range range : rows) {
+            if (age < range.minAge || age >= range.maxAge
+                    || (sex != null && sex != Sex.ANY && range.sex != Sex.ANY && range.sex != sex)
+                    || !sameUnit(range.unit, value.getUnit())) {
+                continue;
+            }
+            LabFinding.Flag rowFlag = range.flag(value);
+            flag = flag == null || flag == rowFlag ? rowFlag : LabFinding.Flag.AMBIGUOUS;
+            // Report the widest bounds across the ranges that applied
+            low = first ? range.low : minOrNull(low, range.low);
+            high = first ? range.high : maxOrNull(high, range.high);
+            first = false;
+        }
+        if (flag != null) {
+            finding.setFlag(flag);
+            finding.setLow(low);
+            finding.setHigh(high);
+        }
+        return finding;
+    }
+
+    private boolean sameUnit(String expected, String actual) {
+        // A unitless value is taken to be in the standard unit
+        return expected == null || actual == null || expected.equals(actual);
+    }
+
+    private String describe(LabFinding finding) {
+        String value = format(finding.getValue())
+                + (finding.getSecondaryValue() != null ? "/" + format(finding.getSecondaryValue()) : "")
+                + (finding.getUnit() != null ? " " + finding.getUnit() : "");
+        String range;
+        if (finding.getLow() != null && finding.getHigh() != null) {
+            range = "normal " + format(finding.getLow()) + "–" + format(finding.getHigh());
+        } else if (finding.getHigh() != null) {
+            range = "normal up to " + format(finding.getHigh());
+        } else {
+            range = "normal " + format(finding.getLow()) + " or above";
+        }
+        return finding.getName() + " " + value + " (" + range + ")";
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static Double minOrNull(Double a, Double b) {
+        return a == null || b == null ? null : Math.min(a, b);
+    }
+
+    private static Double maxOrNull(Double a, Double b) {
+        return a == null || b == null ? null : Math.max(a, b);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Table
+    // ─────────────────────────────────────────────────────────
+    private void any(String name, String unit, Double low, Double high) {
+        add(name, unit, Sex.ANY, 0, MAX_AGE, low, high);
+    }
+
+    private void adult(String name, String unit, Double low, Double high) {
+        add(name, unit, Sex.ANY, ADULT_AGE, MAX_AGE, low, high);
+    }
+
+    private void child(String name, String unit, Double low, Double high) {
+        add(name, unit, Sex.ANY, 1, ADULT_AGE, low, high);
+    }
+
+    private void bySex(String name, String unit, Double maleLow, Double maleHigh, Double femaleLow, Double femaleHigh) {
+        add(name, unit, Sex.MALE, ADULT_AGE, MAX_AGE, maleLow, maleHigh);
+        add(name, unit, Sex.FEMALE, ADULT_AGE, MAX_AGE, femaleLow, femaleHigh);
+    }
+
+    private Range add(String name, String unit, Sex sex, int minAge, int maxAge, Double low, Double high) {
+        Range range = new Range(unit, sex, minAge, maxAge, low, high);
+        ranges.computeIfAbsent(name, k -> new ArrayList<>()).add(range);
+        return range;
+    }
+
+    private static final class Range {
+
+        private final String unit;
+        private final Sex sex;
+        // [minAge, maxAge) in years
+        private final int minAge;
+        private final int maxAge;
+        private final Double low;
+        private final Double high;
+        // Second number of a paired reading (diastolic blood pressure)
+        private Double secondaryLow;
+        private Double secondaryHigh;
+
+        Range(String unit, Sex sex, int minAge, int maxAge, Double low, Double high) {
+            this.unit = unit;
+            this.sex = sex;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.low = low;
+            this.high = high;
+        }
+
+        LabFinding.Flag flag(LabValue value) {
+            LabFinding.Flag primary = compare(value.getValue(), low, high);
+            if (value.getSecondaryValue() == null || (secondaryLow == null && secondaryHigh == null)) {
+                return primary;
+            }
+            LabFinding.Flag secondary = compare(value.getSecondaryValue(), secondaryLow, secondaryHigh);
+            if (primary == LabFinding.Flag.HIGH || secondary == LabFinding.Flag.HIGH) {
+                return LabFinding.Flag.HIGH;
+            }
+            return primary == LabFinding.Flag.LOW || secondary == LabFinding.Flag.LOW
+                    ? LabFinding.Flag.LOW : LabFinding.Flag.NORMAL;
+        }
+
+        private static LabFinding.Flag compare(double value, Double low, Double high) {
+            if (low != null && value < low) {
+                return LabFinding.Flag.LOW;
+            }
+            if (high != null && value > high) {
+                return LabFinding.Flag.HIGH;
+            }
+            return LabFinding.Flag.NORMAL;
+        }
+    }
+}
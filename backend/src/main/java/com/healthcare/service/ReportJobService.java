@@ -0,0 +1,584 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.LabFinding;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.model.HealthProfile;
+import com.healthcare.model.MedicalReport;
+import com.healthcare.model.OcrResultCache;
+import com.healthcare.model.ReportJob;
+import com.healthcare.model.ReportJob.JobStage;
+import com.healthcare.model.ReportJob.JobStatus;
+import com.healthcare.repository.HealthProfileRepository;
+import com.healthcare.repository.MedicalReportRepository;
+import com.healthcare.repository.ReportJobRepository;
+import com.healthcare.util.StructuredLabParser.Format;
+import com.healthcare.websocket.ChatSocketRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs uploaded reports through OCR, lab extraction and explanation in the
+ * background.
+ * <p>
+ * Each report gets a durable {@link ReportJob}. Workers claim a queued job
+ * with a conditional update, run its current stage outside any transaction
+ * and then save the stage's output to the report and advance the job in one
+ * short transaction, so a report fills in stage by stage and a retry or
+ * restart resumes at the stage that did not finish. Failed stages are retried
+ * with exponential backoff; a full OCR queue defers the job without using up
+ * an attempt. Jobs the executor cannot take right away stay queued in the
+ * database and are picked up by the poller. Progress is pushed to the
+ * owner's WebSocket connections as {@code report.job} events.
+ * </p>
+ * <p>
+ * A claim records the claiming node. While a stage runs the node keeps the
+ * job's {@code updated_at} fresh with a heartbeat, and every state change is
+ * a conditional update that only applies while the node still holds the
+ * claim; a worker that lost it (requeued as stale, taken by another node)
+ * abandons the job without writing its results. On startup a node requeues
+ * only the jobs it was running itself; jobs of a node that never comes back
+ * are requeued by any node once they go stale.
+ * </p>
+ * <p>
+ * Jobs created by bulk re-processing ({@link ReportReprocessService}) are
+ * taken after upload jobs, send no events and leave a report's earlier
+ * results in place when they fail.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReportJobService {
+
+    public static final String JOB_EVENT = "report.job";
+
+    private static final String EXTRACTION_FAILED = "Error: Unable to extract text from file.";
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000L;
+    static final List<JobStatus> ACTIVE = List.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private final ReportJobRepository reportJobRepository;
+    private final MedicalReportRepository medicalReportRepository;
+    private final HealthProfileRepository healthProfileRepository;
+    private final OCRService ocrService;
+    private final OpenAIService openAIService;
+    private final OcrResultCacheService ocrResultCacheService;
+    private final LabValueExtractor labValueExtractor;
+    private final StructuredLabImportService structuredLabImportService;
+    private final ReferenceRangeService referenceRangeService;
+    private final ChatSocketRegistry chatSocketRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${report.jobs.workers:2}")
+    private int workers;
+
+    @Value("${report.jobs.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${report.jobs.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${report.jobs.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${report.jobs.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    // Stable across restarts of the same node; defaults to the host name
+    @Value("${report.jobs.node-id:}")
+    private String nodeId;
+
+    // False when neither was available and a random id is used for this run
+    private boolean stableNodeId = true;
+
+    private final Set<Long> dispatched = ConcurrentHashMap.newKeySet();
+    // Jobs this node has claimed and is running
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = localHostName();
+        }
+        if (nodeId == null) {
+            nodeId = "node-" + UUID.randomUUID();
+            stableNodeId = false;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Report job executor ready — node {}, {} worker(s), queue capacity {}, max attempts {}",
+                nodeId, workers, queueCapacity, maxAttempts);
+    }
+
+    /**
+     * Save a stored, not yet processed report together with its job and start
+     * processing it
+     */
+    public ReportJob submit(MedicalReport report) {
+        return submit(report, JobStage.OCR);
+    }
+
+    /**
+     * Same as {@link #submit(MedicalReport)}, starting at {@code stage}, e.g.
+     * LABS for an import whose text is already on the report. Inside a
+     * caller's transaction the job starts once that commits.
+     */
+    public ReportJob submit(MedicalReport report, JobStage stage) {
+        report.setProcessingStatus(MedicalReport.ProcessingStatus.PROCESSING);
+        ReportJob job = tx.execute(status -> {
+            MedicalReport saved = medicalReportRepository.save(report);
+            ReportJob created = new ReportJob();
+            created.setReportId(saved.getId());
+            created.setUserId(saved.getUser().getId());
+            created.setStage(stage);
+            created.setUpdatedAt(LocalDateTime.now());
+            return reportJobRepository.save(created);
+        });
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(job.getId());
+                }
+            });
+        } else {
+            dispatch(job.getId());
+        }
+        return job;
+    }
+
+    /**
+     * Job state for its owner
+     */
+    public ReportJob getJob(Long jobId, Long userId) {
+        ReportJob job = reportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+        if (!job.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to job");
+        }
+        return job;
+    }
+
+    /**
+     * Start jobs already saved as queued, e.g. by bulk re-processing; any the
+     * executor has no room for are left to the poller
+     */
+    public void dispatchAll(List<Long> jobIds) {
+        for (Long jobId : jobIds) {
+            if (!dispatch(jobId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * True while upload jobs are waiting or running; bulk work yields to them
+     */
+    public boolean hasInteractiveWork() {
+        return reportJobRepository.countByRunIdIsNullAndStatusIn(ACTIVE) > 0;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Dispatch & recovery
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * Requeue jobs this node was running when its previous process stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void recoverInterruptedJobs() {
+        Integer requeued = !stableNodeId ? null : tx.execute(status ->
+                reportJobRepository.requeueInterrupted(nodeId, startedAt, LocalDateTime.now()));
+        if (requeued != null && requeued > 0) {
+            log.info("Requeued {} report job(s) interrupted by the last shutdown", requeued);
+        }
+        pollDueJobs();
+    }
+
+    /**
+     * Pick up queued jobs that are due: retries whose backoff has passed and
+     * jobs the executor had no room for. Jobs stuck running (a worker lost
+     * without shutdown) are requeued after {@code stale-after-minutes}.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.poll-interval-ms:5000}")
+    void pollDueJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        tx.executeWithoutResult(status ->
+                reportJobRepository.requeueStale(now.minusMinutes(staleAfterMinutes), now));
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        List<Long> due = reportJobRepository.findDueJobIds(now, PageRequest.of(0, room));
+        for (Long jobId : due) {
+            if (!dispatch(jobId)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Keep the claims of running jobs alive; a job whose claim is gone is
+     * abandoned at its next state change
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.heartbeat-interval-ms:60000}")
+    void heartbeat() {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(claimed);
+        Integer alive = tx.execute(status -> reportJobRepository.heartbeat(ids, nodeId, LocalDateTime.now()));
+        if (alive != null && alive < ids.size()) {
+            log.warn("{} of {} running report job(s) lost their claim", ids.size() - alive, ids.size());
+        }
+    }
+
+    /**
+     * Hand a job to the executor unless it is already there
+     *
+     * @return false when the executor queue is full (the job stays queued)
+     */
+    private boolean dispatch(Long jobId) {
+        if (!dispatched.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    dispatched.remove(jobId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            dispatched.remove(jobId);
+            log.debug("Report job executor full — job {} stays queued", jobId);
+            return false;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Stages
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * Claim the job and run its remaining stages
+     */
+    private void run(Long jobId) {
+        Integer taken = tx.execute(status -> reportJobRepository.claim(jobId, nodeId, LocalDateTime.now()));
+        if (taken == null || taken == 0) {
+            return;
+        }
+        claimed.add(jobId);
+        try {
+            runClaimed(jobId);
+        } finally {
+            claimed.remove(jobId);
+        }
+    }
+
+    private void runClaimed(Long jobId) {
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        push(job);
+
+        while (job != null && job.getStatus() == JobStatus.RUNNING) {
+            MedicalReport report = medicalReportRepository.findById(job.getReportId()).orElse(null);
+            if (report == null) {
+                job = finish(jobId, JobStatus.FAILED, "Report was deleted", null, null);
+                break;
+            }
+            JobStage stage = job.getStage();
+            try {
+                job = switch (stage) {
+                    case STORED, OCR -> runOcr(job, report);
+                    case LABS -> runLabs(job, report);
+                    case EXPLANATION -> runExplanation(job, report);
+                    case DONE -> finish(jobId, JobStatus.COMPLETED, null, MedicalReport.ProcessingStatus.READY, null);
+                };
+            } catch (OcrBusyException e) {
+                job = defer(job, e.getRetryAfterSeconds() * 1000L, e.getMessage(), false);
+            } catch (IllegalArgumentException | NoSuchFileException e) {
+                // Nothing a retry can fix (image too large, stored file gone)
+                log.warn("Report job {} failed at {}: {}", jobId, stage, e.getMessage());
+                job = failReport(job, e.getMessage());
+            } catch (Exception e) {
+                log.warn("Report job {} stage {} attempt {} failed: {}", jobId, stage, job.getAttempts(), e.getMessage());
+                job = job.getAttempts() >= maxAttempts
+                        ? failReport(job, e.getMessage())
+                        : defer(job, backoff(job.getAttempts()), e.getMessage(), true);
+            }
+            if (job != null) {
+                push(job);
+            }
+        }
+    }
+
+    /**
+     * Text from the cache or the OCR pipeline; lab exports are read again
+     * instead (re-processing)
+     */
+    private ReportJob runOcr(ReportJob job, MedicalReport report) throws Exception {
+        Optional<Format> structured = structuredLabImportService.detect(report.getFileName(), report.getFileType());
+        if (structured.isPresent()) {
+            TextExtractionResult extraction;
+            try (InputStream in = Files.newInputStream(Path.of(report.getFilePath()))) {
+                extraction = structuredLabImportService.read(in, structured.get()).extraction();
+            }
+            return advance(job, JobStage.LABS, r -> {
+                r.setExtractedText(extraction.getText());
+                r.setExtractionMethods(extraction.pageMethodsAsString());
+            });
+        }
+        OcrResultCache cached = ocrResultCacheService.find(report.getContentHash()).orElse(null);
+        if (cached == null) {
+            TextExtractionResult extraction = ocrService.extractDocument(
+                    Path.of(report.getFilePath()), report.getFileName(), isPdf(report), null);
+            cached = ocrResultCacheService.store(report.getContentHash(), extraction);
+        }
+        String text = cached.getExtractedText();
+        String methods = cached.getExtractionMethods();
+        return advance(job, JobStage.LABS, r -> {
+            r.setExtractedText(text);
+            r.setExtractionMethods(methods);
+        });
+    }
+
+    /**
+     * Lab values checked against reference ranges
+     */
+    private ReportJob runLabs(ReportJob job, MedicalReport report) {
+        List<LabFinding> findings = evaluate(report);
+        Integer abnormal = findings.isEmpty() ? null : referenceRangeService.countAbnormal(findings);
+        return advance(job, JobStage.EXPLANATION, r -> r.setAbnormalCount(abnormal));
+    }
+
+    /**
+     * Templated text for all-normal panels, otherwise the cached or a fresh
+     * model explanation. A failed model call is retried; after the last
+     * attempt the report is finished with the fallback text.
+     */
+    private ReportJob runExplanation(ReportJob job, MedicalReport report) {
+        String text = report.getExtractedText();
+        List<LabFinding> findings = evaluate(report);
+        String explanation = "";
+        if (referenceRangeService.isAllNormal(findings) && !referenceRangeService.mentionsQualitativeFinding(text)) {
+            log.info("All {} lab value(s) within reference ranges — using templated explanation", findings.size());
+            explanation = referenceRangeService.normalPanelExplanation(findings, age(report));
+        } else if (text != null && !text.startsWith("Error")) {
+            String model = openAIService.getActiveModel();
+            OcrResultCache cached = ocrResultCacheService.peek(report.getContentHash()).orElse(null);
+            Optional<String> cachedExplanation = cached == null || job.isRefreshExplanation()
+                    ? Optional.empty() : ocrResultCacheService.explanation(cached, model);
+            if (cachedExplanation.isPresent()) {
+                explanation = cachedExplanation.get();
+            } else {
+                log.info("Generating AI explanation for report {}", report.getId());
+                explanation = openAIService.generateReportExplanation(text);
+                if (OpenAIService.EXPLANATION_UNAVAILABLE.equals(explanation) && job.getAttempts() < maxAttempts) {
+                    throw new RuntimeException("Explanation model unavailable");
+                }
+                if (cached != null) {
+                    ocrResultCacheService.storeExplanation(cached, explanation, model);
+                }
+            }
+        }
+        String result = explanation;
+        return advance(job, JobStage.DONE, r -> {
+            r.setAiExplanation(result);
+            r.setProcessingStatus(MedicalReport.ProcessingStatus.READY);
+        });
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // State transitions (each in its own short transaction)
+    // ─────────────────────────────────────────────────────────
+    // Each one first updates the job row on condition that this node still
+    // holds the claim; the row stays locked until commit, so the claim cannot
+    // be taken away while the stage's output is saved. They return null when
+    // the claim is gone and the job must be abandoned.
+
+    /**
+     * Save a stage's output and move the job to {@code next}; DONE completes it
+     */
+    private ReportJob advance(ReportJob job, JobStage next, Consumer<MedicalReport> output) {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // The next stage runs right away under the same claim
+            int updated = reportJobRepository.advanceClaimed(job.getId(), nodeId, next,
+                    next == JobStage.DONE ? 0 : 1, now);
+            if (updated > 0 && next == JobStage.DONE) {
+                updated = reportJobRepository.finishClaimed(job.getId(), nodeId, JobStatus.COMPLETED, null, now);
+            }
+            if (updated == 0) {
+                return abandon(job.getId(), status);
+            }
+            MedicalReport report = medicalReportRepository.findById(job.getReportId()).orElse(null);
+            if (report == null) {
+                status.setRollbackOnly();
+                return null;
+            }
+            output.accept(report);
+            return reportJobRepository.findById(job.getId()).orElse(null);
+        });
+    }
+
+    /**
+     * Put the job back in the queue, due after {@code delayMs}
+     *
+     * @param countAttempt false when the stage never got to run (busy OCR)
+     */
+    private ReportJob defer(ReportJob job, long delayMs, String error, boolean countAttempt) {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (reportJobRepository.deferClaimed(job.getId(), nodeId, countAttempt ? 0 : 1, truncate(error),
+                    now.plusNanos(delayMs * 1_000_000L), now) == 0) {
+                return abandon(job.getId(), status);
+            }
+            return reportJobRepository.findById(job.getId()).orElse(null);
+        });
+    }
+
+    /**
+     * Give up on the report: a failed extraction keeps the file and an error
+     * text, as synchronous uploads did
+     */
+    private ReportJob failReport(ReportJob job, String error) {
+        if (job.getRunId() != null) {
+            // Re-processing: the report keeps its earlier results
+            return finish(job.getId(), JobStatus.FAILED, error, null, null);
+        }
+        boolean extraction = job.getStage() == JobStage.OCR || job.getStage() == JobStage.STORED;
+        return finish(job.getId(), JobStatus.FAILED, error, MedicalReport.ProcessingStatus.FAILED,
+                extraction ? r -> r.setExtractedText(EXTRACTION_FAILED) : null);
+    }
+
+    /**
+     * @param output further changes to the report, or null
+     */
+    private ReportJob finish(Long jobId, JobStatus outcome, String error, MedicalReport.ProcessingStatus reportStatus,
+                             Consumer<MedicalReport> output) {
+        return tx.execute(status -> {
+            if (reportJobRepository.finishClaimed(jobId, nodeId, outcome, truncate(error), LocalDateTime.now()) == 0) {
+                return abandon(jobId, status);
+            }
+            ReportJob current = reportJobRepository.findById(jobId).orElse(null);
+            if (current != null && (reportStatus != null || output != null)) {
+                medicalReportRepository.findById(current.getReportId()).ifPresent(r -> {
+                    if (output != null) {
+                        output.accept(r);
+                    }
+                    if (reportStatus != null) {
+                        r.setProcessingStatus(reportStatus);
+                    }
+                });
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Roll back a transition whose claim is gone; the job is left to
+     * whoever holds it now
+     */
+    private ReportJob abandon(Long jobId, TransactionStatus status) {
+        status.setRollbackOnly();
+        log.warn("Report job {} lost its claim on node {} — abandoning its result", jobId, nodeId);
+        return null;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private List<LabFinding> evaluate(MedicalReport report) {
+        return referenceRangeService.evaluate(
+                labValueExtractor.extract(report.getExtractedText()).values(), age(report), null);
+    }
+
+    private Integer age(MedicalReport report) {
+        return healthProfileRepository.findByUser(report.getUser()).map(HealthProfile::getAge).orElse(null);
+    }
+
+    private boolean isPdf(MedicalReport report) {
+        String name = report.getFileName();
+        return "application/pdf".equalsIgnoreCase(report.getFileType())
+                || (name != null && name.toLowerCase().endsWith(".pdf"));
+    }
+
+    private long backoff(int attempts) {
+        return Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(attempts - 1, 16));
+    }
+
+    private void push(ReportJob job) {
+        if (job.getRunId() != null) {
+            return;
+        }
+        chatSocketRegistry.pushToUser(job.getUserId(), JOB_EVENT, job);
+    }
+
+    private String truncate(String error) {
+        return error == null || error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            // Without an id of its own the node cannot tell its jobs from others'
+            log.warn("Could not resolve the host name; set report.jobs.node-id. Interrupted jobs "
+                    + "will only be requeued once stale");
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Running jobs stay RUNNING and are requeued when this node starts again
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,292 @@
+package com.healthcare.service;
+
+import com.healthcare.model.ReportJob;
+import com.healthcare.model.ReprocessRun;
+import com.healthcare.model.ReprocessRun.RunStatus;
+import com.healthcare.model.User;
+import com.healthcare.repository.MedicalReportRepository;
+import com.healthcare.repository.ReportJobRepository;
+import com.healthcare.repository.ReprocessRunRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-runs stored reports through the report job pipeline after OCR settings
+ * or the explanation prompt changed.
+ * <p>
+ * A run walks {@code medical_reports} by id up to the highest id present when
+ * it started. Every tick the feeder creates a few {@link ReportJob}s, no more
+ * than the run's in-flight limit and rate allow, and saves the last report id
+ * with them in one transaction; jobs are durable, so after a restart the run
+ * simply continues from its checkpoint. The feeder skips ticks while upload
+ * jobs or OCR requests are waiting, and the job poller takes upload jobs
+ * first, so interactive work is never queued behind a run. OCR results come
+ * from the extraction cache unless the pipeline version changed.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReportReprocessService {
+
+    private static final List<RunStatus> OPEN = List.of(RunStatus.RUNNING, RunStatus.PAUSED);
+
+    private final ReprocessRunRepository reprocessRunRepository;
+    private final ReportJobRepository reportJobRepository;
+    private final MedicalReportRepository medicalReportRepository;
+    private final ReportJobService reportJobService;
+    private final OcrEnginePool ocrEnginePool;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${report.reprocess.max-in-flight:2}")
+    private int defaultMaxInFlight;
+
+    @Value("${report.reprocess.rate-per-minute:30}")
+    private int defaultRatePerMinute;
+
+    private TransactionTemplate tx;
+
+    // Token bucket for the active run's rate limit
+    private Long bucketRunId;
+    private double tokens;
+    private long lastRefillNanos;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start re-processing every report stored so far
+     *
+     * @param maxInFlight   jobs queued or running at once (null for the default)
+     * @param ratePerMinute jobs started per minute (null for the default)
+     */
+    public ReprocessRun start(boolean refreshExplanation, Integer maxInFlight, Integer ratePerMinute, User admin) {
+        if (reprocessRunRepository.findFirstByStatusInOrderByIdDesc(OPEN).isPresent()) {
+            throw new RuntimeException("A re-processing run is already in progress");
+        }
+        int inFlight = maxInFlight != null ? maxInFlight : defaultMaxInFlight;
+        int rate = ratePerMinute != null ? ratePerMinute : defaultRatePerMinute;
+        if (inFlight < 1 || rate < 1) {
+            throw new RuntimeException("maxInFlight and ratePerMinute must be at least 1");
+        }
+        Long maxId = medicalReportRepository.findMaxId();
+
+        ReprocessRun run = new ReprocessRun();
+        run.setRefreshExplanation(refreshExplanation);
+        run.setMaxInFlight(inFlight);
+        run.setRatePerMinute(rate);
+        run.setMaxReportId(maxId != null ? maxId : 0);
+        run.setTotalReports(maxId != null ? medicalReportRepository.countByIdLessThanEqual(maxId) : 0);
+        run.setStartedBy(admin.getId());
+        run.setUpdatedAt(LocalDateTime.now());
+        run = reprocessRunRepository.save(run);
+        log.info("Re-processing run {} started — {} report(s), {} in flight, {}/min, refresh explanations: {}",
+                run.getId(), run.getTotalReports(), inFlight, rate, refreshExplanation);
+        return run;
+    }
+
+    public ReprocessRun pause(Long runId) {
+        return transition(runId, RunStatus.RUNNING, RunStatus.PAUSED);
+    }
+
+    public ReprocessRun resume(Long runId) {
+        return transition(runId, RunStatus.PAUSED, RunStatus.RUNNING);
+    }
+
+    /**
+     * Stop the run; jobs already running finish, queued ones are dropped
+     */
+    public ReprocessRun cancel(Long runId) {
+        return tx.execute(status -> {
+            ReprocessRun run = reprocessRunRepository.findById(runId)
+                    .orElseThrow(() -> new RuntimeException("Run not found"));
+            if (!OPEN.contains(run.getStatus())) {
+                throw new RuntimeException("Run is already " + run.getStatus().name().toLowerCase());
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int dropped = reportJobRepository.cancelQueued(runId, now);
+            run.setStatus(RunStatus.CANCELLED);
+            run.setUpdatedAt(now);
+            run.setCompletedAt(now);
+            log.info("Re-processing run {} cancelled — {} queued job(s) dropped", runId, dropped);
+            return run;
+        });
+    }
+
+    /**
+     * Counts, throughput and estimated time left for a run (the latest when
+     * {@code runId} is null)
+     */
+    public Map<String, Object> getProgress(Long runId) {
+        ReprocessRun run = (runId != null ? reprocessRunRepository.findById(runId)
+                : reprocessRunRepository.findFirstByOrderByIdDesc())
+                .orElseThrow(() -> new RuntimeException("Run not found"));
+
+        Map<ReportJob.JobStatus, Long> counts = new EnumMap<>(ReportJob.JobStatus.class);
+        for (Object[] row : reportJobRepository.countByStatusForRun(run.getId())) {
+            counts.put((ReportJob.JobStatus) row[0], (Long) row[1]);
+        }
+        long completed = counts.getOrDefault(ReportJob.JobStatus.COMPLETED, 0L);
+        long failed = counts.getOrDefault(ReportJob.JobStatus.FAILED, 0L);
+        long inFlight = counts.getOrDefault(ReportJob.JobStatus.QUEUED, 0L)
+                + counts.getOrDefault(ReportJob.JobStatus.RUNNING, 0L);
+        long done = completed + failed;
+        long remaining = Math.max(0, run.getTotalReports() - done);
+
+        LocalDateTime end = run.getCompletedAt() != null ? run.getCompletedAt() : LocalDateTime.now();
+        double minutes = Math.max(Duration.between(run.getCreatedAt(), end).toMillis() / 60000.0, 1e-3);
+        double throughput = done / minutes;
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("runId", run.getId());
+        progress.put("status", run.getStatus());
+        progress.put("refreshExplanation", run.isRefreshExplanation());
+        progress.put("maxInFlight", run.getMaxInFlight());
+        progress.put("ratePerMinute", run.getRatePerMinute());
+        progress.put("totalReports", run.getTotalReports());
+        progress.put("scheduled", run.getScheduledReports());
+        progress.put("completed", completed);
+        progress.put("failed", failed);
+        progress.put("inFlight", inFlight);
+        progress.put("remaining", remaining);
+        progress.put("percentComplete", run.getTotalReports() > 0
+                ? Math.round(done * 1000.0 / run.getTotalReports()) / 10.0 : 100.0);
+        progress.put("throughputPerMinute", Math.round(throughput * 10) / 10.0);
+        progress.put("etaSeconds", run.getStatus() == RunStatus.RUNNING && throughput > 0
+                ? Math.round(remaining / throughput * 60) : null);
+        progress.put("lastReportId", run.getLastReportId());
+        progress.put("startedAt", run.getCreatedAt());
+        progress.put("completedAt", run.getCompletedAt());
+        return progress;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Feeder
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * Queue the next reports of the running run, if there is room
+     */
+    @Scheduled(fixedDelayString = "${report.reprocess.interval-ms:2000}")
+    void feed() {
+        ReprocessRun run = reprocessRunRepository.findFirstByStatusInOrderByIdDesc(List.of(RunStatus.RUNNING))
+                .orElse(null);
+        if (run == null) {
+            return;
+        }
+        long inFlight = reportJobRepository.countByRunIdAndStatusIn(run.getId(), ReportJobService.ACTIVE);
+        if (run.getLastReportId() >= run.getMaxReportId()) {
+            if (inFlight == 0) {
+                complete(run.getId());
+            }
+            return;
+        }
+        // Interactive work first
+        if (reportJobService.hasInteractiveWork() || ocrEnginePool.getQueueDepth() > 0) {
+            return;
+        }
+        if (inFlight >= run.getMaxInFlight()) {
+            return;
+        }
+        int room = takeTokens(run, (int) (run.getMaxInFlight() - inFlight));
+        if (room == 0) {
+            return;
+        }
+
+        List<Long> jobIds = tx.execute(status -> {
+            ReprocessRun current = reprocessRunRepository.findById(run.getId()).orElse(null);
+            if (current == null || current.getStatus() != RunStatus.RUNNING) {
+                return Collections.<Long>emptyList();
+            }
+            List<Object[]> page = medicalReportRepository.findIdsAfter(
+                    current.getLastReportId(), current.getMaxReportId(), PageRequest.of(0, room));
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> created = new ArrayList<>(page.size());
+            for (Object[] row : page) {
+                ReportJob job = new ReportJob();
+                job.setReportId((Long) row[0]);
+                job.setUserId((Long) row[1]);
+                job.setRunId(current.getId());
+                job.setRefreshExplanation(current.isRefreshExplanation());
+                job.setUpdatedAt(now);
+                created.add(reportJobRepository.save(job).getId());
+                current.setLastReportId((Long) row[0]);
+            }
+            if (page.size() < room) {
+                // Nothing left below the upper bound
+                current.setLastReportId(current.getMaxReportId());
+            }
+            current.setScheduledReports(current.getScheduledReports() + created.size());
+            current.setUpdatedAt(now);
+            return created;
+        });
+        if (jobIds != null && !jobIds.isEmpty()) {
+            log.debug("Re-processing run {} queued {} job(s)", run.getId(), jobIds.size());
+            reportJobService.dispatchAll(jobIds);
+        }
+    }
+
+    /**
+     * Whole jobs, at most {@code max}, the run may start now under its
+     * per-minute rate
+     */
+    private synchronized int takeTokens(ReprocessRun run, int max) {
+        long now = System.nanoTime();
+        if (!run.getId().equals(bucketRunId)) {
+            bucketRunId = run.getId();
+            tokens = 1;
+        } else {
+            tokens += (now - lastRefillNanos) / 60e9 * run.getRatePerMinute();
+        }
+        lastRefillNanos = now;
+        // Allow bursts of up to one in-flight window
+        tokens = Math.min(tokens, run.getMaxInFlight());
+        int whole = Math.min((int) tokens, max);
+        tokens -= whole;
+        return whole;
+    }
+
+    private void complete(Long runId) {
+        tx.executeWithoutResult(status -> reprocessRunRepository.findById(runId).ifPresent(run -> {
+            if (run.getStatus() != RunStatus.RUNNING) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            run.setStatus(RunStatus.COMPLETED);
+            run.setUpdatedAt(now);
+            run.setCompletedAt(now);
+            log.info("Re-processing run {} completed — {} report(s) scheduled", runId, run.getScheduledReports());
+        }));
+    }
+
+    private ReprocessRun transition(Long runId, RunStatus from, RunStatus to) {
+        return tx.execute(status -> {
+            ReprocessRun run = reprocessRunRepository.findById(runId)
+                    .orElseThrow(() -> new RuntimeException("Run not found"));
+            if (run.getStatus() != from) {
+                throw new RuntimeException("Run is " + run.getStatus().name().toLowerCase());
+            }
+            run.setStatus(to);
+            run.setUpdatedAt(LocalDateTime.now());
+            return run;
+        });
+    }
+}
@@ -0,0 +1,300 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.ReportUploadResponse;
+import com.healthcare.dto.UploadSessionRequest;
+import com.healthcare.model.MedicalReport;
+import com.healthcare.model.ReportJob;
+import com.healthcare.model.UploadSession;
+import com.healthcare.model.User;
+import com.healthcare.repository.MedicalReportRepository;
+import com.healthcare.repository.ReportJobRepository;
+import com.healthcare.repository.UploadSessionRepository;
+import com.healthcare.util.UploadIngestUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable report uploads.
+ * <p>
+ * A client creates an upload, PUTs numbered chunks (each with its offset and
+ * SHA-256), asks for progress after a dropped connection and completes the
+ * upload, which hands the file to {@link MedicalReportService} like a single
+ * multipart upload. Chunk bodies are streamed from the request straight into
+ * the staging file at their offset, so request memory does not depend on
+ * chunk or file size. A chunk counts once it is on disk and its checksum
+ * matched; anything written past the last verified byte is cut off by the
+ * next write. Chunks of one upload are written one at a time.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ResumableUploadService {
+
+    private static final String STAGING_DIRECTORY = ".incoming";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MedicalReportRepository medicalReportRepository;
+    private final ReportJobRepository reportJobRepository;
+    private final MedicalReportService medicalReportService;
+    private final OCRService ocrService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${upload.directory}")
+    private String uploadDirectory;
+
+    @Value("${upload.resumable.chunk-size-kb:1024}")
+    private int chunkSizeKb;
+
+    @Value("${upload.resumable.max-size-mb:50}")
+    private long maxSizeMb;
+
+    @Value("${upload.resumable.expiry-hours:24}")
+    private long expiryHours;
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Start an upload; the response says which chunk size to use
+     */
+    public UploadSession create(UploadSessionRequest request, User user) {
+        try {
+            ocrService.validateType(request.getFileName(), request.getContentType());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        if (request.getTotalSize() <= 0 || request.getTotalSize() > maxSizeMb * 1024 * 1024) {
+            throw new RuntimeException("File size must be between 1 byte and " + maxSizeMb + " MB.");
+        }
+        String expectedSha256 = request.getSha256();
+        if (expectedSha256 != null && !expectedSha256.matches("(?i)[0-9a-f]{64}")) {
+            throw new RuntimeException("sha256 must be 64 hex characters.");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path stagingPath = Paths.get(uploadDirectory).resolve(STAGING_DIRECTORY).resolve(id + ".part");
+        try {
+            Files.createDirectories(stagingPath.getParent());
+            Files.createFile(stagingPath);
+        } catch (IOException e) {
+            log.error("Could not create staging file {}", stagingPath, e);
+            throw new RuntimeException("Failed to start upload: " + e.getMessage());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setUserId(user.getId());
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setTotalSize(request.getTotalSize());
+        session.setChunkSize(chunkSizeKb * 1024);
+        session.setExpectedSha256(expectedSha256 == null ? null : expectedSha256.toLowerCase());
+        session.setStagingPath(stagingPath.toString());
+        session.setUpdatedAt(now);
+        session.setExpiresAt(now.plusHours(expiryHours));
+        log.info("Resumable upload {} started — '{}', {} bytes in {} chunk(s)",
+                id, request.getFileName(), request.getTotalSize(), session.getChunkCount());
+        return uploadSessionRepository.save(session);
+    }
+
+    /**
+     * Upload state for its owner, e.g. to find the chunk to resume from
+     */
+    public UploadSession getSession(String uploadId, User user) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!session.getUserId().equals(user.getId())) {
+            throw new RuntimeException("Unauthorized access to upload");
+        }
+        return session;
+    }
+
+    /**
+     * Append chunk {@code index}, streamed from {@code body}. Re-sending a
+     * chunk that was already stored is accepted and ignored.
+     *
+     * @param offset      byte offset the client sent, must be index × chunk size
+     * @param length      request body length
+     * @param chunkSha256 hex SHA-256 of the chunk
+     */
+    public UploadSession writeChunk(String uploadId, int index, long offset, long length, String chunkSha256,
+                                    InputStream body, User user) {
+        UploadSession session = getSession(uploadId, user);
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new RuntimeException("Upload is " + session.getStatus().name().toLowerCase() + ".");
+        }
+        long start = (long) index * session.getChunkSize();
+        if (index < 0 || index >= session.getChunkCount() || offset != start) {
+            throw new RuntimeException("Chunk " + index + " must start at offset " + start + ".");
+        }
+        long expectedLength = Math.min(session.getChunkSize(), session.getTotalSize() - start);
+        if (length != expectedLength) {
+            throw new RuntimeException("Chunk " + index + " must be " + expectedLength + " bytes, got " + length + ".");
+        }
+        if (chunkSha256 == null || chunkSha256.isBlank()) {
+            throw new RuntimeException("Chunk checksum is required.");
+        }
+
+        ReentrantLock lock = locks.computeIfAbsent(uploadId, k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new RuntimeException("Another chunk of this upload is being written.");
+        }
+        try {
+            session = getSession(uploadId, user);
+            if (start + expectedLength <= session.getReceivedBytes()) {
+                return session;
+            }
+            if (start != session.getReceivedBytes()) {
+                throw new RuntimeException("Upload has " + session.getReceivedBytes()
+                        + " bytes; resume from chunk " + session.getNextChunk() + ".");
+            }
+
+            Path stagingPath = Path.of(session.getStagingPath());
+            String actual;
+            try {
+                actual = UploadIngestUtil.writeAt(body, stagingPath, start, expectedLength);
+            } catch (IOException e) {
+                discardPartial(stagingPath, start);
+                throw new RuntimeException("Failed to store chunk " + index + ": " + e.getMessage());
+            }
+            if (!actual.equalsIgnoreCase(chunkSha256.trim())) {
+                discardPartial(stagingPath, start);
+                throw new RuntimeException("Chunk " + index + " checksum mismatch; please resend it.");
+            }
+
+            long received = start + expectedLength;
+            Integer updated = new TransactionTemplate(transactionManager).execute(status ->
+                    uploadSessionRepository.advance(uploadId, start, received, LocalDateTime.now()));
+            if (updated == null || updated == 0) {
+                throw new RuntimeException("Upload changed while chunk " + index + " was written.");
+            }
+            session.setReceivedBytes(received);
+            return session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verify the whole file and queue it as a report; completing again
+     * returns the same report and job
+     */
+    public ReportUploadResponse complete(String uploadId, User user) {
+        ReentrantLock lock = locks.computeIfAbsent(uploadId, k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new RuntimeException("A chunk of this upload is still being written.");
+        }
+        try {
+            UploadSession session = getSession(uploadId, user);
+            if (session.getStatus() == UploadSession.Status.COMPLETED) {
+                MedicalReport report = medicalReportRepository.findById(session.getReportId())
+                        .orElseThrow(() -> new RuntimeException("Report not found"));
+                ReportJob job = reportJobRepository.findById(session.getJobId()).orElse(null);
+                return new ReportUploadResponse(report, job);
+            }
+            if (session.getStatus() != UploadSession.Status.OPEN) {
+                throw new RuntimeException("Upload is " + session.getStatus().name().toLowerCase() + ".");
+            }
+            if (session.getReceivedBytes() != session.getTotalSize()) {
+                throw new RuntimeException("Upload has " + session.getReceivedBytes() + " of "
+                        + session.getTotalSize() + " bytes; resume from chunk " + session.getNextChunk() + ".");
+            }
+
+            Path stagingPath = Path.of(session.getStagingPath());
+            ReportUploadResponse response;
+            try {
+                String contentHash = UploadIngestUtil.sha256Hex(stagingPath);
+                if (session.getExpectedSha256() != null && !session.getExpectedSha256().equals(contentHash)) {
+                    // Every chunk matched, so the client's whole-file digest or chunking is wrong
+                    close(session, UploadSession.Status.ABORTED);
+                    throw new RuntimeException("File checksum mismatch; the upload was discarded.");
+                }
+                response = medicalReportService.submitStoredUpload(stagingPath, contentHash,
+                        session.getTotalSize(), session.getFileName(), session.getContentType(), user);
+            } catch (IOException e) {
+                log.error("Could not complete upload {}", uploadId, e);
+                throw new RuntimeException("Failed to complete upload: " + e.getMessage());
+            }
+
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setReportId(response.getReport().getId());
+            session.setJobId(response.getJob().getId());
+            session.setUpdatedAt(LocalDateTime.now());
+            uploadSessionRepository.save(session);
+            log.info("Resumable upload {} completed as report {}", uploadId, session.getReportId());
+            return response;
+        } finally {
+            lock.unlock();
+            locks.remove(uploadId);
+        }
+    }
+
+    /**
+     * Cancel an open upload and drop what was received
+     */
+    public void abort(String uploadId, User user) {
+        UploadSession session = getSession(uploadId, user);
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new RuntimeException("Upload is " + session.getStatus().name().toLowerCase() + ".");
+        }
+        close(session, UploadSession.Status.ABORTED);
+        locks.remove(uploadId);
+    }
+
+    /**
+     * Drop uploads that were never completed
+     */
+    @Scheduled(fixedDelayString = "${upload.resumable.cleanup-interval-ms:3600000}")
+    void expireSessions() {
+        List<UploadSession> expired = uploadSessionRepository
+                .findByStatusAndExpiresAtBefore(UploadSession.Status.OPEN, LocalDateTime.now());
+        for (UploadSession session : expired) {
+            close(session, UploadSession.Status.EXPIRED);
+            locks.remove(session.getId());
+        }
+        if (!expired.isEmpty()) {
+            log.info("Expired {} unfinished resumable upload(s)", expired.size());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void close(UploadSession session, UploadSession.Status status) {
+        try {
+            Files.deleteIfExists(Path.of(session.getStagingPath()));
+        } catch (IOException e) {
+            log.warn("Could not remove staging file {}", session.getStagingPath());
+        }
+        session.setStatus(status);
+        session.setUpdatedAt(LocalDateTime.now());
+        uploadSessionRepository.save(session);
+    }
+
+    private void discardPartial(Path stagingPath, long length) {
+        try {
+            UploadIngestUtil.truncate(stagingPath, length);
+        } catch (IOException e) {
+            // The next write cuts the file back anyway
+            log.debug("Could not truncate {}: {}", stagingPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.LabValue;
+import com.healthcare.dto.TextExtractionResult;
+import com.healthcare.util.StructuredLabParser;
+import com.healthcare.util.StructuredLabParser.Format;
+import com.healthcare.util.StructuredLabParser.Observation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads digital lab exports (CSV, HL7 v2 ORU, FHIR Observation JSON) into
+ * the same lab values and report text the OCR path produces, without
+ * decoding images or running Tesseract.
+ * <p>
+ * Results are mapped to analytes by LOINC code where the export has one,
+ * otherwise by name through {@link LabValueExtractor#normalise}, which also
+ * converts them to the analyte's standard unit. The report text lists one
+ * "Name: value unit" line per result, which {@link LabValueExtractor#extract}
+ * reads back to the same values, so later stages (reference ranges,
+ * explanation) treat an imported report like a scanned one.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StructuredLabImportService {
+
+    private static final Pattern NUMBER =
+            Pattern.compile("([<>≤≥]=?)?\\s*(\\d+(?:[.,]\\d+)*)(?:\\s*/\\s*(\\d+(?:\\.\\d+)?))?");
+
+    private static final String SYSTOLIC = "8480-6";
+    private static final String DIASTOLIC = "8462-4";
+
+    /**
+     * LOINC codes of the analytes {@link LabValueExtractor} knows
+     */
+    private static final Map<String, String> LOINC = new HashMap<>();
+
+    static {
+        loinc("Glucose", "2345-7", "2339-0", "1558-6", "41653-7");
+        loinc("HbA1c", "4548-4", "17856-6", "59261-8");
+        loinc("Hemoglobin", "718-7", "20509-6");
+        loinc("Hematocrit", "4544-3", "20570-8");
+        loinc("WBC", "6690-2", "26464-8");
+        loinc("RBC", "789-8", "26453-2");
+        loinc("Platelets", "777-3", "26515-7");
+        loinc("MCV", "787-2");
+        loinc("MCH", "785-6");
+        loinc("MCHC", "786-4");
+        loinc("Sodium", "2951-2", "2947-0");
+        loinc("Potassium", "2823-3", "6298-4");
+        loinc("Chloride", "2075-0", "2069-3");
+        loinc("Bicarbonate", "2028-9", "1963-8");
+        loinc("BUN", "3094-0", "6299-2");
+        loinc("Creatinine", "2160-0", "38483-4");
+        loinc("eGFR", "33914-3", "48642-3", "48643-1", "62238-1", "98979-8");
+        loinc("AST", "1920-8");
+        loinc("ALT", "1742-6", "1743-4");
+        loinc("ALP", "6768-6");
+        loinc("Total Bilirubin", "1975-2");
+        loinc("Albumin", "1751-7");
+        loinc("Total Cholesterol", "2093-3");
+        loinc("LDL", "2089-1", "13457-7", "18262-6");
+        loinc("HDL", "2085-9");
+        loinc("Triglycerides", "2571-8");
+        loinc("TSH", "3016-3", "11580-8");
+        loinc("T3", "3053-6");
+        loinc("T4", "3026-2");
+        loinc("Calcium", "17861-6", "2000-8");
+        loinc("Magnesium", "19123-9", "2601-3");
+        loinc("Phosphorus", "2777-1");
+        loinc("Iron", "2498-4");
+        loinc("Ferritin", "2276-4");
+        loinc("Vitamin D", "1989-3", "62292-8", "14635-7");
+        loinc("Vitamin B12", "2132-9");
+        loinc("Folate", "2284-8");
+        loinc("PSA", "2857-1");
+        loinc("CRP", "1988-5", "30522-7");
+        loinc("ESR", "4537-7", "30341-2");
+        loinc("PT", "5902-2");
+        loinc("INR", "6301-6", "34714-6");
+        loinc("aPTT", "3173-2", "14979-9");
+        loinc("pH", "2744-1", "11558-4");
+        loinc("pCO2", "2019-8", "11557-6");
+        loinc("pO2", "2703-7", "11556-8");
+        loinc("HCO3", "1960-4");
+        loinc("O2 Saturation", "2708-6");
+        loinc("SpO2", "59408-5");
+        loinc("Heart Rate", "8867-4");
+        loinc("Temperature", "8310-5");
+        loinc("Weight", "29463-7", "3141-9");
+        loinc("Height", "8302-2");
+        loinc("BMI", "39156-5");
+    }
+
+    private final LabValueExtractor labValueExtractor;
+
+    /**
+     * An export read into report form
+     *
+     * @param extraction report text, with one STRUCTURED page
+     * @param labValues  numeric results in standard units, first per analyte
+     * @param reportDate earliest sample time in the export, or null
+     * @param results    results read, numeric and qualitative
+     */
+    public record StructuredImport(TextExtractionResult extraction, Map<String, LabValue> labValues,
+                                   LocalDateTime reportDate, int results) {
+    }
+
+    /**
+     * Format of a structured export, by file extension or content type
+     */
+    public Optional<Format> detect(String filename, String contentType) {
+        String ext = filename != null && filename.contains(".")
+                ? filename.substring(filename.lastIndexOf('.') + 1).toLowerCase() : "";
+        String type = contentType != null ? contentType.toLowerCase() : "";
+        if (ext.equals("csv") || type.startsWith("text/csv")) {
+            return Optional.of(Format.CSV);
+        }
+        if (ext.equals("hl7") || ext.equals("oru") || ext.equals("er7") || type.contains("hl7-v2")) {
+            return Optional.of(Format.HL7);
+        }
+        if (ext.equals("json") || ext.equals("fhir") || type.startsWith("application/fhir+json")
+                || type.startsWith("application/json")) {
+            return Optional.of(Format.FHIR);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The format named by the client ("csv", "hl7", "fhir"), else detected
+     *
+     * @throws IllegalArgumentException when neither gives a supported format
+     */
+    public Format resolveFormat(String requested, String filename, String contentType) {
+        if (requested != null && !requested.isBlank()) {
+            try {
+                return Format.valueOf(requested.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format '" + requested + "'. Allowed: csv, hl7, fhir");
+            }
+        }
+        return detect(filename, contentType).orElseThrow(() -> new IllegalArgumentException(
+                "Unsupported lab export '" + filename + "'. Allowed: .csv, .hl7 / .oru (HL7 v2), .json (FHIR)"));
+    }
+
+    /**
+     * Read an export in one pass
+     *
+     * @throws IllegalArgumentException for malformed input or an export
+     *                                  without results
+     */
+    public StructuredImport read(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        Map<String, LabValue> labValues = new LinkedHashMap<>();
+        Map<String, String> notes = new HashMap<>();
+        List<String> qualitative = new ArrayList<>();
+        Observation[] bloodPressure = new Observation[2];
+        LocalDateTime[] earliest = new LocalDateTime[1];
+        int[] results = new int[1];
+
+        StructuredLabParser.parse(in, format, observation -> {
+            results[0]++;
+            if (observation.effective() != null
+                    && (earliest[0] == null || observation.effective().isBefore(earliest[0]))) {
+                earliest[0] = observation.effective();
+            }
+            if (SYSTOLIC.equals(observation.code()) || DIASTOLIC.equals(observation.code())) {
+                bloodPressure[SYSTOLIC.equals(observation.code()) ? 0 : 1] = observation;
+                return;
+            }
+            String name = observation.code() != null
+                    ? LOINC.getOrDefault(observation.code(), observation.name()) : observation.name();
+            LabValue value = toLabValue(name, observation.value(), observation.unit());
+            if (value == null) {
+                qualitative.add(name + ": " + observation.value() + note(observation));
+            } else if (!labValues.containsKey(value.getName())) {
+                labValues.put(value.getName(), value);
+                notes.put(value.getName(), note(observation));
+            }
+        });
+
+        if (bloodPressure[0] != null && !labValues.containsKey("Blood Pressure")) {
+            String value = bloodPressure[0].value()
+                    + (bloodPressure[1] != null ? "/" + bloodPressure[1].value() : "");
+            LabValue pressure = toLabValue("Blood Pressure", value, bloodPressure[0].unit());
+            if (pressure != null) {
+                labValues.put(pressure.getName(), pressure);
+                notes.put(pressure.getName(), "");
+            }
+        }
+        if (labValues.isEmpty() && qualitative.isEmpty()) {
+            throw new IllegalArgumentException("No lab results found in the " + format + " file.");
+        }
+
+        StringBuilder text = new StringBuilder("Lab results imported from ").append(label(format)).append(" export\n");
+        labValues.values().forEach(value -> text.append('\n').append(render(value)).append(notes.get(value.getName())));
+        qualitative.forEach(line -> text.append('\n').append(line));
+        log.info("Read {} result(s) from {} export in {} ms — {} numeric, {} qualitative",
+                results[0], format, (System.nanoTime() - start) / 1_000_000, labValues.size(), qualitative.size());
+        return new StructuredImport(
+                new TextExtractionResult(text.toString(), List.of(TextExtractionResult.Method.STRUCTURED)),
+                labValues, earliest[0], results[0]);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * The result as a lab value, or null when it is not numeric
+     */
+    private LabValue toLabValue(String name, String value, String unit) {
+        Matcher m = NUMBER.matcher(value.trim());
+        if (name == null || !m.matches()) {
+            return null;
+        }
+        double number = toNumber(m.group(2));
+        Double secondary = m.group(3) != null ? toNumber(m.group(3)) : null;
+        String raw = value.trim() + (unit != null ? " " + unit : "");
+        LabValue labValue = labValueExtractor.normalise(name, number, secondary, unit, raw);
+        return Double.isNaN(labValue.getValue()) ? null : labValue;
+    }
+
+    /**
+     * Same reading of "1,234" and "13,5" as text extraction
+     */
+    private static double toNumber(String number) {
+        int comma = number.lastIndexOf(',');
+        if (comma >= 0) {
+            boolean thousands = number.indexOf('.') < 0 ? number.length() - comma == 4 : comma < number.indexOf('.');
+            number = thousands ? number.replace(",", "") : number.replace(',', '.');
+        }
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * "Glucose: 180.16 mg/dL", keeping a reported comparator ("&lt;5")
+     */
+    private static String render(LabValue value) {
+        StringBuilder line = new StringBuilder(value.getName()).append(": ");
+        Matcher comparator = Pattern.compile("^([<>≤≥]=?)").matcher(value.getRaw());
+        if (comparator.find()) {
+            line.append(comparator.group(1));
+        }
+        line.append(plain(value.getValue()));
+        if (value.getSecondaryValue() != null) {
+            line.append('/').append(plain(value.getSecondaryValue()));
+        }
+        if (value.getUnit() != null) {
+            line.append(' ').append(value.getUnit());
+        }
+        return line.toString();
+    }
+
+    private static String note(Observation observation) {
+        List<String> parts = new ArrayList<>(2);
+        if (observation.reference() != null) {
+            parts.add("reference " + observation.reference());
+        }
+        if (observation.flag() != null) {
+            parts.add("flag " + observation.flag());
+        }
+        return parts.isEmpty() ? "" : " (" + String.join(", ", parts) + ")";
+    }
+
+    private static String plain(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static String label(Format format) {
+        return switch (format) {
+            case CSV -> "CSV";
+            case HL7 -> "HL7 v2";
+            case FHIR -> "FHIR";
+        };
+    }
+
+    private static void loinc(String analyte, String... codes) {
+        for (String code : codes) {
+            LOINC.put(code, analyte);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.healthcare.service;
+
+import com.healthcare.util.TextCompressionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background conversion of existing rows to the compressed text format used
+ * by {@link com.healthcare.util.CompressedTextConverter}.
+ * <p>
+ * Each tick walks one batch per table by primary key, compresses values that
+ * are still plain, checks the round trip and writes them back. Progress is
+ * kept in memory, so a restart simply rescans from the start and skips rows
+ * already converted. The collected size and CPU figures are exposed through
+ * {@link #getStats()}.
+ * </p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TextCompressionMigrationService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${text.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${text.compression.migration.enabled:false}")
+    private boolean migrationEnabled;
+
+    @Value("${text.compression.min-length:512}")
+    private int minLength;
+
+    @Value("${text.compression.migration.batch-size:200}")
+    private int batchSize;
+
+    private final List<Target> targets = List.of(
+            new Target("medical_reports", "extracted_text"),
+            new Target("medical_reports", "ai_explanation"),
+            new Target("messages", "content"));
+
+    private final AtomicLong rowsScanned = new AtomicLong();
+    private final AtomicLong valuesCompressed = new AtomicLong();
+    private final AtomicLong bytesBefore = new AtomicLong();
+    private final AtomicLong bytesAfter = new AtomicLong();
+    private final AtomicLong compressNanos = new AtomicLong();
+    private final AtomicLong decompressNanos = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${text.compression.migration.interval-ms:5000}")
+    public void migrateBatch() {
+        if (!compressionEnabled || !migrationEnabled || isComplete()) {
+            return;
+        }
+        for (Target target : targets) {
+            if (!target.done) {
+                try {
+                    migrate(target);
+                } catch (Exception e) {
+                    log.error("Compression migration of {}.{} failed at id {}",
+                            target.table, target.column, target.lastId, e);
+                }
+            }
+        }
+        if (isComplete()) {
+            log.info("Text compression migration complete: {}", getStats());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long before = bytesBefore.get();
+        long after = bytesAfter.get();
+        long compressed = valuesCompressed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", compressionEnabled && migrationEnabled);
+        stats.put("complete", isComplete());
+        stats.put("rowsScanned", rowsScanned.get());
+        stats.put("valuesCompressed", compressed);
+        stats.put("bytesBefore", before);
+        stats.put("bytesAfter", after);
+        stats.put("ratio", after > 0 ? Math.round(before * 100.0 / after) / 100.0 : null);
+        stats.put("compressMicrosPerKb", before > 0 ? Math.round(compressNanos.get() / 1000.0 / (before / 1024.0) * 100) / 100.0 : null);
+        stats.put("decompressMicrosPerKb", before > 0 ? Math.round(decompressNanos.get() / 1000.0 / (before / 1024.0) * 100) / 100.0 : null);
+        return stats;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private void migrate(Target target) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, " + target.column + " AS value FROM " + target.table
+                        + " WHERE id > ? ORDER BY id LIMIT ?", target.lastId, batchSize);
+        if (rows.isEmpty()) {
+            target.done = true;
+            return;
+        }
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            String value = (String) row.get("value");
+            target.lastId = id;
+            rowsScanned.incrementAndGet();
+            if (value == null || value.length() < minLength || TextCompressionUtil.isEncoded(value)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            String compressed = TextCompressionUtil.compress(value, minLength);
+            long compressedAt = System.nanoTime();
+            if (compressed.equals(value)) {
+                continue;
+            }
+            // Only write values that decode back to the original
+            if (!value.equals(TextCompressionUtil.decompress(compressed))) {
+                log.warn("Round trip mismatch for {}.{} id {}, leaving it uncompressed", target.table, target.column, id);
+                continue;
+            }
+            compressNanos.addAndGet(compressedAt - start);
+            decompressNanos.addAndGet(System.nanoTime() - compressedAt);
+
+            // Guard on the old value so a concurrent update is not overwritten
+            int updated = jdbcTemplate.update("UPDATE " + target.table + " SET " + target.column
+                    + " = ? WHERE id = ? AND " + target.column + " = ?", compressed, id, value);
+            if (updated == 1) {
+                valuesCompressed.incrementAndGet();
+                bytesBefore.addAndGet(value.getBytes(StandardCharsets.UTF_8).length);
+                bytesAfter.addAndGet(compressed.length());
+            }
+        }
+    }
+
+    private boolean isComplete() {
+        return targets.stream().allMatch(t -> t.done);
+    }
+
+    private static final class Target {
+
+        private final String table;
+        private final String column;
+        private volatile long lastId;
+        private volatile boolean done;
+
+        private Target(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.healthcare.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in JPA converter for large text columns. Values are compressed on write
+ * when {@code text.compression.enabled=true}; reads always accept both
+ * compressed and plain values (see {@link TextCompressionUtil}). Plain values
+ * starting with the format marker are escaped either way.
+ */
+@Component
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    @Value("${text.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${text.compression.min-length:512}")
+    private int minLength;
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return enabled ? TextCompressionUtil.compress(attribute, minLength) : TextCompressionUtil.escape(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return TextCompressionUtil.decompress(dbData);
+    }
+}
@@ -0,0 +1,60 @@
+package com.healthcare.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes opaque keyset-pagination cursors made of a timestamp and
+ * a row id, e.g. (created_at, id).
+ */
+public class CursorUtil {
+
+    /**
+     * Decoded cursor position
+     */
+    public record Cursor(LocalDateTime timestamp, Long id) {
+    }
+
+    /**
+     * Returns an opaque, URL-safe cursor for the given position.
+     */
+    public static String encode(LocalDateTime timestamp, Long id) {
+        if (timestamp == null || id == null) {
+            return null;
+        }
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode}; null or blank input yields
+     * null.
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Clamps a requested page size to [1, max], using the default when absent.
+     */
+    public static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null || requested <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    private CursorUtil() {
+    }
+}
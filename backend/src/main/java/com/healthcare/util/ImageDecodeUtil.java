@@ -0,0 +1,112 @@
+package com.healthcare.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Decodes uploaded images without materialising them at full resolution.
+ * <p>
+ * {@link #readSize} only parses the header, so the caller can reject
+ * oversized images and reserve memory before any pixels are decoded;
+ * {@link #read} then lets the codec skip rows and columns while decoding
+ * ({@link ImageReadParam#setSourceSubsampling}), so a 48 MP phone photo read
+ * at step 2 never exists as more than a 12 MP image. Images stored on disk
+ * are read through a random-access file stream rather than loaded first.
+ * </p>
+ */
+public class ImageDecodeUtil {
+
+    /**
+     * Pixel dimensions of the first image, from its header
+     *
+     * @throws IOException when no installed codec recognises the content
+     */
+    public static Dimension readSize(byte[] content) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            return readSize(in);
+        }
+    }
+
+    public static Dimension readSize(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            return readSize(in);
+        }
+    }
+
+    /**
+     * Smallest integer step that brings {@code width × height} down to at
+     * most {@code targetPixels} (1 = full resolution)
+     */
+    public static int subsampling(int width, int height, long targetPixels) {
+        int step = 1;
+        while (decodedPixels(width, height, step) > targetPixels) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Pixels of the image decoded at {@code step}
+     */
+    public static long decodedPixels(int width, int height, int step) {
+        return (long) ((width + step - 1) / step) * ((height + step - 1) / step);
+    }
+
+    /**
+     * Decode the first image, keeping every {@code step}-th row and column
+     */
+    public static BufferedImage read(byte[] content, int step) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            return read(in, step);
+        }
+    }
+
+    public static BufferedImage read(Path file, int step) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            return read(in, step);
+        }
+    }
+
+    private static Dimension readSize(ImageInputStream in) throws IOException {
+        ImageReader reader = readerFor(in);
+        try {
+            reader.setInput(in, true, true);
+            return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static BufferedImage read(ImageInputStream in, int step) throws IOException {
+        ImageReader reader = readerFor(in);
+        try {
+            reader.setInput(in, true, true);
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream in) throws IOException {
+        if (in == null) {
+            throw new IOException("Cannot read image");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            throw new IOException("Cannot read image: unsupported format");
+        }
+        return readers.next();
+    }
+}
@@ -0,0 +1,512 @@
+package com.healthcare.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Prepares page images for Tesseract on primitive buffers.
+ * <p>
+ * The pipeline works on one {@code byte[]} of 8-bit gray values per stage:
+ * grayscale straight from the source raster, area-average downscale to the
+ * target DPI, projection-profile deskew, and Otsu (global) or Bradley
+ * (adaptive, for uneven lighting) binarisation. Pages above
+ * {@link #PARALLEL_THRESHOLD} pixels are split into row bands processed on
+ * the common fork-join pool. The result is a {@code TYPE_BYTE_GRAY} image
+ * holding only 0 and 255 when a threshold is applied.
+ * </p>
+ */
+public class RasterPreprocessUtil {
+
+    public enum Threshold {
+        NONE,
+        OTSU,
+        /**
+         * Bradley local-mean threshold; handles shadows and uneven lighting
+         */
+        ADAPTIVE
+    }
+
+    public record Options(int targetDpi, Threshold threshold, boolean deskew) {
+    }
+
+    /**
+     * The prepared image, its resolution after scaling and the skew that was
+     * corrected (degrees, 0 when none)
+     */
+    public record Result(BufferedImage image, int dpi, double skewDegrees) {
+    }
+
+    private static final int WHITE = 255;
+
+    // ~2 megapixels; smaller pages are cheaper to process on one thread. The
+    // system property exists for the band-vs-serial benchmark.
+    private static final long PARALLEL_THRESHOLD = Long.getLong("ocr.preprocess.parallel-pixels", 2_000_000L);
+    private static final int MIN_BAND_ROWS = 64;
+
+    // Only scale down when it saves a meaningful amount of work
+    private static final double MIN_DOWNSCALE = 1.1;
+
+    // Bradley: a pixel is black when darker than (100 - T)% of its local mean
+    private static final int ADAPTIVE_PERCENT = 15;
+
+    private static final double MAX_SKEW_DEGREES = 5.0;
+    private static final double MIN_SKEW_DEGREES = 0.1;
+    private static final int MAX_SKEW_SAMPLES = 250_000;
+    private static final int MIN_SKEW_SAMPLES = 500;
+
+    /**
+     * Run the pipeline on {@code image} rendered or scanned at {@code sourceDpi}
+     */
+    public static Result preprocess(BufferedImage image, int sourceDpi, Options options) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] gray = toGray(image);
+        int dpi = sourceDpi;
+
+        if (options.targetDpi() > 0 && sourceDpi >= options.targetDpi() * MIN_DOWNSCALE) {
+            double scale = (double) sourceDpi / options.targetDpi();
+            int scaledWidth = Math.max(1, (int) Math.round(width / scale));
+            int scaledHeight = Math.max(1, (int) Math.round(height / scale));
+            gray = downscale(gray, width, height, scaledWidth, scaledHeight);
+            width = scaledWidth;
+            height = scaledHeight;
+            dpi = options.targetDpi();
+        }
+
+        double skew = 0;
+        if (options.deskew()) {
+            skew = estimateSkew(gray, width, height, otsuThreshold(gray, width, height));
+            if (Math.abs(skew) >= MIN_SKEW_DEGREES) {
+                gray = rotate(gray, width, height, Math.toRadians(skew));
+            } else {
+                skew = 0;
+            }
+        }
+
+        switch (options.threshold()) {
+            case OTSU -> binarize(gray, width, height, otsuThreshold(gray, width, height));
+            case ADAPTIVE -> gray = adaptiveThreshold(gray, width, height, Math.max(15, dpi / 6 | 1));
+            default -> {
+            }
+        }
+        return new Result(toImage(gray, width, height), dpi, skew);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Grayscale
+    // ─────────────────────────────────────────────────────────
+    /**
+     * 8-bit luma of every pixel, row-major. Reads the backing array directly
+     * for the common raster layouts; transparent pixels become white.
+     */
+    static byte[] toGray(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int pixels = width * height;
+        byte[] gray = new byte[pixels];
+        WritableRaster raster = image.getRaster();
+        boolean packed = raster.getParent() == null && raster.getDataBuffer().getNumBanks() == 1
+                && raster.getDataBuffer().getOffset() == 0;
+
+        switch (packed ? image.getType() : BufferedImage.TYPE_CUSTOM) {
+            case BufferedImage.TYPE_BYTE_GRAY -> {
+                byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+                if (src.length == pixels) {
+                    System.arraycopy(src, 0, gray, 0, pixels);
+                    return gray;
+                }
+            }
+            case BufferedImage.TYPE_3BYTE_BGR -> {
+                byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+                if (src.length == pixels * 3) {
+                    forRows(width, height, (from, to) -> {
+                        for (int p = from * width, end = to * width; p < end; p++) {
+                            int i = p * 3;
+                            gray[p] = (byte) luma(src[i + 2] & 0xFF, src[i + 1] & 0xFF, src[i] & 0xFF);
+                        }
+                    });
+                    return gray;
+                }
+            }
+            case BufferedImage.TYPE_4BYTE_ABGR -> {
+                byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+                if (src.length == pixels * 4) {
+                    forRows(width, height, (from, to) -> {
+                        for (int p = from * width, end = to * width; p < end; p++) {
+                            int i = p * 4;
+                            gray[p] = (byte) overWhite(luma(src[i + 3] & 0xFF, src[i + 2] & 0xFF, src[i + 1] & 0xFF),
+                                    src[i] & 0xFF);
+                        }
+                    });
+                    return gray;
+                }
+            }
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> {
+                int[] src = ((DataBufferInt) raster.getDataBuffer()).getData();
+                boolean alpha = image.getType() == BufferedImage.TYPE_INT_ARGB;
+                if (src.length == pixels) {
+                    forRows(width, height, (from, to) -> {
+                        for (int p = from * width, end = to * width; p < end; p++) {
+                            int rgb = src[p];
+                            int l = luma((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                            gray[p] = (byte) (alpha ? overWhite(l, rgb >>> 24) : l);
+                        }
+                    });
+                    return gray;
+                }
+            }
+            default -> {
+            }
+        }
+
+        // Indexed, 16-bit and sub-images: let the color model convert, a row at a time
+        forRows(width, height, (from, to) -> {
+            int[] row = new int[width];
+            for (int y = from; y < to; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int argb = row[x];
+                    gray[y * width + x] = (byte) overWhite(
+                            luma((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF), argb >>> 24);
+                }
+            }
+        });
+        return gray;
+    }
+
+    private static int luma(int r, int g, int b) {
+        // BT.601 weights in 8-bit fixed point
+        return (r * 77 + g * 150 + b * 29) >> 8;
+    }
+
+    private static int overWhite(int value, int alpha) {
+        return (value * alpha + WHITE * (255 - alpha)) / 255;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Scaling
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Area-average downscale: each target pixel is the mean of the source
+     * pixels it covers
+     */
+    static byte[] downscale(byte[] src, int width, int height, int targetWidth, int targetHeight) {
+        byte[] dst = new byte[targetWidth * targetHeight];
+        int[] xStart = spans(width, targetWidth);
+        int[] yStart = spans(height, targetHeight);
+        forRows(targetWidth, targetHeight, (from, to) -> {
+            for (int ty = from; ty < to; ty++) {
+                int y0 = yStart[ty];
+                int y1 = yStart[ty + 1];
+                for (int tx = 0; tx < targetWidth; tx++) {
+                    int x0 = xStart[tx];
+                    int x1 = xStart[tx + 1];
+                    int sum = 0;
+                    for (int y = y0; y < y1; y++) {
+                        int row = y * width;
+                        for (int x = x0; x < x1; x++) {
+                            sum += src[row + x] & 0xFF;
+                        }
+                    }
+                    dst[ty * targetWidth + tx] = (byte) (sum / ((y1 - y0) * (x1 - x0)));
+                }
+            }
+        });
+        return dst;
+    }
+
+    /**
+     * Source start index of each of {@code target} cells, plus the end
+     */
+    private static int[] spans(int source, int target) {
+        int[] starts = new int[target + 1];
+        for (int i = 0; i <= target; i++) {
+            starts[i] = (int) ((long) i * source / target);
+        }
+        for (int i = 1; i <= target; i++) {
+            // Every cell covers at least one source pixel
+            starts[i] = Math.min(source, Math.max(starts[i], starts[i - 1] + 1));
+        }
+        return starts;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Deskew
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Skew angle in degrees (within ±{@link #MAX_SKEW_DEGREES}) at which the
+     * dark pixels line up into the sharpest rows, found by maximising the
+     * variance of the horizontal projection profile: a coarse 0.5° sweep,
+     * then 0.1° around the best coarse angle. Works on a subsample of dark
+     * pixels.
+     */
+    static double estimateSkew(byte[] gray, int width, int height, int threshold) {
+        int step = (int) Math.max(1, Math.sqrt((double) width * height / (MAX_SKEW_SAMPLES * 4.0)));
+        int[] xs = new int[MAX_SKEW_SAMPLES];
+        int[] ys = new int[MAX_SKEW_SAMPLES];
+        int count = 0;
+        for (int y = 0; y < height && count < MAX_SKEW_SAMPLES; y += step) {
+            int row = y * width;
+            for (int x = 0; x < width && count < MAX_SKEW_SAMPLES; x += step) {
+                if ((gray[row + x] & 0xFF) <= threshold) {
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+        if (count < MIN_SKEW_SAMPLES) {
+            return 0;
+        }
+
+        double best = 0;
+        double bestScore = profileScore(xs, ys, count, height, width, 0, step);
+        for (double angle = -MAX_SKEW_DEGREES; angle <= MAX_SKEW_DEGREES; angle += 0.5) {
+            double score = profileScore(xs, ys, count, height, width, angle, step);
+            if (score > bestScore) {
+                bestScore = score;
+                best = angle;
+            }
+        }
+        double coarse = best;
+        for (double angle = coarse - 0.4; angle <= coarse + 0.4; angle += 0.1) {
+            double score = profileScore(xs, ys, count, height, width, angle, step);
+            if (score > bestScore) {
+                bestScore = score;
+                best = angle;
+            }
+        }
+        return Math.round(best * 10) / 10.0;
+    }
+
+    private static double profileScore(int[] xs, int[] ys, int count, int height, int width,
+                                       double degrees, int step) {
+        double tan = Math.tan(Math.toRadians(degrees));
+        int margin = (int) Math.ceil(Math.abs(tan) * width) + 1;
+        int[] bins = new int[(height + 2 * margin) / step + 1];
+        for (int i = 0; i < count; i++) {
+            int y = (int) Math.round(ys[i] - xs[i] * tan) + margin;
+            bins[y / step]++;
+        }
+        double score = 0;
+        for (int bin : bins) {
+            score += (double) bin * bin;
+        }
+        return score;
+    }
+
+    /**
+     * Rotate about the centre so lines at {@code radians} become horizontal
+     * (bilinear, uncovered corners white)
+     */
+    static byte[] rotate(byte[] src, int width, int height, double radians) {
+        byte[] dst = new byte[width * height];
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double cx = width / 2.0;
+        double cy = height / 2.0;
+        forRows(width, height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                double dy = y - cy;
+                for (int x = 0; x < width; x++) {
+                    double dx = x - cx;
+                    double sx = cx + dx * cos - dy * sin;
+                    double sy = cy + dx * sin + dy * cos;
+                    int x0 = (int) Math.floor(sx);
+                    int y0 = (int) Math.floor(sy);
+                    int value;
+                    if (x0 < 0 || y0 < 0 || x0 >= width - 1 || y0 >= height - 1) {
+                        value = WHITE;
+                    } else {
+                        double fx = sx - x0;
+                        double fy = sy - y0;
+                        int i = y0 * width + x0;
+                        double top = (src[i] & 0xFF) * (1 - fx) + (src[i + 1] & 0xFF) * fx;
+                        double bottom = (src[i + width] & 0xFF) * (1 - fx) + (src[i + width + 1] & 0xFF) * fx;
+                        value = (int) (top * (1 - fy) + bottom * fy + 0.5);
+                    }
+                    dst[y * width + x] = (byte) value;
+                }
+            }
+        });
+        return dst;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Thresholding
+    // ─────────────────────────────────────────────────────────
+    /**
+     * Otsu's global threshold: the gray level that maximises between-class
+     * variance of the histogram
+     */
+    static int otsuThreshold(byte[] gray, int width, int height) {
+        long[] histogram = new long[256];
+        forRows(width, height, (from, to) -> {
+            long[] local = new long[256];
+            for (int p = from * width, end = to * width; p < end; p++) {
+                local[gray[p] & 0xFF]++;
+            }
+            synchronized (histogram) {
+                for (int i = 0; i < 256; i++) {
+                    histogram[i] += local[i];
+                }
+            }
+        });
+
+        long total = (long) width * height;
+        double sumAll = 0;
+        for (int i = 0; i < 256; i++) {
+            sumAll += (double) i * histogram[i];
+        }
+        double sumBackground = 0;
+        long weightBackground = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int t = 0; t < 256; t++) {
+            weightBackground += histogram[t];
+            if (weightBackground == 0) {
+                continue;
+            }
+            long weightForeground = total - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+            sumBackground += (double) t * histogram[t];
+            double meanBackground = sumBackground / weightBackground;
+            double meanForeground = (sumAll - sumBackground) / weightForeground;
+            double variance = (double) weightBackground * weightForeground
+                    * (meanBackground - meanForeground) * (meanBackground - meanForeground);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = t;
+            }
+        }
+        return threshold;
+    }
+
+    static void binarize(byte[] gray, int width, int height, int threshold) {
+        forRows(width, height, (from, to) -> {
+            for (int p = from * width, end = to * width; p < end; p++) {
+                gray[p] = (gray[p] & 0xFF) <= threshold ? 0 : (byte) WHITE;
+            }
+        });
+    }
+
+    /**
+     * Bradley adaptive threshold over a {@code window}×{@code window} box.
+     * Each row band keeps running column sums, so memory stays O(width) per
+     * band instead of a full integral image.
+     */
+    static byte[] adaptiveThreshold(byte[] gray, int width, int height, int window) {
+        byte[] dst = new byte[width * height];
+        int radius = window / 2;
+        forRows(width, height, (from, to) -> {
+            int[] columnSums = new int[width];
+            int top = Math.max(0, from - radius);
+            int bottom = Math.min(height - 1, from + radius);
+            for (int y = top; y <= bottom; y++) {
+                addRow(columnSums, gray, y, width, 1);
+            }
+            for (int y = from; y < to; y++) {
+                if (y > from) {
+                    int entering = y + radius;
+                    int leaving = y - radius - 1;
+                    if (entering < height) {
+                        addRow(columnSums, gray, entering, width, 1);
+                    }
+                    if (leaving >= 0) {
+                        addRow(columnSums, gray, leaving, width, -1);
+                    }
+                }
+                int rows = Math.min(height - 1, y + radius) - Math.max(0, y - radius) + 1;
+                int sum = 0;
+                for (int x = 0; x <= Math.min(width - 1, radius); x++) {
+                    sum += columnSums[x];
+                }
+                int row = y * width;
+                for (int x = 0; x < width; x++) {
+                    if (x > 0) {
+                        int entering = x + radius;
+                        int leaving = x - radius - 1;
+                        if (entering < width) {
+                            sum += columnSums[entering];
+                        }
+                        if (leaving >= 0) {
+                            sum -= columnSums[leaving];
+                        }
+                    }
+                    int columns = Math.min(width - 1, x + radius) - Math.max(0, x - radius) + 1;
+                    long count = (long) rows * columns;
+                    long scaled = (long) (gray[row + x] & 0xFF) * count * 100;
+                    dst[row + x] = scaled <= (long) sum * (100 - ADAPTIVE_PERCENT) ? 0 : (byte) WHITE;
+                }
+            }
+        });
+        return dst;
+    }
+
+    private static void addRow(int[] columnSums, byte[] gray, int y, int width, int sign) {
+        int row = y * width;
+        for (int x = 0; x < width; x++) {
+            columnSums[x] += sign * (gray[row + x] & 0xFF);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private static BufferedImage toImage(byte[] gray, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(gray, 0, data, 0, gray.length);
+        return image;
+    }
+
+    @FunctionalInterface
+    private interface RowBand {
+
+        void process(int fromRow, int toRow);
+    }
+
+    /**
+     * Run {@code band} over [0, height), split into row bands on the common
+     * fork-join pool when the image is large
+     */
+    private static void forRows(int width, int height, RowBand band) {
+        if ((long) width * height < PARALLEL_THRESHOLD) {
+            band.process(0, height);
+            return;
+        }
+        int grain = Math.max(MIN_BAND_ROWS, height / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        ForkJoinPool.commonPool().invoke(new RowTask(band, 0, height, grain));
+    }
+
+    private static final class RowTask extends RecursiveAction {
+
+        private final RowBand band;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RowTask(RowBand band, int from, int to, int grain) {
+            this.band = band;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                band.process(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RowTask(band, from, mid, grain), new RowTask(band, mid, to, grain));
+        }
+    }
+}
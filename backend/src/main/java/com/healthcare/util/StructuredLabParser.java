@@ -0,0 +1,562 @@
+package com.healthcare.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming readers for lab results exported as CSV, HL7 v2 ORU messages or
+ * FHIR {@code Observation} JSON (a single resource or a Bundle).
+ * <p>
+ * Each reader walks its input once, record by record (CSV row, HL7 segment,
+ * Bundle entry), and hands every result to a callback as an
+ * {@link Observation} with the value still as text, so memory does not grow
+ * with the export. Malformed input raises {@link IllegalArgumentException}
+ * naming the line or entry.
+ * </p>
+ */
+public class StructuredLabParser {
+
+    public enum Format {
+        CSV, HL7, FHIR
+    }
+
+    /**
+     * One result as exported
+     *
+     * @param code      LOINC code when the source gave one, else null
+     * @param name      test name as exported
+     * @param value     result as text, e.g. "180", "&lt;5", "120/80"
+     * @param unit      reported unit, or null
+     * @param reference reference range as text, or null
+     * @param flag      abnormal flag (H, L, ...), or null
+     * @param effective when the sample was taken, or null
+     */
+    public record Observation(String code, String name, String value, String unit, String reference,
+                              String flag, LocalDateTime effective) {
+    }
+
+    private static final String LOINC_SYSTEM = "http://loinc.org";
+
+    // HL7 result statuses that withdraw a result: deleted, wrong, cannot obtain
+    private static final Set<String> WITHDRAWN_HL7 = Set.of("D", "W", "X");
+    private static final Set<String> WITHDRAWN_FHIR = Set.of("entered-in-error", "cancelled");
+
+    public static void parse(InputStream in, Format format, Consumer<Observation> sink) throws IOException {
+        switch (format) {
+            case CSV -> parseCsv(reader(in), sink);
+            case HL7 -> parseHl7(reader(in), sink);
+            case FHIR -> parseFhir(in, sink);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // CSV
+    // ─────────────────────────────────────────────────────────
+
+    private static final Map<String, String> CSV_COLUMNS = new HashMap<>();
+
+    static {
+        csvColumn("name", "test", "test name", "analyte", "name", "observation", "component", "description",
+                "parameter", "investigation");
+        csvColumn("value", "value", "result", "result value", "observation value");
+        csvColumn("unit", "unit", "units", "uom");
+        csvColumn("code", "loinc", "loinc code", "code", "test code");
+        csvColumn("reference", "reference range", "ref range", "range", "normal range", "reference",
+                "reference interval", "biological reference interval");
+        csvColumn("flag", "flag", "abnormal flag", "interpretation");
+        csvColumn("date", "date", "collected", "collection date", "collected date", "result date",
+                "observation date", "effective", "effective date");
+    }
+
+    /**
+     * RFC 4180 rows with a header naming the columns (see {@link #CSV_COLUMNS});
+     * the delimiter (comma, semicolon or tab) is taken from the header line
+     */
+    private static void parseCsv(BufferedReader reader, Consumer<Observation> sink) throws IOException {
+        String header = reader.readLine();
+        while (header != null && header.isBlank()) {
+            header = reader.readLine();
+        }
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty.");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        char delimiter = delimiter(header);
+        List<String> names = new CsvReader(new StringReader(header), delimiter).next();
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String role = CSV_COLUMNS.get(names.get(i).trim().toLowerCase().replaceAll("\\s+", " "));
+            if (role != null) {
+                columns.putIfAbsent(role, i);
+            }
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("value")) {
+            throw new IllegalArgumentException("CSV header needs a test name column and a result column, found: "
+                    + String.join(", ", names));
+        }
+
+        CsvReader rows = new CsvReader(reader, delimiter);
+        List<String> row;
+        while ((row = rows.next()) != null) {
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            String name = cell(row, columns.get("name"));
+            String value = cell(row, columns.get("value"));
+            if (name == null || value == null) {
+                continue;
+            }
+            String date = cell(row, columns.get("date"));
+            sink.accept(new Observation(cell(row, columns.get("code")), name, value,
+                    cell(row, columns.get("unit")), cell(row, columns.get("reference")),
+                    cell(row, columns.get("flag")), date == null ? null : isoDateTime(date, rows.line)));
+        }
+    }
+
+    private static char delimiter(String header) {
+        char best = ',';
+        long bestCount = header.chars().filter(c -> c == ',').count();
+        for (char candidate : new char[]{';', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static String cell(List<String> row, Integer column) {
+        if (column == null || column >= row.size()) {
+            return null;
+        }
+        String value = row.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads one record at a time; quoted fields may hold delimiters, doubled
+     * quotes and line breaks
+     */
+    private static final class CsvReader {
+
+        private final Reader in;
+        private final char delimiter;
+        private int pending = -2;
+        private int line = 1;
+
+        CsvReader(Reader in, char delimiter) {
+            this.in = in;
+            this.delimiter = delimiter;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            line++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("CSV line " + line + ": unterminated quoted field.");
+                    }
+                    if (c == '"') {
+                        int after = read();
+                        if (after == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = after;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int after = read();
+                        if (after != '\n') {
+                            pending = after;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.toString().isBlank()) {
+                    field.setLength(0);
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+
+    private static void csvColumn(String role, String... headers) {
+        for (String header : headers) {
+            CSV_COLUMNS.put(header, role);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HL7 v2
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * OBX segments of ORU^R01 messages, segment by segment. Numeric results
+     * (NM, SN and numeric ST) are kept; OBR-7 dates results whose OBX-14 is
+     * empty. MLLP framing bytes are ignored.
+     */
+    private static void parseHl7(BufferedReader reader, Consumer<Observation> sink) throws IOException {
+        Hl7Delimiters delimiters = null;
+        LocalDateTime requestDate = null;
+        int segmentNumber = 0;
+        StringBuilder segment = new StringBuilder();
+        int c;
+        do {
+            c = reader.read();
+            if (c != -1 && c != '\r' && c != '\n') {
+                if (c != 0x0B && c != 0x1C) {
+                    segment.append((char) c);
+                }
+                continue;
+            }
+            if (segment.isEmpty()) {
+                continue;
+            }
+            String text = segment.toString();
+            segment.setLength(0);
+            segmentNumber++;
+
+            if (text.startsWith("MSH")) {
+                if (text.length() < 8) {
+                    throw new IllegalArgumentException("HL7 segment " + segmentNumber + ": MSH is too short.");
+                }
+                delimiters = new Hl7Delimiters(text.charAt(3), text.charAt(4), text.charAt(5), text.charAt(6));
+                requestDate = null;
+                continue;
+            }
+            if (delimiters == null) {
+                throw new IllegalArgumentException("HL7 message must start with an MSH segment.");
+            }
+            String[] fields = split(text, delimiters.field);
+            switch (fields[0]) {
+                case "OBR" -> requestDate = hl7DateTime(field(fields, 7, delimiters), segmentNumber);
+                case "OBX" -> {
+                    Observation observation = obx(fields, delimiters, requestDate, segmentNumber);
+                    if (observation != null) {
+                        sink.accept(observation);
+                    }
+                }
+                default -> {
+                    // PID, ORC, NTE, ... carry no results
+                }
+            }
+        } while (c != -1);
+        if (delimiters == null) {
+            throw new IllegalArgumentException("No HL7 MSH segment found.");
+        }
+    }
+
+    private static Observation obx(String[] fields, Hl7Delimiters d, LocalDateTime requestDate, int segmentNumber) {
+        String valueType = field(fields, 2, d);
+        String status = field(fields, 11, d);
+        if (status != null && WITHDRAWN_HL7.contains(status)) {
+            return null;
+        }
+        String[] identifier = split(fields.length > 3 ? fields[3] : "", d.component);
+        String code = component(identifier, 0, d);
+        String system = component(identifier, 2, d);
+        String name = component(identifier, 1, d);
+        String rawValue = fields.length > 5 ? fields[5] : "";
+        String value;
+        if ("SN".equals(valueType)) {
+            // <comparator>^<num1>[^<separator>^<num2>]
+            String[] parts = split(rawValue, d.component);
+            String comparator = component(parts, 0, d);
+            String number = component(parts, 1, d);
+            String separator = component(parts, 2, d);
+            String second = component(parts, 3, d);
+            value = (comparator == null ? "" : comparator) + (number == null ? "" : number)
+                    + (separator != null && separator.equals("/") && second != null ? "/" + second : "");
+        } else if (valueType == null || "NM".equals(valueType) || "ST".equals(valueType)) {
+            value = unescape(split(rawValue, d.repetition)[0], d);
+        } else {
+            return null;
+        }
+        if (value.isBlank()) {
+            return null;
+        }
+        String[] units = split(fields.length > 6 ? fields[6] : "", d.component);
+        String unit = component(units, 0, d) != null ? component(units, 0, d) : component(units, 1, d);
+        LocalDateTime effective = hl7DateTime(field(fields, 14, d), segmentNumber);
+        boolean loinc = system != null && (system.equals("LN") || system.equalsIgnoreCase("LOINC"));
+        return new Observation(loinc ? code : null, name != null ? name : code, value.trim(), unit,
+                field(fields, 7, d), field(fields, 8, d), effective != null ? effective : requestDate);
+    }
+
+    /**
+     * HL7 date/time: YYYYMMDD[HH[MM[SS[.S+]]]][+/-ZZZZ], local clock time;
+     * null for dates with less than a day's precision
+     */
+    private static LocalDateTime hl7DateTime(String value, int segmentNumber) {
+        if (value == null) {
+            return null;
+        }
+        String digits = value.split("[+\\-.]", 2)[0];
+        if (digits.isEmpty() || !digits.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("HL7 segment " + segmentNumber + ": invalid date '" + value + "'.");
+        }
+        if (digits.length() < 8) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(
+                    Integer.parseInt(digits.substring(0, 4)), Integer.parseInt(digits.substring(4, 6)),
+                    Integer.parseInt(digits.substring(6, 8)),
+                    digits.length() >= 10 ? Integer.parseInt(digits.substring(8, 10)) : 0,
+                    digits.length() >= 12 ? Integer.parseInt(digits.substring(10, 12)) : 0,
+                    digits.length() >= 14 ? Integer.parseInt(digits.substring(12, 14)) : 0);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("HL7 segment " + segmentNumber + ": invalid date '" + value + "'.");
+        }
+    }
+
+    private static String field(String[] fields, int index, Hl7Delimiters d) {
+        if (index >= fields.length) {
+            return null;
+        }
+        // First component of the first repetition
+        String value = split(fields[index], d.repetition)[0];
+        return component(split(value, d.component), 0, d);
+    }
+
+    private static String component(String[] components, int index, Hl7Delimiters d) {
+        if (index >= components.length) {
+            return null;
+        }
+        String value = unescape(components[index], d).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String unescape(String value, Hl7Delimiters d) {
+        if (value.indexOf(d.escape) < 0) {
+            return value;
+        }
+        String e = String.valueOf(d.escape);
+        return value.replace(e + "F" + e, String.valueOf(d.field))
+                .replace(e + "S" + e, String.valueOf(d.component))
+                .replace(e + "R" + e, String.valueOf(d.repetition))
+                .replace(e + "T" + e, "&")
+                .replace(e + "E" + e, e);
+    }
+
+    private static String[] split(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == separator) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts.toArray(new String[0]);
+    }
+
+    private record Hl7Delimiters(char field, char component, char repetition, char escape) {
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // FHIR
+    // ─────────────────────────────────────────────────────────
+
+    /**
+     * Observations of a Bundle, read one entry at a time, or a single
+     * Observation. Panels with {@code component}s (blood pressure) yield one
+     * result per component.
+     */
+    private static void parseFhir(InputStream in, Consumer<Observation> sink) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("FHIR input must be a JSON object (Bundle or Observation).");
+            }
+            // Everything but the entries is small; keep it to handle a bare Observation
+            ObjectNode top = mapper.createObjectNode();
+            int entry = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (!"entry".equals(field) || token != JsonToken.START_ARRAY) {
+                    top.set(field, parser.readValueAsTree());
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    entry++;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String entryField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("resource".equals(entryField)) {
+                            fhirObservation(parser.readValueAsTree(), entry, sink);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+            if (entry == 0) {
+                fhirObservation(top, 0, sink);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid FHIR JSON"
+                    + (e.getLocation() != null ? " at line " + e.getLocation().getLineNr() : "")
+                    + ": " + e.getOriginalMessage());
+        }
+    }
+
+    private static void fhirObservation(JsonNode resource, int entry, Consumer<Observation> sink) {
+        if (!"Observation".equals(resource.path("resourceType").asText())
+                || WITHDRAWN_FHIR.contains(resource.path("status").asText())) {
+            return;
+        }
+        LocalDateTime effective = null;
+        String when = resource.path("effectiveDateTime").asText(resource.path("effectivePeriod").path("start")
+                .asText(resource.path("issued").asText(null)));
+        if (when != null) {
+            effective = isoDateTime(when, entry);
+        }
+        String reference = fhirReference(resource.path("referenceRange"));
+        String flag = resource.path("interpretation").path(0).path("coding").path(0).path("code").asText(null);
+
+        if (resource.has("valueQuantity") || resource.has("valueString") || resource.has("valueInteger")) {
+            fhirResult(resource, reference, flag, effective, sink);
+        }
+        for (JsonNode component : resource.path("component")) {
+            fhirResult(component, fhirReference(component.path("referenceRange")), flag, effective, sink);
+        }
+    }
+
+    private static void fhirResult(JsonNode node, String reference, String flag, LocalDateTime effective,
+                                   Consumer<Observation> sink) {
+        JsonNode code = node.path("code");
+        String loinc = null;
+        String display = null;
+        for (JsonNode coding : code.path("coding")) {
+            if (loinc == null && LOINC_SYSTEM.equals(coding.path("system").asText())) {
+                loinc = coding.path("code").asText(null);
+            }
+            if (display == null) {
+                display = coding.path("display").asText(null);
+            }
+        }
+        String name = code.path("text").asText(display);
+        String value;
+        String unit = null;
+        if (node.has("valueQuantity")) {
+            JsonNode quantity = node.path("valueQuantity");
+            if (!quantity.path("value").isNumber()) {
+                return;
+            }
+            value = quantity.path("comparator").asText("") + quantity.path("value").decimalValue().toPlainString();
+            unit = quantity.path("unit").asText(quantity.path("code").asText(null));
+        } else if (node.has("valueInteger")) {
+            value = node.path("valueInteger").asText();
+        } else if (node.has("valueString")) {
+            value = node.path("valueString").asText();
+        } else {
+            return;
+        }
+        if (name == null && loinc == null) {
+            return;
+        }
+        sink.accept(new Observation(loinc, name != null ? name : loinc, value, unit, reference, flag, effective));
+    }
+
+    private static String fhirReference(JsonNode ranges) {
+        JsonNode range = ranges.path(0);
+        if (range.isMissingNode()) {
+            return null;
+        }
+        String low = range.path("low").path("value").asText(null);
+        String high = range.path("high").path("value").asText(null);
+        if (low != null && high != null) {
+            return low + "-" + high;
+        }
+        if (low != null) {
+            return ">=" + low;
+        }
+        if (high != null) {
+            return "<=" + high;
+        }
+        return range.path("text").asText(null);
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * ISO date or date-time, with or without offset, as local clock time
+     */
+    private static LocalDateTime isoDateTime(String value, int position) {
+        String text = value.trim();
+        try {
+            if (text.length() <= 10) {
+                return LocalDate.parse(text).atStartOfDay();
+            }
+            if (text.endsWith("Z") || text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+                return OffsetDateTime.parse(text).toLocalDateTime();
+            }
+            return LocalDateTime.parse(text.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date '" + value + "' at record " + position
+                    + "; use ISO format, e.g. 2024-03-01 or 2024-03-01T08:30:00.");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.healthcare.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact storage format for large text columns.
+ * <p>
+ * A compressed value is {@code HEADER + base64(raw deflate(UTF-8 text))}. The
+ * header tells compressed values from plain ones, so a column can hold both
+ * while existing rows are migrated, and compression can be switched off
+ * without rewriting data. Plain text that itself starts with the marker
+ * character is stored behind {@link #PLAIN_HEADER}, so it is never mistaken
+ * for a compressed value.
+ * </p>
+ */
+public class TextCompressionUtil {
+
+    /**
+     * First character of every stored form other than plain text
+     */
+    public static final char MARKER = '\u0001';
+
+    /**
+     * Format marker, version 1: raw deflate + base64
+     */
+    public static final String HEADER = MARKER + "z1:";
+
+    /**
+     * Escaped plain text: the original value follows
+     */
+    public static final String PLAIN_HEADER = MARKER + "p:";
+
+    /**
+     * True when a stored value is in a marked form (compressed or escaped)
+     * rather than plain text that can be compressed as is
+     */
+    public static boolean isEncoded(String value) {
+        return value != null && !value.isEmpty() && value.charAt(0) == MARKER;
+    }
+
+    /**
+     * True when a stored value carries the compression header and its
+     * payload decodes
+     */
+    public static boolean isCompressed(String value) {
+        return value != null && value.startsWith(HEADER) && inflate(value) != null;
+    }
+
+    /**
+     * Stored form of a value that is not compressed: unchanged unless it
+     * starts with the marker character
+     */
+    public static String escape(String value) {
+        return isEncoded(value) ? PLAIN_HEADER + value : value;
+    }
+
+    /**
+     * Compresses with the fastest deflate level; returns the input in plain
+     * stored form ({@link #escape}) when it is null, shorter than
+     * {@code minLength}, or would not get smaller.
+     */
+    public static String compress(String value, int minLength) {
+        if (value == null || value.length() < minLength) {
+            return escape(value);
+        }
+        byte[] input = value.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 3 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            String encoded = HEADER + Base64.getEncoder().encodeToString(out.toByteArray());
+            String plain = escape(value);
+            return encoded.length() < plain.length() ? encoded : plain;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the plain text of a stored value. A value with the compression
+     * header whose payload does not decode was written as plain text before
+     * escaping existed and is returned unchanged.
+     */
+    public static String decompress(String value) {
+        if (value == null || !isEncoded(value)) {
+            return value;
+        }
+        if (value.startsWith(PLAIN_HEADER)) {
+            return value.substring(PLAIN_HEADER.length());
+        }
+        if (value.startsWith(HEADER)) {
+            String text = inflate(value);
+            return text != null ? text : value;
+        }
+        return value;
+    }
+
+    /**
+     * Decoded payload of a value with {@link #HEADER}, or null when it is not
+     * valid base64 holding one complete deflate stream
+     */
+    private static String inflate(String value) {
+        byte[] input;
+        try {
+            input = Base64.getDecoder().decode(value.substring(HEADER.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+            }
+            if (!inflater.finished() || inflater.getRemaining() > 0) {
+                return null;
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.healthcare.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Streams uploads to disk in fixed-size chunks, hashing them on the way, so
+ * request memory does not grow with the file.
+ */
+public class UploadIngestUtil {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Stream {@code in} to {@code target} (created, must not exist), returning
+     * the hex SHA-256 of what was written. A partial file is removed on failure.
+     */
+    public static String store(InputStream in, Path target) throws IOException {
+        MessageDigest sha256 = newSha256();
+        try (InputStream digestIn = new DigestInputStream(in, sha256);
+             OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] chunk = new byte[CHUNK_SIZE];
+            int n;
+            while ((n = digestIn.read(chunk)) != -1) {
+                out.write(chunk, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Write exactly {@code length} bytes of {@code in} into {@code file} at
+     * {@code offset}, after cutting the file back to {@code offset}, and
+     * return their hex SHA-256. The data is forced to disk before returning.
+     *
+     * @throws EOFException when {@code in} ends early or has more bytes
+     */
+    public static String writeAt(InputStream in, Path file, long offset, long length) throws IOException {
+        MessageDigest sha256 = newSha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            channel.position(offset);
+            byte[] chunk = new byte[CHUNK_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int n = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (n == -1) {
+                    throw new EOFException("Chunk ended after " + (length - remaining) + " of " + length + " bytes");
+                }
+                sha256.update(chunk, 0, n);
+                ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, n);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                remaining -= n;
+            }
+            if (in.read() != -1) {
+                throw new EOFException("Chunk is longer than " + length + " bytes");
+            }
+            channel.force(false);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Cut a partially written file back to {@code length} bytes
+     */
+    public static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a file, read in chunks
+     */
+    public static String sha256Hex(Path file) throws IOException {
+        MessageDigest sha256 = newSha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] chunk = new byte[CHUNK_SIZE];
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                sha256.update(chunk, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Move a staged upload to its content-addressed location, so identical
+     * uploads share one file on disk. A copy already there has the same
+     * content and is replaced rather than trusted: the staged file is only
+     * given up once it is the target, so the target exists afterwards even
+     * if the old copy was removed in between.
+     *
+     * @return true if no copy was there before
+     */
+    public static boolean moveToContentAddress(Path staged, Path target) throws IOException {
+        boolean existed = Files.exists(target);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return !existed;
+    }
+
+    /**
+     * Object path for a digest: {@code root/ab/cd/<sha256><extension>}
+     */
+    public static Path contentAddress(Path root, String sha256, String extension) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256 + extension);
+    }
+
+    /**
+     * Hex SHA-256 of an in-memory buffer
+     */
+    public static String sha256Hex(byte[] content) {
+        return HexFormat.of().formatHex(newSha256().digest(content));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.healthcare.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks open chat WebSocket connections per user so services can push
+ * server-initiated events (e.g. report processing progress) to them.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChatSocketRegistry {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Set<WebSocketSession>> sessionsByUser = new ConcurrentHashMap<>();
+
+    public void register(Long userId, WebSocketSession session) {
+        sessionsByUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    public void unregister(Long userId, WebSocketSession session) {
+        sessionsByUser.computeIfPresent(userId, (k, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Push an {@code event} frame to every connection of a user; a no-op when
+     * the user is not connected
+     */
+    public void pushToUser(Long userId, String event, Object data) {
+        Set<WebSocketSession> sessions = sessionsByUser.get(userId);
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "event");
+        frame.put("event", event);
+        frame.put("data", data);
+        try {
+            TextMessage message = new TextMessage(objectMapper.writeValueAsString(frame));
+            for (WebSocketSession session : sessions) {
+                send(session, message);
+            }
+        } catch (IOException e) {
+            log.warn("Could not serialise '{}' event: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * Send a frame, ignoring connections that are closed or over their buffer
+     * limit (the send decorator terminates those)
+     */
+    void send(WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(message);
+        } catch (Exception e) {
+            log.debug("Dropping frame for WebSocket session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
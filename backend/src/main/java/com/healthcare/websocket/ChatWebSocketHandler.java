@@ -0,0 +1,265 @@
+package com.healthcare.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.ChatRequest;
+import com.healthcare.dto.ChatResponse;
+import com.healthcare.model.User;
+import com.healthcare.service.ChatService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chat over a single WebSocket connection.
+ * <p>
+ * Client frames: {@code {"type":"message","clientId":"..","sessionId":1,"message":".."}}
+ * and {@code {"type":"ping"}}. Several chat sessions are multiplexed on one
+ * connection by {@code sessionId}; {@code clientId} correlates the server
+ * frames of a turn: {@code ack}, {@code typing}, {@code token} (streamed
+ * answer text), then {@code response} or {@code error}. Server-initiated
+ * {@code event} frames are pushed through {@link ChatSocketRegistry}.
+ * </p>
+ * <p>
+ * Flow control: sends go through {@link ConcurrentWebSocketSessionDecorator},
+ * which closes a connection whose buffer or send time exceeds its limits.
+ * Token frames are best effort and are skipped while the buffer is above
+ * {@code chat.ws.token-drop-threshold}; the final {@code response} frame
+ * always carries the full answer.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final CloseStatus TOKEN_EXPIRED = new CloseStatus(4001, "Token expired");
+
+    private final ChatService chatService;
+    private final ChatSocketRegistry registry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${chat.ws.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    @Value("${chat.ws.token-drop-threshold:65536}")
+    private int tokenDropThreshold;
+
+    @Value("${chat.ws.max-in-flight:2}")
+    private int maxInFlight;
+
+    @Value("${chat.ws.executor.core-size:4}")
+    private int executorCoreSize;
+
+    @Value("${chat.ws.executor.max-size:16}")
+    private int executorMaxSize;
+
+    @Value("${chat.ws.executor.queue-capacity:100}")
+    private int executorQueueCapacity;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    // Private rather than a bean, so Boot still creates its applicationTaskExecutor
+    private ThreadPoolTaskExecutor chatSocketExecutor;
+
+    public ChatWebSocketHandler(ChatService chatService, ChatSocketRegistry registry, ObjectMapper objectMapper) {
+        this.chatService = chatService;
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs chat turns off the WebSocket I/O threads; bounded so a burst of
+     * messages is rejected instead of queueing without limit
+     */
+    @PostConstruct
+    void init() {
+        chatSocketExecutor = new ThreadPoolTaskExecutor();
+        chatSocketExecutor.setCorePoolSize(executorCoreSize);
+        chatSocketExecutor.setMaxPoolSize(executorMaxSize);
+        chatSocketExecutor.setQueueCapacity(executorQueueCapacity);
+        chatSocketExecutor.setThreadNamePrefix("ws-chat-");
+        chatSocketExecutor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        chatSocketExecutor.shutdown();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        User user = (User) session.getAttributes().get(JwtHandshakeInterceptor.USER_ATTRIBUTE);
+        long expiresAt = (Long) session.getAttributes().get(JwtHandshakeInterceptor.EXPIRES_AT_ATTRIBUTE);
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimit, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+
+        connections.put(session.getId(), new Connection(decorated, user, expiresAt));
+        registry.register(user.getId(), decorated);
+        log.debug("Chat WebSocket opened for user {} ({})", user.getUsername(), session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        if (connection.isExpired()) {
+            session.close(TOKEN_EXPIRED);
+            return;
+        }
+
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            send(connection, frame("error", null, Map.of("message", "Malformed frame")));
+            return;
+        }
+
+        String type = frame.path("type").asText();
+        String clientId = frame.hasNonNull("clientId") ? frame.get("clientId").asText() : null;
+        switch (type) {
+            case "ping" -> send(connection, frame("pong", clientId, null));
+            case "message" -> handleChatMessage(connection, clientId, frame);
+            default -> send(connection, frame("error", clientId, Map.of("message", "Unknown frame type: " + type)));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            registry.unregister(connection.user.getId(), connection.session);
+            log.debug("Chat WebSocket closed for user {} ({}): {}",
+                    connection.user.getUsername(), session.getId(), status);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Chat WebSocket transport error ({}): {}", session.getId(), exception.getMessage());
+    }
+
+    /**
+     * Close connections whose JWT has expired, including idle ones
+     */
+    @Scheduled(fixedDelayString = "${chat.ws.expiry-check-interval-ms:30000}")
+    public void closeExpiredConnections() {
+        connections.values().stream()
+                .filter(Connection::isExpired)
+                .forEach(c -> {
+                    try {
+                        c.session.close(TOKEN_EXPIRED);
+                    } catch (IOException e) {
+                        log.debug("Could not close expired WebSocket session {}", c.session.getId());
+                    }
+                });
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Chat turns
+    // ─────────────────────────────────────────────────────────
+    private void handleChatMessage(Connection connection, String clientId, JsonNode frame) {
+        String text = frame.path("message").asText("");
+        if (text.isBlank()) {
+            send(connection, frame("error", clientId, Map.of("message", "Message is required")));
+            return;
+        }
+        if (connection.inFlight.incrementAndGet() > maxInFlight) {
+            connection.inFlight.decrementAndGet();
+            send(connection, frame("error", clientId, Map.of("message", "Too many messages in progress")));
+            return;
+        }
+
+        ChatRequest request = new ChatRequest(
+                frame.hasNonNull("sessionId") ? frame.get("sessionId").asLong() : null, text);
+        send(connection, frame("ack", clientId, request.getSessionId() != null
+                ? Map.of("sessionId", request.getSessionId()) : null));
+
+        try {
+            chatSocketExecutor.execute(() -> runTurn(connection, clientId, request));
+        } catch (TaskRejectedException e) {
+            connection.inFlight.decrementAndGet();
+            send(connection, frame("error", clientId, Map.of("message", "Server is busy, please retry")));
+        }
+    }
+
+    private void runTurn(Connection connection, String clientId, ChatRequest request) {
+        try {
+            send(connection, frame("typing", clientId, null));
+            ChatResponse response = chatService.processMessage(request, connection.user, delta -> {
+                // Best effort: a slow reader still gets the full text in the response frame
+                if (connection.session.getBufferSize() < tokenDropThreshold) {
+                    send(connection, frame("token", clientId, Map.of("delta", delta)));
+                }
+            });
+            send(connection, frame("response", clientId, response));
+        } catch (Exception e) {
+            log.error("WebSocket chat turn failed for user {}", connection.user.getUsername(), e);
+            send(connection, frame("error", clientId, Map.of("message", "Failed to process message")));
+        } finally {
+            connection.inFlight.decrementAndGet();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // Utilities
+    // ─────────────────────────────────────────────────────────
+    private Map<String, Object> frame(String type, String clientId, Object data) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        if (clientId != null) {
+            frame.put("clientId", clientId);
+        }
+        if (data != null) {
+            frame.put("data", data);
+        }
+        return frame;
+    }
+
+    private void send(Connection connection, Map<String, Object> frame) {
+        try {
+            registry.send(connection.session, new TextMessage(objectMapper.writeValueAsString(frame)));
+        } catch (IOException e) {
+            log.warn("Could not serialise '{}' frame: {}", frame.get("type"), e.getMessage());
+        }
+    }
+
+    private static final class Connection {
+
+        private final ConcurrentWebSocketSessionDecorator session;
+        private final User user;
+        private final long expiresAt;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Connection(ConcurrentWebSocketSessionDecorator session, User user, long expiresAt) {
+            this.session = session;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.healthcare.websocket;
+
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.UserRepository;
+import com.healthcare.security.JwtTokenProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates a WebSocket connection once, at handshake time.
+ * <p>
+ * The JWT is taken from the {@code Authorization: Bearer} header or, since
+ * browsers cannot set headers on WebSocket requests, from the {@code token}
+ * query parameter. The user is loaded once and kept in the session attributes
+ * for the lifetime of the connection.
+ * </p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ATTRIBUTE = "user";
+    public static final String EXPIRES_AT_ATTRIBUTE = "expiresAt";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String jwt = getJwtFromRequest(request);
+        if (!StringUtils.hasText(jwt) || !jwtTokenProvider.validateToken(jwt)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        User user = userRepository.findByUsername(jwtTokenProvider.getUsernameFromToken(jwt)).orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getIsActive())
+                || user.getRoles().stream().noneMatch(r -> r.getName() == Role.RoleName.ROLE_PATIENT)) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(USER_ATTRIBUTE, user);
+        attributes.put(EXPIRES_AT_ATTRIBUTE, jwtTokenProvider.getExpirationFromToken(jwt).getTime());
+        log.debug("WebSocket handshake authenticated for user {}", user.getUsername());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String getJwtFromRequest(ServerHttpRequest request) {
+        String bearerToken = request.getHeaders().getFirst("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
@@ -0,0 +1,36 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChatServiceTest {
+
+    @Test
+    void shortContentIsItsOwnPreview() {
+        assertNull(ChatService.messagePreview(null));
+        String exact = "x".repeat(160);
+        assertEquals(exact, ChatService.messagePreview(exact));
+    }
+
+    @Test
+    void longContentIsTruncatedWithEllipsis() {
+        String preview = ChatService.messagePreview("x".repeat(161));
+
+        assertEquals(160, preview.length());
+        assertEquals("x".repeat(157) + "...", preview);
+    }
+
+    @Test
+    void truncationDoesNotSplitSurrogatePair() {
+        // An emoji whose high surrogate is the 157th char, right at the cut
+        String content = "x".repeat(156) + "\uD83D\uDE00" + "y".repeat(10);
+
+        String preview = ChatService.messagePreview(content);
+
+        assertEquals("x".repeat(156) + "...", preview);
+        assertFalse(Character.isHighSurrogate(preview.charAt(preview.length() - 4)));
+    }
+}
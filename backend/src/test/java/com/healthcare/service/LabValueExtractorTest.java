@@ -0,0 +1,99 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.LabValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LabValueExtractorTest {
+
+    private final LabValueExtractor extractor = new LabValueExtractor();
+
+    @Test
+    void aliasesMapToAnalytesAndReferenceRangesAreNotReadAsValues() {
+        Map<String, LabValue> values = extractor.extract(
+                "TEST NAME        RESULT  UNIT      REF. INTERVAL\n"
+                        + "Hb               13.5    g/dL      13.0 - 17.0\n"
+                        + "FBS (fasting):   104     mg/dl     70 - 100\n"
+                        + "S. Creatinine    0.92    mg/dL     0.7 - 1.3\n");
+
+        assertEquals(13.5, values.get("Hemoglobin").getValue(), 1e-9);
+        assertEquals("g/dL", values.get("Hemoglobin").getUnit());
+        assertEquals(104, values.get("Glucose").getValue(), 1e-9);
+        assertEquals("mg/dL", values.get("Glucose").getUnit());
+        assertEquals(0.92, values.get("Creatinine").getValue(), 1e-9);
+    }
+
+    @Test
+    void valuesAreConvertedToTheStandardUnit() {
+        Map<String, LabValue> values = extractor.extract(
+                "Glucose: 10.0 mmol/L\nHemoglobin 135 g/L\nHbA1c 53 mmol/mol\nWeight 176 lbs\n");
+
+        assertEquals(180.16, values.get("Glucose").getValue(), 0.01);
+        assertEquals("mg/dL", values.get("Glucose").getUnit());
+        assertEquals("10.0 mmol/L", values.get("Glucose").getRaw());
+        assertEquals(13.5, values.get("Hemoglobin").getValue(), 1e-9);
+        assertEquals(7.0, values.get("HbA1c").getValue(), 0.01);
+        assertEquals("%", values.get("HbA1c").getUnit());
+        assertEquals(79.83, values.get("Weight").getValue(), 0.01);
+        assertEquals("kg", values.get("Weight").getUnit());
+    }
+
+    @Test
+    void unitSpellingsAndNumberFormatsAreNormalised() {
+        Map<String, LabValue> values = extractor.extract(
+                "Platelets 250,000 /cumm\nWBC 7.2 x10^9/L\nTSH 2,41 uIU/mL\nVitamin D 31 ng/ml\n");
+
+        // Cells per µL become thousands per µL, the platelet standard unit
+        assertEquals(250, values.get("Platelets").getValue(), 1e-9);
+        assertEquals("10^3/µL", values.get("Platelets").getUnit());
+        assertEquals(7.2, values.get("WBC").getValue(), 1e-9);
+        assertEquals("10^3/µL", values.get("WBC").getUnit());
+        assertEquals(2.41, values.get("TSH").getValue(), 1e-9);
+        assertEquals("mIU/L", values.get("TSH").getUnit());
+        assertEquals("ng/mL", values.get("Vitamin D").getUnit());
+    }
+
+    @Test
+    void pairedReadingsAndFirstOccurrenceWin() {
+        Map<String, LabValue> values = extractor.extract(
+                "Blood Pressure: 128/82 mmHg\nGlucose 95 mg/dL\nGlucose 250 mg/dL (repeat)\n");
+
+        LabValue pressure = values.get("Blood Pressure");
+        assertEquals(128, pressure.getValue(), 1e-9);
+        assertEquals(82.0, pressure.getSecondaryValue(), 1e-9);
+        assertEquals("mmHg", pressure.getUnit());
+        assertEquals(95, values.get("Glucose").getValue(), 1e-9);
+    }
+
+    @Test
+    void unknownLabelsFallBackToGenericPairs() {
+        Map<String, LabValue> values = extractor.extract("Lipoprotein(a): 42 nmol/L\nNo other results.\n");
+
+        assertFalse(values.isEmpty());
+        assertTrue(values.values().stream().anyMatch(v -> v.getValue() == 42 && "nmol/L".equals(v.getUnit())));
+    }
+
+    @Test
+    void structuredValuesAreNormalisedThroughTheSameUnits() {
+        LabValue platelets = extractor.normalise("Platelets", 250, null, "10*3/uL", "250");
+        assertEquals("Platelets", platelets.getName());
+        assertEquals("10^3/µL", platelets.getUnit());
+
+        LabValue glucose = extractor.normalise("fasting blood sugar", 5.5, null, "mmol/L", "5.5");
+        assertEquals("Glucose", glucose.getName());
+        assertEquals(99.09, glucose.getValue(), 0.01);
+        assertEquals("mg/dL", glucose.getUnit());
+
+        LabValue unknown = extractor.normalise("Lipoprotein(a)", 42, null, "nmol/L", "42");
+        assertEquals("Lipoprotein(a)", unknown.getName());
+        assertEquals("nmol/L", unknown.getUnit());
+
+        // No reported unit: the value is taken to be in the standard unit
+        assertEquals("mg/dL", extractor.normalise("Glucose", 95, null, null, "95").getUnit());
+    }
+}
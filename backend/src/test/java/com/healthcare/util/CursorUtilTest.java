@@ -0,0 +1,84 @@
+package com.healthcare.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorUtilTest {
+
+    @Test
+    void cursorRoundTrips() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_456_000);
+
+        String cursor = CursorUtil.encode(timestamp, 9_007_199_254_740_993L);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+        CursorUtil.Cursor decoded = CursorUtil.decode(cursor);
+        assertEquals(timestamp, decoded.timestamp());
+        assertEquals(9_007_199_254_740_993L, decoded.id());
+    }
+
+    @Test
+    void cursorOnWholeMinuteRoundTrips() {
+        // LocalDateTime.toString() drops zero seconds: "2024-03-01T08:30"
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 8, 30);
+
+        assertEquals(timestamp, CursorUtil.decode(CursorUtil.encode(timestamp, 1L)).timestamp());
+    }
+
+    @Test
+    void missingPositionHasNoCursor() {
+        assertNull(CursorUtil.encode(null, 1L));
+        assertNull(CursorUtil.encode(LocalDateTime.now(), null));
+        assertNull(CursorUtil.decode(null));
+        assertNull(CursorUtil.decode("  "));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String[] malformed = {
+                "not base64!",
+                encodeRaw("2024-03-01T08:30:00"),
+                encodeRaw("2024-03-01T08:30:00|"),
+                encodeRaw("2024-03-01T08:30:00|abc"),
+                encodeRaw("yesterday|42"),
+                encodeRaw("|42")
+        };
+        for (String cursor : malformed) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> CursorUtil.decode(cursor), cursor);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        String cursor = CursorUtil.encode(LocalDateTime.of(2024, 3, 1, 8, 30, 15), 42L);
+
+        String truncated = cursor.substring(0, cursor.length() - 3);
+        String replacedDate = "Z" + cursor.substring(1);
+
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> CursorUtil.decode(replacedDate));
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertEquals(20, CursorUtil.pageSize(null, 20, 100));
+        assertEquals(20, CursorUtil.pageSize(0, 20, 100));
+        assertEquals(20, CursorUtil.pageSize(-5, 20, 100));
+        assertEquals(7, CursorUtil.pageSize(7, 20, 100));
+        assertEquals(100, CursorUtil.pageSize(1000, 20, 100));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,200 @@
+package com.healthcare.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileDownloadUtilTest {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String ETAG = "3f2a9c";
+    private static final Instant MODIFIED = Instant.parse("2024-03-01T08:30:00Z");
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void writeFile() throws IOException {
+        file = dir.resolve("report.pdf");
+        Files.writeString(file, CONTENT, StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    void sendsWholeFileWithValidators() throws IOException {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/report"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + ETAG + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(httpDate(MODIFIED), response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertArrayEquals(CONTENT.getBytes(StandardCharsets.US_ASCII), response.getContentAsByteArray());
+    }
+
+    @Test
+    void sendsRequestedRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-15");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-15/36", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(6, response.getContentLengthLong());
+        assertEquals("abcdef", response.getContentAsString());
+    }
+
+    @Test
+    void sendsOpenAndSuffixRanges() throws IOException {
+        MockHttpServletRequest open = new MockHttpServletRequest("GET", "/report");
+        open.addHeader(HttpHeaders.RANGE, "bytes=30-");
+        assertEquals("uvwxyz", send(open).getContentAsString());
+
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/report");
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-4");
+        MockHttpServletResponse response = send(suffix);
+        assertEquals("bytes 32-35/36", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("wxyz", response.getContentAsString());
+
+        // Past the end is clamped to the last byte
+        MockHttpServletRequest clamped = new MockHttpServletRequest("GET", "/report");
+        clamped.addHeader(HttpHeaders.RANGE, "bytes=34-99");
+        assertEquals("yz", send(clamped).getContentAsString());
+    }
+
+    @Test
+    void rangeBeyondEndIsNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+        request.addHeader(HttpHeaders.RANGE, "bytes=36-40");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */36", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void malformedOrMultipleRangesSendWholeFile() throws IOException {
+        for (String range : new String[]{"bytes=5-2", "bytes=0-1,4-5", "items=0-3", "bytes=abc"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = send(request);
+
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(CONTENT, response.getContentAsString(), range);
+        }
+    }
+
+    @Test
+    void ifRangeWithCurrentValidatorSendsRange() throws IOException {
+        MockHttpServletRequest byTag = new MockHttpServletRequest("GET", "/report");
+        byTag.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        byTag.addHeader(HttpHeaders.IF_RANGE, "\"" + ETAG + "\"");
+        assertEquals(206, send(byTag).getStatus());
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/report");
+        byDate.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(MODIFIED));
+        assertEquals(206, send(byDate).getStatus());
+    }
+
+    @Test
+    void ifRangeWithStaleValidatorSendsWholeFile() throws IOException {
+        MockHttpServletRequest byTag = new MockHttpServletRequest("GET", "/report");
+        byTag.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        byTag.addHeader(HttpHeaders.IF_RANGE, "\"older\"");
+        MockHttpServletResponse response = send(byTag);
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(CONTENT, response.getContentAsString());
+
+        // A weak tag never satisfies If-Range
+        MockHttpServletRequest weak = new MockHttpServletRequest("GET", "/report");
+        weak.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        weak.addHeader(HttpHeaders.IF_RANGE, "W/\"" + ETAG + "\"");
+        assertEquals(200, send(weak).getStatus());
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/report");
+        byDate.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(MODIFIED.minusSeconds(60)));
+        assertEquals(200, send(byDate).getStatus());
+    }
+
+    @Test
+    void ifNoneMatchReturnsNotModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"" + ETAG + "\"");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest changed = new MockHttpServletRequest("GET", "/report");
+        changed.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        assertEquals(200, send(changed).getStatus());
+    }
+
+    @Test
+    void ifModifiedSinceReturnsNotModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED));
+        assertEquals(304, send(request).getStatus());
+
+        MockHttpServletRequest older = new MockHttpServletRequest("GET", "/report");
+        older.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED.minusSeconds(1)));
+        assertEquals(200, send(older).getStatus());
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED));
+
+        assertEquals(200, send(request).getStatus());
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("HEAD", "/report"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileDownloadUtil.send(request, response, file, "application/pdf", "report.pdf", ETAG, false, 3600);
+        return response;
+    }
+
+    private static String httpDate(Instant instant) {
+        return HTTP_DATE.format(instant);
+    }
+}
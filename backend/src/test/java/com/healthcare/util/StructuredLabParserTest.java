@@ -0,0 +1,148 @@
+package com.healthcare.util;
+
+import com.healthcare.util.StructuredLabParser.Format;
+import com.healthcare.util.StructuredLabParser.Observation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StructuredLabParserTest {
+
+    @Test
+    void csvReadsUnitsAndReferenceRanges() throws IOException {
+        String csv = "\uFEFFTest Name;Result;Units;Reference Range;Flag;Collected\n"
+                + "Glucose;105;mg/dL;70-99;H;2024-03-01\n"
+                + "\"Cholesterol; total\";\"1,234\";mg/dL;\"<200\";;2024-03-01T08:30:00\n"
+                + "\n"
+                + "Potassium;4.1;;3.5 - 5.1;;\n";
+
+        List<Observation> observations = parse(csv, Format.CSV);
+
+        assertEquals(3, observations.size());
+        Observation glucose = observations.get(0);
+        assertEquals("Glucose", glucose.name());
+        assertEquals("105", glucose.value());
+        assertEquals("mg/dL", glucose.unit());
+        assertEquals("70-99", glucose.reference());
+        assertEquals("H", glucose.flag());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), glucose.effective());
+
+        Observation cholesterol = observations.get(1);
+        assertEquals("Cholesterol; total", cholesterol.name());
+        assertEquals("1,234", cholesterol.value());
+        assertEquals("<200", cholesterol.reference());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 8, 30), cholesterol.effective());
+
+        Observation potassium = observations.get(2);
+        assertNull(potassium.unit());
+        assertEquals("3.5 - 5.1", potassium.reference());
+        assertNull(potassium.effective());
+    }
+
+    @Test
+    void csvWithoutResultColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> parse("Test,Units\nGlucose,mg/dL\n", Format.CSV));
+    }
+
+    @Test
+    void hl7ReadsNumericAndStructuredResults() throws IOException {
+        String hl7 = "MSH|^~\\&|LAB|HOSP|||20240301083000||ORU^R01|1|P|2.5\r"
+                + "PID|1||12345\r"
+                + "OBR|1|||CBC|||20240301080000\r"
+                + "OBX|1|NM|718-7^Hemoglobin^LN||13.5|g/dL^grams per deciliter|13.0-17.0|N|||F\r"
+                + "OBX|2|SN|2345-7^Glucose^LN||>^250|mg/dL|70-99|H|||F|||20240301090000\r"
+                + "OBX|3|NM|2823-3^Potassium^LN||9.9|mmol/L|3.5-5.1|HH|||W\r"
+                + "OBX|4|TX|NOTE^Comment||see note\r";
+
+        List<Observation> observations = parse(hl7, Format.HL7);
+
+        assertEquals(2, observations.size());
+        Observation hemoglobin = observations.get(0);
+        assertEquals("718-7", hemoglobin.code());
+        assertEquals("Hemoglobin", hemoglobin.name());
+        assertEquals("13.5", hemoglobin.value());
+        assertEquals("g/dL", hemoglobin.unit());
+        assertEquals("13.0-17.0", hemoglobin.reference());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 8, 0), hemoglobin.effective());
+
+        Observation glucose = observations.get(1);
+        assertEquals(">250", glucose.value());
+        assertEquals("70-99", glucose.reference());
+        assertEquals("H", glucose.flag());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 0), glucose.effective());
+    }
+
+    @Test
+    void hl7WithoutMshIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("OBX|1|NM|718-7^Hemoglobin^LN||13.5|g/dL\r", Format.HL7));
+    }
+
+    @Test
+    void fhirBundleReadsQuantitiesRangesAndComponents() throws IOException {
+        String fhir = """
+                {"resourceType": "Bundle", "type": "collection", "entry": [
+                  {"resource": {"resourceType": "Observation", "status": "final",
+                    "code": {"coding": [{"system": "http://loinc.org", "code": "2345-7", "display": "Glucose"}]},
+                    "effectiveDateTime": "2024-03-01T08:30:00Z",
+                    "valueQuantity": {"value": 5.4, "unit": "mmol/L"},
+                    "referenceRange": [{"low": {"value": 3.9}, "high": {"value": 5.5}}]}},
+                  {"resource": {"resourceType": "Observation", "status": "final",
+                    "code": {"text": "HDL Cholesterol"},
+                    "valueQuantity": {"value": 52, "code": "mg/dL"},
+                    "referenceRange": [{"low": {"value": 40}}]}},
+                  {"resource": {"resourceType": "Observation", "status": "final",
+                    "code": {"text": "Blood Pressure"},
+                    "component": [
+                      {"code": {"text": "Systolic"}, "valueQuantity": {"value": 128, "unit": "mmHg"},
+                       "referenceRange": [{"text": "under 130"}]},
+                      {"code": {"text": "Diastolic"}, "valueQuantity": {"value": 82, "unit": "mmHg"}}]}},
+                  {"resource": {"resourceType": "Observation", "status": "entered-in-error",
+                    "code": {"text": "Sodium"}, "valueQuantity": {"value": 140, "unit": "mmol/L"}}},
+                  {"resource": {"resourceType": "Patient", "id": "p1"}}
+                ]}
+                """;
+
+        List<Observation> observations = parse(fhir, Format.FHIR);
+
+        assertEquals(4, observations.size());
+        Observation glucose = observations.get(0);
+        assertEquals("2345-7", glucose.code());
+        assertEquals("Glucose", glucose.name());
+        assertEquals("5.4", glucose.value());
+        assertEquals("mmol/L", glucose.unit());
+        assertEquals("3.9-5.5", glucose.reference());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 8, 30), glucose.effective());
+
+        Observation hdl = observations.get(1);
+        assertEquals("mg/dL", hdl.unit());
+        assertEquals(">=40", hdl.reference());
+
+        assertEquals("Systolic", observations.get(2).name());
+        assertEquals("under 130", observations.get(2).reference());
+        assertEquals("Diastolic", observations.get(3).name());
+        assertNull(observations.get(3).reference());
+    }
+
+    @Test
+    void malformedFhirIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parse("{\"resourceType\": \"Bundle\", \"entry\": [", Format.FHIR));
+    }
+
+    private static List<Observation> parse(String text, Format format) throws IOException {
+        List<Observation> observations = new ArrayList<>();
+        StructuredLabParser.parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format,
+                observations::add);
+        return observations;
+    }
+}
@@ -0,0 +1,58 @@
+package com.healthcare.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextCompressionUtilTest {
+
+    private static final String LONG_TEXT = "Glucose: 180 mg/dL (reference 70-99, flag H)\n".repeat(40);
+
+    @Test
+    void compressedValueRoundTrips() {
+        String stored = TextCompressionUtil.compress(LONG_TEXT, 512);
+        assertTrue(TextCompressionUtil.isCompressed(stored));
+        assertEquals(LONG_TEXT, TextCompressionUtil.decompress(stored));
+    }
+
+    @Test
+    void plainValueStartingWithHeaderRoundTrips() {
+        String value = TextCompressionUtil.HEADER + "not base64 at all";
+
+        // Too short to compress, and with compression switched off
+        String shortStored = TextCompressionUtil.compress(value, 512);
+        assertNotEquals(value, shortStored);
+        assertEquals(value, TextCompressionUtil.decompress(shortStored));
+        assertEquals(value, TextCompressionUtil.decompress(TextCompressionUtil.escape(value)));
+
+        // Long enough to compress
+        String longValue = TextCompressionUtil.HEADER + LONG_TEXT;
+        assertEquals(longValue, TextCompressionUtil.decompress(TextCompressionUtil.compress(longValue, 512)));
+    }
+
+    @Test
+    void escapedValueRoundTrips() {
+        String value = TextCompressionUtil.PLAIN_HEADER + "text";
+        assertEquals(value, TextCompressionUtil.decompress(TextCompressionUtil.escape(value)));
+    }
+
+    @Test
+    void legacyPlainValueWithHeaderIsReadAsIs() {
+        // Stored raw before escaping existed
+        String legacy = TextCompressionUtil.HEADER + "hello world";
+        assertFalse(TextCompressionUtil.isCompressed(legacy));
+        assertEquals(legacy, TextCompressionUtil.decompress(legacy));
+    }
+
+    @Test
+    void ordinaryValuesAreStoredUnchanged() {
+        assertEquals("short", TextCompressionUtil.compress("short", 512));
+        assertEquals("short", TextCompressionUtil.escape("short"));
+        assertNull(TextCompressionUtil.compress(null, 512));
+        assertNull(TextCompressionUtil.decompress(null));
+    }
+}
@@ -76,9 +76,14 @@ CREATE TABLE IF NOT EXISTS chat_sessions (
     is_active BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     last_message_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    message_count INT DEFAULT 0,
+    last_message_preview VARCHAR(160),
+    archived_at TIMESTAMP NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_user_id (user_id),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_sessions_user_active_last (user_id, is_active, last_message_at, id),
+    INDEX idx_sessions_retention (is_active, archived_at, last_message_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- ============================================
@@ -93,9 +98,36 @@ CREATE TABLE IF NOT EXISTS messages (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (chat_session_id) REFERENCES chat_sessions(id) ON DELETE CASCADE,
     INDEX idx_chat_session (chat_session_id),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_messages_session_created (chat_session_id, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- ============================================
+-- Table: message_archives
+-- Cold storage: one gzip JSON-lines segment per session per month
+-- ============================================
+CREATE TABLE IF NOT EXISTS message_archives (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    chat_session_id BIGINT NOT NULL,
+    archive_month CHAR(7) NOT NULL,
+    message_count INT NOT NULL,
+    first_message_at TIMESTAMP NULL,
+    last_message_at TIMESTAMP NULL,
+    payload LONGBLOB NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE INDEX idx_archives_session_month (chat_session_id, archive_month),
+    INDEX idx_archives_month (archive_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Table: message_id_seq
+-- Id blocks for write-behind message inserts (chat.write-behind.enabled)
+-- ============================================
+CREATE TABLE IF NOT EXISTS message_id_seq (
+    id INT PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB;
+
 -- ============================================
 -- Table: medical_reports
 -- ============================================
@@ -105,13 +137,105 @@ CREATE TABLE IF NOT EXISTS medical_reports (
     file_name VARCHAR(255) NOT NULL,
     file_path VARCHAR(500) NOT NULL,
     file_type VARCHAR(50),
+    content_hash CHAR(64),
+    file_size BIGINT,
     extracted_text LONGTEXT,
     ai_explanation LONGTEXT,
+    extraction_methods VARCHAR(1024),
+    abnormal_count INT,
+    processing_status VARCHAR(20),
     report_date TIMESTAMP,
     uploaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_user_id (user_id),
-    INDEX idx_uploaded_at (uploaded_at)
+    INDEX idx_uploaded_at (uploaded_at),
+    INDEX idx_reports_content_hash (content_hash),
+    INDEX idx_reports_file_path (file_path),
+    INDEX idx_reports_user_uploaded (user_id, uploaded_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Table: ocr_result_cache
+-- ============================================
+CREATE TABLE IF NOT EXISTS ocr_result_cache (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    content_hash CHAR(64) NOT NULL,
+    pipeline_version VARCHAR(16) NOT NULL,
+    extracted_text LONGTEXT,
+    extraction_methods VARCHAR(1024),
+    lab_values TEXT,
+    ai_explanation LONGTEXT,
+    explanation_model VARCHAR(100),
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_used_at TIMESTAMP NULL,
+    UNIQUE KEY idx_ocr_cache_hash_pipeline (content_hash, pipeline_version),
+    INDEX idx_ocr_cache_last_used (last_used_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Table: report_jobs
+-- ============================================
+CREATE TABLE IF NOT EXISTS report_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    report_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    run_id BIGINT,
+    refresh_explanation BOOLEAN NOT NULL DEFAULT FALSE,
+    status VARCHAR(20) NOT NULL,
+    stage VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    claimed_by VARCHAR(100),
+    last_error VARCHAR(1000),
+    next_attempt_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL,
+    INDEX idx_report_jobs_status_next (status, next_attempt_at),
+    INDEX idx_report_jobs_report (report_id),
+    INDEX idx_report_jobs_run_status (run_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Table: reprocess_runs
+-- ============================================
+CREATE TABLE IF NOT EXISTS reprocess_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    refresh_explanation BOOLEAN NOT NULL DEFAULT FALSE,
+    max_in_flight INT NOT NULL,
+    rate_per_minute INT NOT NULL,
+    last_report_id BIGINT NOT NULL DEFAULT 0,
+    max_report_id BIGINT NOT NULL,
+    total_reports BIGINT NOT NULL,
+    scheduled_reports BIGINT NOT NULL DEFAULT 0,
+    started_by BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ============================================
+-- Table: upload_sessions
+-- ============================================
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id CHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    total_size BIGINT NOT NULL,
+    chunk_size INT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    expected_sha256 CHAR(64),
+    status VARCHAR(20) NOT NULL,
+    staging_path VARCHAR(500) NOT NULL,
+    report_id BIGINT,
+    job_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL,
+    expires_at TIMESTAMP NOT NULL,
+    INDEX idx_upload_sessions_status_expires (status, expires_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- ============================================
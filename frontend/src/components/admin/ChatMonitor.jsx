@@ -61,7 +61,7 @@ const ChatMonitor = ({ sessions, onRefresh }) => {
     setLoadingMessages(true);
     try {
       const res = await adminAPI.getSessionMessages(session.id);
-      if (res.data.success) setMessages(res.data.data);
+      if (res.data.success) setMessages(res.data.data.items);
       else setMessages([]);
     } catch {
       setMessages([]);
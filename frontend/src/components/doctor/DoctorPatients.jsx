@@ -24,7 +24,7 @@ const DoctorPatients = ({ patients }) => {
       setSelected({
         patient,
         details: detailsRes.status === 'fulfilled' ? detailsRes.value.data?.data : null,
-        reports: reportsRes.status === 'fulfilled' ? (reportsRes.value.data?.data ?? []) : [],
+        reports: reportsRes.status === 'fulfilled' ? (reportsRes.value.data?.data?.items ?? []) : [],
         loading: false,
       });
     } catch {
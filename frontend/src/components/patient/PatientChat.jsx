@@ -348,9 +348,16 @@ const PatientChat = () => {
   };
 
   const messagesEndRef = useRef(null);
+  const olderCursorRef = useRef(null);
+  const prependingRef = useRef(false);
+  const [loadingOlder, setLoadingOlder] = useState(false);
 
   const scrollToBottom = () => messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
-  useEffect(() => { scrollToBottom(); }, [messages]);
+  useEffect(() => {
+    // Keep the scroll position when older messages are prepended
+    if (prependingRef.current) { prependingRef.current = false; return; }
+    scrollToBottom();
+  }, [messages]);
 
   // Acquire geolocation once on mount
   useEffect(() => {
@@ -369,7 +376,7 @@ const PatientChat = () => {
     setSessionsLoading(true);
     try {
       const res = await chatAPI.getSessions();
-      if (res.data.success) setSessions(res.data.data || []);
+      if (res.data.success) setSessions(res.data.data?.items || []);
     } catch { setSessions([]); }
     finally { setSessionsLoading(false); }
   }, []);
@@ -380,11 +387,30 @@ const PatientChat = () => {
     setLoading(true);
     try {
       const res = await chatAPI.getSessionMessages(sessionId);
-      if (res.data.success) setMessages(res.data.data || []);
+      if (res.data.success) {
+        const page = res.data.data;
+        olderCursorRef.current = page?.hasOlder ? page.olderCursor : null;
+        setMessages(page?.items || []);
+      }
     } catch { setMessages([]); }
     finally { setLoading(false); }
   };
 
+  const handleMessagesScroll = async (e) => {
+    if (e.currentTarget.scrollTop > 0 || !olderCursorRef.current || loadingOlder || !activeSession) return;
+    setLoadingOlder(true);
+    try {
+      const res = await chatAPI.getSessionMessages(activeSession.id, { before: olderCursorRef.current });
+      if (res.data.success) {
+        const page = res.data.data;
+        olderCursorRef.current = page.hasOlder ? page.olderCursor : null;
+        prependingRef.current = true;
+        setMessages(prev => [...page.items, ...prev]);
+      }
+    } catch { /* keep what is already shown */ }
+    finally { setLoadingOlder(false); }
+  };
+
   const handleSelectSession = (s) => {
     setActiveSession(s);
     loadMessages(s.id);
@@ -639,7 +665,12 @@ const PatientChat = () => {
                 </div>
 
                 {/* Messages */}
-                <div className="flex-1 overflow-y-auto px-5 py-4 space-y-4">
+                <div className="flex-1 overflow-y-auto px-5 py-4 space-y-4" onScroll={handleMessagesScroll}>
+                  {loadingOlder && (
+                    <div className="flex justify-center py-2">
+                      <div className="w-5 h-5 border-2 border-blue-400 border-t-transparent rounded-full animate-spin" />
+                    </div>
+                  )}
                   {loading ? (
                     <div className="flex justify-center py-10">
                       <div className="w-8 h-8 border-4 border-blue-500 border-t-transparent rounded-full animate-spin" />
@@ -123,6 +123,16 @@ const PatientReports = ({ reports, onRefresh }) => {
   const [uploadError, setUploadError] = useState('');
   const fileRef = useRef(null);
 
+  // List entries are summaries; the text and explanation come with the report
+  const handleView = async (reportId) => {
+    try {
+      const response = await reportAPI.getReportById(reportId);
+      if (response.data.success) setViewReport(response.data.data);
+    } catch (err) {
+      console.error('Error loading report:', err);
+    }
+  };
+
   const handleUpload = async (e) => {
     const file = e.target.files?.[0];
     if (!file) return;
@@ -135,7 +145,12 @@ const PatientReports = ({ reports, onRefresh }) => {
     try {
       const formData = new FormData();
       formData.append('file', file);
-      await reportAPI.uploadReport(formData);
+      const response = await reportAPI.uploadReport(formData);
+      onRefresh?.();
+      const job = await reportAPI.waitForJob(response.data.data.job.id);
+      if (job.status === 'FAILED') {
+        setUploadError('Processing failed: ' + (job.lastError || 'unknown error'));
+      }
       onRefresh?.();
     } catch (err) {
       setUploadError(err.response?.data?.message || 'Upload failed. Please try again.');
@@ -225,7 +240,7 @@ const PatientReports = ({ reports, onRefresh }) => {
               </div>
               <div className="flex items-center gap-2 flex-shrink-0">
                 <button
-                  onClick={() => setViewReport(report)}
+                  onClick={() => handleView(report.id)}
                   className="flex items-center gap-1.5 px-3 py-1.5 text-xs font-medium text-blue-600 bg-blue-50 hover:bg-blue-100 rounded-lg transition-colors"
                 >
                   <FaEye /> View
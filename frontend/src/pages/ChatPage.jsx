@@ -42,7 +42,7 @@ const ChatPage = () => {
     try {
       const response = await chatAPI.getSessions();
       if (response.data.success) {
-        setSessions(response.data.data);
+        setSessions(response.data.data.items);
       }
     } catch (error) {
       console.error('Error loading sessions:', error);
@@ -53,7 +53,7 @@ const ChatPage = () => {
     try {
       const response = await chatAPI.getSessionMessages(sessionId);
       if (response.data.success) {
-        setMessages(response.data.data);
+        setMessages(response.data.data.items);
       }
     } catch (error) {
       console.error('Error loading messages:', error);
@@ -45,8 +45,8 @@ const PatientDashboard = ({ initialSection = 'overview' }) => {
         await Promise.allSettled([
           patientAPI.getStats(),
           patientAPI.getProfile(),
-          chatAPI.getSessions(),
-          reportAPI.getReports(),
+          chatAPI.getSessions({ limit: 100 }),
+          reportAPI.getReports({ limit: 100 }),
           patientAPI.getAppointments(),
           patientAPI.getDoctors(),
         ]);
@@ -56,8 +56,8 @@ const PatientDashboard = ({ initialSection = 'overview' }) => {
       setData({
         stats:        statsRes.status        === 'fulfilled' ? statsRes.value.data?.data        : null,
         profile:      profileRes.status      === 'fulfilled' ? profileRes.value.data?.data      : null,
-        sessions:     sessionsRes.status     === 'fulfilled' ? (sessionsRes.value.data?.data ?? sessionsRes.value.data ?? []) : [],
-        reports:      reportsRes.status      === 'fulfilled' ? (reportsRes.value.data?.data   ?? reportsRes.value.data   ?? []) : [],
+        sessions:     sessionsRes.status     === 'fulfilled' ? (sessionsRes.value.data?.data?.items ?? []) : [],
+        reports:      reportsRes.status      === 'fulfilled' ? (reportsRes.value.data?.data?.items ?? []) : [],
         appointments: appointmentsRes.status === 'fulfilled' ? (appointmentsRes.value.data?.data ?? appointmentsRes.value.data ?? []) : [],
         doctors:      doctorsRes.status      === 'fulfilled' ? (doctorsRes.value.data?.data    ?? doctorsRes.value.data    ?? []) : [],
       });
@@ -5,6 +5,7 @@ import { FaUpload, FaFileAlt, FaTrash, FaEye } from 'react-icons/fa';
 
 const ReportsPage = () => {
   const [reports, setReports] = useState([]);
+  const [olderCursor, setOlderCursor] = useState(null);
   const [selectedReport, setSelectedReport] = useState(null);
   const [uploading, setUploading] = useState(false);
   const [loading, setLoading] = useState(true);
@@ -13,11 +14,14 @@ const ReportsPage = () => {
     loadReports();
   }, []);
 
-  const loadReports = async () => {
+  // Summaries only; the text and explanation load with handleViewReport
+  const loadReports = async (before) => {
     try {
-      const response = await reportAPI.getReports();
+      const response = await reportAPI.getReports({ before });
       if (response.data.success) {
-        setReports(response.data.data);
+        const page = response.data.data;
+        setReports((prev) => (before ? [...prev, ...page.items] : page.items));
+        setOlderCursor(page.hasOlder ? page.olderCursor : null);
       }
     } catch (error) {
       console.error('Error loading reports:', error);
@@ -37,7 +41,11 @@ const ReportsPage = () => {
     try {
       const response = await reportAPI.uploadReport(formData);
       if (response.data.success) {
-        alert('Report uploaded and processed successfully!');
+        loadReports();
+        const job = await reportAPI.waitForJob(response.data.data.job.id);
+        alert(job.status === 'COMPLETED'
+          ? 'Report uploaded and processed successfully!'
+          : 'Report uploaded, but processing failed: ' + (job.lastError || 'unknown error'));
         loadReports();
       }
     } catch (error) {
@@ -152,6 +160,14 @@ const ReportsPage = () => {
                     </div>
                   </div>
                 ))}
+                {olderCursor && (
+                  <button
+                    onClick={() => loadReports(olderCursor)}
+                    className="w-full text-sm text-primary-600 hover:text-primary-700 py-2"
+                  >
+                    Load older reports
+                  </button>
+                )}
               </div>
             )}
           </div>
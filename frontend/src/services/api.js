@@ -47,12 +47,21 @@ export const authAPI = {
 // Chat APIs
 export const chatAPI = {
   sendMessage: (data) => api.post('/chat/message', data),
-  getSessions: () => api.get('/chat/sessions'),
-  getSessionMessages: (sessionId) => api.get(`/chat/sessions/${sessionId}/messages`),
+  // Paged: { before, limit }; response data is { items, olderCursor, hasOlder }
+  getSessions: (params) => api.get('/chat/sessions', { params }),
+  // Paged: { before, after, limit } cursors; response data is { items, olderCursor, newerCursor, hasOlder, hasNewer }
+  getSessionMessages: (sessionId, params) => api.get(`/chat/sessions/${sessionId}/messages`, { params }),
   createSession: (title) => api.post('/chat/sessions', null, { params: { title } }),
   deleteSession: (sessionId) => api.delete(`/chat/sessions/${sessionId}`),
   regenerateResponse: (sessionId) => api.post(`/chat/sessions/${sessionId}/regenerate`),
   locationChat: (data) => api.post('/chat/location', data),
+  // WebSocket transport: send { type: 'message', clientId, sessionId, message };
+  // receives ack / typing / token / response / error / event frames
+  openSocket: () => {
+    const protocol = window.location.protocol === 'https:' ? 'wss' : 'ws';
+    const token = encodeURIComponent(localStorage.getItem('token') || '');
+    return new WebSocket(`${protocol}://${window.location.host}/ws/chat?token=${token}`);
+  },
 };
 
 // Medical Report APIs
@@ -60,9 +69,25 @@ export const reportAPI = {
   uploadReport: (formData) => api.post('/reports/upload', formData, {
     headers: { 'Content-Type': 'multipart/form-data' },
   }),
-  getReports: () => api.get('/reports'),
+  // Lab export (CSV, HL7 v2, FHIR JSON); format is detected when omitted
+  importLabResults: (formData) => api.post('/reports/structured', formData, {
+    headers: { 'Content-Type': 'multipart/form-data' },
+  }),
+  // Paged summaries: { before, limit }; response data is { items, olderCursor, hasOlder }
+  getReports: (params) => api.get('/reports', { params }),
   getReportById: (reportId) => api.get(`/reports/${reportId}`),
+  // Original upload as a Blob; pass headers: { Range: 'bytes=0-1023' } for part of it
+  getReportFile: (reportId, config = {}) => api.get(`/reports/${reportId}/file`, { responseType: 'blob', ...config }),
   deleteReport: (reportId) => api.delete(`/reports/${reportId}`),
+  getJob: (jobId) => api.get(`/reports/jobs/${jobId}`),
+  // Poll an upload's processing job until it completes or fails
+  waitForJob: async (jobId, intervalMs = 2000) => {
+    for (;;) {
+      const job = (await api.get(`/reports/jobs/${jobId}`)).data.data;
+      if (job.status === 'COMPLETED' || job.status === 'FAILED') return job;
+      await new Promise((resolve) => setTimeout(resolve, intervalMs));
+    }
+  },
 };
 
 // Patient APIs
@@ -83,7 +108,8 @@ export const doctorAPI = {
   getAppointments: () => api.get('/doctor/appointments'),
   getPatients: () => api.get('/doctor/patients'),
   getPatientDetails: (patientId) => api.get(`/doctor/patients/${patientId}`),
-  getPatientReports: (patientId) => api.get(`/doctor/patients/${patientId}/reports`),
+  // Paged summaries: { before, limit }; response data is { items, olderCursor, hasOlder }
+  getPatientReports: (patientId, params) => api.get(`/doctor/patients/${patientId}/reports`, { params }),
   generateSoapNote: (data) => api.post('/doctor/soap-note', data),
   updateAppointment: (appointmentId, data) => api.put(`/doctor/appointments/${appointmentId}`, data),
 };
@@ -101,7 +127,7 @@ export const adminAPI = {
 
   // Chat Sessions
   getAllSessions: () => api.get('/admin/sessions'),
-  getSessionMessages: (sessionId) => api.get(`/admin/sessions/${sessionId}/messages`),
+  getSessionMessages: (sessionId, params) => api.get(`/admin/sessions/${sessionId}/messages`, { params }),
   flagSession: (sessionId) => api.put(`/admin/sessions/${sessionId}/flag`),
 
   // Appointments
@@ -12,6 +12,10 @@ export default defineConfig({
       '/api': {
         target: 'http://localhost:8081',
         changeOrigin: true
+      },
+      '/ws': {
+        target: 'ws://localhost:8081',
+        ws: true
       }
     }
   }